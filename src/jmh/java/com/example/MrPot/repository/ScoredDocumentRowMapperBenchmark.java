@@ -0,0 +1,89 @@
+package com.example.MrPot.repository;
+
+import com.example.MrPot.model.ScoredDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row mapping for findNearest, dominated by parsing the metadata JSON column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoredDocumentRowMapperBenchmark {
+
+    @Param({"0", "4", "32"})
+    int metadataFields;
+
+    @Param({"200", "2000"})
+    int contentChars;
+
+    private KbDocumentVectorRepository.ScoredDocumentRowMapper rowMapper;
+    private ResultSet row;
+
+    @Setup
+    public void setup() {
+        rowMapper = new KbDocumentVectorRepository.ScoredDocumentRowMapper(new ObjectMapper());
+
+        StringBuilder metadata = new StringBuilder("{");
+        for (int i = 0; i < metadataFields; i++) {
+            if (i > 0) {
+                metadata.append(',');
+            }
+            metadata.append("\"field").append(i).append("\":")
+                    .append(i % 2 == 0 ? "\"value-" + i + "\"" : "[" + i + ",\"tag\"," + (i * 0.5) + "]");
+        }
+        metadata.append('}');
+
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("id", 42L);
+        columns.put("doc_type", "blog");
+        columns.put("content", "x".repeat(contentChars));
+        columns.put("metadata", metadataFields == 0 ? null : metadata.toString());
+        columns.put("score", 0.873);
+        row = resultSet(columns);
+    }
+
+    @Benchmark
+    public ScoredDocument mapRow() throws SQLException {
+        return rowMapper.mapRow(row, 0);
+    }
+
+    /**
+     * Minimal single-row ResultSet backed by a map (only the getters the row mapper uses).
+     */
+    private static ResultSet resultSet(Map<String, Object> columns) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object value = columns.get((String) args[0]);
+                    return switch (method.getName()) {
+                        case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                        case "getDouble" -> value == null ? 0.0 : ((Number) value).doubleValue();
+                        case "getString" -> (String) value;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.model.KbDocument;
+import com.example.MrPot.model.ScoredDocument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, KB-like test data for the benchmarks (mixed English / CJK prose).
+ */
+final class BenchmarkFixtures {
+
+    private static final String[] WORDS = {
+            "Yuqi", "built", "a", "Spring", "Boot", "service", "that", "streams", "answers", "from",
+            "the", "knowledge", "base", "using", "pgvector", "and", "Redis", "chat", "memory", "with",
+            "项目", "经历", "技术", "博客", "简历", "latency", "budget", "retrieval", "context", "prompt"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static String text(int chars, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(chars + 16);
+        while (sb.length() < chars) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        sb.setLength(chars);
+        return sb.toString();
+    }
+
+    static List<ScoredDocument> documents(int count, int chars) {
+        List<ScoredDocument> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            KbDocument doc = new KbDocument();
+            doc.setId(1_000L + i);
+            doc.setDocType(i % 3 == 0 ? "blog" : i % 3 == 1 ? "project" : "resume");
+            doc.setContent(text(chars, i));
+            documents.add(new ScoredDocument(doc, 0.92 - i * 0.015));
+        }
+        return documents;
+    }
+
+    static List<RedisChatMemoryService.StoredMessage> history(int messages, int chars) {
+        List<RedisChatMemoryService.StoredMessage> history = new ArrayList<>(messages);
+        for (int i = 0; i < messages; i++) {
+            history.add(new RedisChatMemoryService.StoredMessage(
+                    i % 2 == 0 ? "user" : "assistant",
+                    text(chars, 10_000L + i),
+                    1_700_000_000_000L + i * 1_000L
+            ));
+        }
+        return history;
+    }
+}
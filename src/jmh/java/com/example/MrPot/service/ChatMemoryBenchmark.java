@@ -0,0 +1,68 @@
+package com.example.MrPot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat memory: history rendering for the prompt and StoredMessage JSON round trips
+ * (one per Redis list entry on every load / append).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatMemoryBenchmark {
+
+    @Param({"2", "10"})
+    int messages;
+
+    @Param({"100", "1000", "4000"})
+    int messageChars;
+
+    private RedisChatMemoryService chatMemoryService;
+    private ObjectMapper objectMapper;
+    private List<RedisChatMemoryService.StoredMessage> history;
+    private RedisChatMemoryService.StoredMessage message;
+    private String messageJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        // renderHistory touches no collaborators
+        chatMemoryService = new RedisChatMemoryService(null, objectMapper);
+        history = BenchmarkFixtures.history(messages, messageChars);
+        message = history.get(history.size() - 1);
+        messageJson = objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public String renderHistory() {
+        return chatMemoryService.renderHistory(history);
+    }
+
+    @Benchmark
+    public String serializeMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    @Benchmark
+    public RedisChatMemoryService.StoredMessage deserializeMessage() throws JsonProcessingException {
+        return objectMapper.readValue(messageJson, RedisChatMemoryService.StoredMessage.class);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.model.RagRetrievalResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RagAnswerService prompt assembly and the "rag" event payload summary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptPathBenchmark {
+
+    @Param({"3", "8", "20"})
+    int docCount;
+
+    @Param({"200", "2000", "8000"})
+    int docChars;
+
+    private String question;
+    private String historyText;
+    private RagRetrievalResult retrieval;
+
+    @Setup
+    public void setup() {
+        question = "What did Yuqi build with pgvector and how does the streaming pipeline work?";
+        var documents = BenchmarkFixtures.documents(docCount, docChars);
+        String context = new RagRetrievalService(null, null, null, null, null, null).buildContext(documents);
+        retrieval = new RagRetrievalResult(question, documents, context);
+        historyText = new RedisChatMemoryService(null, null)
+                .renderHistory(BenchmarkFixtures.history(8, 400));
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return RagAnswerService.buildPrompt(question, QueryIntent.KNOWLEDGE, retrieval, historyText);
+    }
+
+    @Benchmark
+    public String buildPromptFastPath() {
+        return RagAnswerService.buildPrompt(question, QueryIntent.GREETING, retrieval, historyText);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> summarizeRetrieval() {
+        return RagAnswerService.summarizeRetrieval(retrieval);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.CompressionProperties;
+import com.example.MrPot.ingest.PassageSplitter;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RagRetrievalService post-search work: dynamic min score, context assembly, diversity and compression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetrievalPathBenchmark {
+
+    @Param({"3", "8", "20"})
+    int docCount;
+
+    @Param({"200", "2000", "8000"})
+    int docChars;
+
+    private RagRetrievalService retrievalService;
+    private List<ScoredDocument> documents;
+    private double[] topScores;
+    private ContextCompressor compressor;
+    private List<ScoredPassage> passages;
+
+    @Setup
+    public void setup() {
+        // buildContext touches no collaborators
+        retrievalService = new RagRetrievalService(null, null, null, null, null, null);
+        documents = BenchmarkFixtures.documents(docCount, docChars);
+        topScores = new double[]{0.21, 0.38, 0.55, 0.61, 0.74, 0.83, 0.91, 0.97};
+
+        CompressionProperties compression = new CompressionProperties();
+        compression.setEnabled(true);
+        compressor = new ContextCompressor(compression, new SimpleMeterRegistry());
+        // Stored passages with random query scores, as findPassages would return them
+        Random random = new Random(42);
+        passages = new ArrayList<>();
+        for (ScoredDocument document : documents) {
+            List<String> parts = PassageSplitter.split(document.document().getContent(), compression.getPassageChars());
+            for (int i = 0; i < parts.size(); i++) {
+                passages.add(new ScoredPassage(document.document().getId(), i, parts.get(i), random.nextDouble()));
+            }
+        }
+    }
+
+    @Benchmark
+    public String buildContext() {
+        return retrievalService.buildContext(documents);
+    }
+
+    /**
+     * Query-time compression: passage selection within the budget plus the compressed context.
+     */
+    @Benchmark
+    public String compressedContext() {
+        ContextCompressor.Result result = compressor.compress(documents, passages);
+        return retrievalService.buildContext(documents, result.excerpts());
+    }
+
+    /**
+     * Ingestion-side sentence splitting and packing per document.
+     */
+    @Benchmark
+    public void splitPassages(Blackhole blackhole) {
+        for (ScoredDocument document : documents) {
+            blackhole.consume(PassageSplitter.split(document.document().getContent(), 400));
+        }
+    }
+
+    /**
+     * Near-duplicate check cost: one MinHash signature per retrieved document.
+     */
+    @Benchmark
+    public void minHashSignatures(Blackhole blackhole) {
+        for (ScoredDocument document : documents) {
+            blackhole.consume(ContextDiversifier.signature(document.document().getContent(), 5, 64));
+        }
+    }
+
+    @Benchmark
+    public void computeDynamicMinScore(Blackhole blackhole) {
+        for (double topScore : topScores) {
+            blackhole.consume(RagRetrievalService.computeDynamicMinScore(0.60, topScore));
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.model.DocumentFilter;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.repository.VectorSearchMode;
+import com.example.MrPot.repository.VectorSearchProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pgvector.PGvector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Filtered vector search across KB sizes on a real Postgres + pgvector (0.8+ for iterative scans).
+ *
+ * For every size it loads a synthetic kb_documents table into its own scratch schema (mrpot_bench_N):
+ * clustered vectors, skewed doc types (blog 70% / project 20% / resume 10%) and a "lang" metadata key.
+ * It then times doc_type- and metadata-filtered queries in three setups:
+ *  - global:           one HNSW index, iterative scans off (the old behaviour: filtered queries under-fill)
+ *  - global+iterative: the same index with hnsw.iterative_scan = relaxed_order
+ *  - partial:          per-doc_type partial HNSW indexes (db/vector/doc-type-indexes.sql)
+ * Each setup reports latency percentiles, recall@k against a brute-force scan and the mean rows returned.
+ *
+ * System properties:
+ *  bench.url (jdbc:postgresql://localhost:5432/postgres), bench.user / bench.password (PGUSER / PGPASSWORD),
+ *  bench.sizes (10000,100000), bench.dims (384), bench.queries (200), bench.k (5), bench.keep (false),
+ *  bench.report (target/filtered-search.json)
+ */
+public final class FilteredSearchBenchmark {
+
+    private static final String[] DOC_TYPES = {"blog", "project", "resume"};
+    private static final double[] DOC_TYPE_SHARE = {0.7, 0.2, 0.1};
+    private static final int CLUSTERS = 64;
+
+    private FilteredSearchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/postgres");
+        String user = System.getProperty("bench.user", System.getenv("PGUSER"));
+        String password = System.getProperty("bench.password", System.getenv("PGPASSWORD"));
+        String sizes = System.getProperty("bench.sizes", "10000,100000");
+        int dims = Integer.getInteger("bench.dims", 384);
+        int queries = Integer.getInteger("bench.queries", 200);
+        int k = Integer.getInteger("bench.k", 5);
+        boolean keep = Boolean.getBoolean("bench.keep");
+        Path reportPath = Path.of(System.getProperty("bench.report", "target/filtered-search.json"));
+
+        Map<String, Object> bySize = new LinkedHashMap<>();
+        for (String sizeValue : sizes.split(",")) {
+            int size = Integer.parseInt(sizeValue.trim());
+            String schema = "mrpot_bench_" + size;
+
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(url, user, password);
+            Properties connectionProperties = new Properties();
+            connectionProperties.setProperty("currentSchema", schema + ",public");
+            dataSource.setConnectionProperties(connectionProperties);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+            try {
+                Random random = new Random(size);
+                float[][] centers = new float[CLUSTERS][];
+                for (int c = 0; c < CLUSTERS; c++) {
+                    centers[c] = normalize(gaussian(random, dims, 1.0));
+                }
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("loadSeconds", seconds(() -> load(jdbcTemplate, schema, size, dims, centers, random)));
+                result.put("globalIndexSeconds", seconds(() -> jdbcTemplate.execute(
+                        "CREATE INDEX kb_documents_embedding_idx ON kb_documents USING hnsw (embedding vector_cosine_ops)")));
+                jdbcTemplate.execute("ANALYZE kb_documents");
+
+                List<float[]> queryVectors = new ArrayList<>(queries);
+                for (int i = 0; i < queries; i++) {
+                    float[] center = centers[random.nextInt(CLUSTERS)];
+                    queryVectors.add(normalize(add(center, gaussian(random, dims, 0.3 / Math.sqrt(dims)))));
+                }
+                Map<String, DocumentFilter> filters = new LinkedHashMap<>();
+                filters.put("none", DocumentFilter.NONE);
+                filters.put("docType=project", DocumentFilter.docType("project"));
+                filters.put("docType=resume", DocumentFilter.docType("resume"));
+                filters.put("docType=resume,lang=zh", new DocumentFilter(List.of("resume"), Map.of("lang", "zh")));
+
+                KbDocumentVectorRepository global = repository(jdbcTemplate, transactions, VectorSearchProperties.IterativeScan.OFF);
+                KbDocumentVectorRepository iterative = repository(jdbcTemplate, transactions,
+                        VectorSearchProperties.IterativeScan.RELAXED_ORDER);
+
+                Map<String, List<Set<Long>>> truth = new LinkedHashMap<>();
+                for (Map.Entry<String, DocumentFilter> filter : filters.entrySet()) {
+                    truth.put(filter.getKey(), groundTruth(jdbcTemplate, transactions, iterative, queryVectors, k, filter.getValue()));
+                }
+
+                Map<String, Object> setups = new LinkedHashMap<>();
+                setups.put("global", measure(global, queryVectors, truth, filters, k));
+                setups.put("global+iterative", measure(iterative, queryVectors, truth, filters, k));
+
+                result.put("partialIndexSeconds", seconds(() -> {
+                    for (String docType : DOC_TYPES) {
+                        jdbcTemplate.execute("CREATE INDEX kb_documents_embedding_" + docType + "_idx ON kb_documents "
+                                + "USING hnsw (embedding vector_cosine_ops) WHERE doc_type = '" + docType + "'");
+                    }
+                }));
+                jdbcTemplate.execute("ANALYZE kb_documents");
+                setups.put("partial", measure(iterative, queryVectors, truth, filters, k));
+
+                result.put("setups", setups);
+                bySize.put(String.valueOf(size), result);
+                System.out.printf("size %d: %s%n", size, result);
+            } finally {
+                if (!keep) {
+                    jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+                }
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("dims", dims);
+        report.put("queries", queries);
+        report.put("k", k);
+        report.put("docTypeShare", Map.of(DOC_TYPES[0], DOC_TYPE_SHARE[0], DOC_TYPES[1], DOC_TYPE_SHARE[1],
+                DOC_TYPES[2], DOC_TYPE_SHARE[2]));
+        report.put("sizes", bySize);
+
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        System.out.printf("Report written to %s%n", reportPath.toAbsolutePath());
+    }
+
+    private static KbDocumentVectorRepository repository(JdbcTemplate jdbcTemplate,
+                                                         TransactionTemplate transactions,
+                                                         VectorSearchProperties.IterativeScan iterativeScan) {
+        VectorSearchProperties properties = new VectorSearchProperties();
+        properties.setIterativeScan(iterativeScan);
+        return new KbDocumentVectorRepository(jdbcTemplate, new ObjectMapper(), properties, transactions);
+    }
+
+    private static void load(JdbcTemplate jdbcTemplate,
+                             String schema,
+                             int size,
+                             int dims,
+                             float[][] centers,
+                             Random random) {
+        // Extension first and pinned to public, so dropping the scratch schema never takes it along
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector SCHEMA public");
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        jdbcTemplate.execute("CREATE TABLE " + schema + ".kb_documents (id bigserial PRIMARY KEY, doc_type text, "
+                + "content text, metadata jsonb, embedding vector(" + dims + "))");
+
+        int batchSize = 1_000;
+        for (int start = 0; start < size; start += batchSize) {
+            List<Object[]> rows = new ArrayList<>(batchSize);
+            for (int i = start; i < Math.min(size, start + batchSize); i++) {
+                float[] center = centers[random.nextInt(centers.length)];
+                float[] vector = normalize(add(center, gaussian(random, dims, 0.5 / Math.sqrt(dims))));
+                rows.add(new Object[]{
+                        docType(random.nextDouble()),
+                        "Synthetic document " + i,
+                        "{\"lang\":\"" + (random.nextInt(4) == 0 ? "zh" : "en") + "\"}",
+                        new PGvector(vector)
+                });
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO kb_documents (doc_type, content, metadata, embedding) VALUES (?, ?, ?::jsonb, ?)",
+                    rows);
+        }
+    }
+
+    /**
+     * Exact filtered top-k with index scans off.
+     */
+    private static List<Set<Long>> groundTruth(JdbcTemplate jdbcTemplate,
+                                               TransactionTemplate transactions,
+                                               KbDocumentVectorRepository repository,
+                                               List<float[]> queryVectors,
+                                               int k,
+                                               DocumentFilter filter) {
+        List<Set<Long>> truth = new ArrayList<>(queryVectors.size());
+        for (float[] query : queryVectors) {
+            truth.add(VectorSearchEvaluator.ids(transactions.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+                return repository.findNearest(query, k, VectorSearchMode.EXACT, VectorSearchProfile.PRECISE, filter);
+            })));
+        }
+        return truth;
+    }
+
+    private static Map<String, Object> measure(KbDocumentVectorRepository repository,
+                                               List<float[]> queryVectors,
+                                               Map<String, List<Set<Long>>> truth,
+                                               Map<String, DocumentFilter> filters,
+                                               int k) {
+        Map<String, Object> byFilter = new LinkedHashMap<>();
+        for (Map.Entry<String, DocumentFilter> filter : filters.entrySet()) {
+            // Warm the index pages before timing
+            for (int i = 0; i < Math.min(20, queryVectors.size()); i++) {
+                repository.findNearest(queryVectors.get(i), k, VectorSearchMode.EXACT, VectorSearchProfile.BALANCED,
+                        filter.getValue());
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            double recallSum = 0;
+            long rows = 0;
+            for (int i = 0; i < queryVectors.size(); i++) {
+                long start = System.nanoTime();
+                List<ScoredDocument> found = repository.findNearest(queryVectors.get(i), k, VectorSearchMode.EXACT,
+                        VectorSearchProfile.BALANCED, filter.getValue());
+                latencies.add(System.nanoTime() - start);
+                rows += found.size();
+                recallSum += VectorSearchEvaluator.recall(truth.get(filter.getKey()).get(i),
+                        VectorSearchEvaluator.ids(found));
+            }
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("recallAtK", Math.round(recallSum / Math.max(1, queryVectors.size()) * 10_000) / 10_000.0);
+            result.put("meanRows", LatencyStats.round((double) rows / Math.max(1, queryVectors.size())));
+            result.put("latencyMillis", LatencyStats.summarize(latencies));
+            byFilter.put(filter.getKey(), result);
+        }
+        return byFilter;
+    }
+
+    private static String docType(double draw) {
+        double cumulative = 0;
+        for (int i = 0; i < DOC_TYPES.length; i++) {
+            cumulative += DOC_TYPE_SHARE[i];
+            if (draw < cumulative) {
+                return DOC_TYPES[i];
+            }
+        }
+        return DOC_TYPES[DOC_TYPES.length - 1];
+    }
+
+    private static double seconds(Runnable work) {
+        long start = System.nanoTime();
+        work.run();
+        return LatencyStats.round((System.nanoTime() - start) / 1e9);
+    }
+
+    private static float[] gaussian(Random random, int dims, double sigma) {
+        float[] vector = new float[dims];
+        for (int i = 0; i < dims; i++) {
+            vector[i] = (float) (random.nextGaussian() * sigma);
+        }
+        return vector;
+    }
+
+    private static float[] add(float[] a, float[] b) {
+        float[] sum = new float[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float scale = (float) (1.0 / Math.sqrt(Math.max(norm, 1e-12)));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.service.RedisChatMemoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chat memory kept in a map instead of Redis, with the same window size as the Redis version.
+ */
+public class InMemoryChatMemoryService extends RedisChatMemoryService {
+
+    private static final int MAX_MESSAGES_PER_SESSION = 10;
+
+    private final Map<String, List<StoredMessage>> sessions = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    public InMemoryChatMemoryService(ObjectMapper objectMapper, Duration latency) {
+        super(null, objectMapper);
+        this.latency = latency;
+    }
+
+    @Override
+    public List<StoredMessage> loadHistory(String sessionId) {
+        pause();
+        List<StoredMessage> history = sessions.get(sessionId);
+        if (history == null) {
+            return List.of();
+        }
+        synchronized (history) {
+            return List.copyOf(history);
+        }
+    }
+
+    @Override
+    public void appendTurn(String sessionId, String userMessage, String assistantMessage, boolean temporary) {
+        pause();
+        long now = System.currentTimeMillis();
+        List<StoredMessage> history = sessions.computeIfAbsent(sessionId, id -> new ArrayList<>());
+        synchronized (history) {
+            history.add(new StoredMessage("user", userMessage, now));
+            history.add(new StoredMessage("assistant", assistantMessage, now));
+            while (history.size() > MAX_MESSAGES_PER_SESSION) {
+                history.remove(0);
+            }
+        }
+    }
+
+    private void pause() {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
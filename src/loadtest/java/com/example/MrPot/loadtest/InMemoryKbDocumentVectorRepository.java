@@ -0,0 +1,130 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.model.DocumentFilter;
+import com.example.MrPot.model.KbDocument;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.repository.VectorSearchMode;
+import com.example.MrPot.repository.VectorSearchProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Exact (brute-force) cosine search over a generated in-memory KB, standing in for pgvector.
+ * A fixed extra latency models the JDBC round trip. Mode and search profile do not apply; filters do.
+ */
+public class InMemoryKbDocumentVectorRepository extends KbDocumentVectorRepository {
+
+    private final List<KbDocument> documents = new ArrayList<>();
+    private final List<float[]> vectors = new ArrayList<>();
+    private final Duration latency;
+
+    public InMemoryKbDocumentVectorRepository(int documentCount, int documentChars, int dimensions, Duration latency) {
+        super(null, null, new VectorSearchProperties(), null);
+        this.latency = latency;
+        String[] types = {"blog", "project", "resume"};
+        for (int i = 0; i < documentCount; i++) {
+            KbDocument doc = new KbDocument();
+            doc.setId((long) i + 1);
+            doc.setDocType(types[i % types.length]);
+            doc.setContent(("Document " + i + " about Yuqi's work, projects and blog posts. ")
+                    .repeat(Math.max(1, documentChars / 60)));
+            documents.add(doc);
+            vectors.add(StubEmbeddingModel.vectorFor(doc.getContent() + i, dimensions));
+        }
+    }
+
+    @Override
+    public List<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchMode mode,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter,
+                                            boolean withEmbeddings) {
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Min-heap of the best "limit" matches
+        PriorityQueue<ScoredDocument> best = new PriorityQueue<>(Comparator.comparingDouble(ScoredDocument::score));
+        for (int i = 0; i < vectors.size(); i++) {
+            if (filter != null && !matches(documents.get(i), filter)) {
+                continue;
+            }
+            double score = dot(embedding, vectors.get(i));
+            if (best.size() < limit) {
+                best.add(new ScoredDocument(documents.get(i), score));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new ScoredDocument(documents.get(i), score));
+            }
+        }
+        List<ScoredDocument> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(ScoredDocument::score).reversed());
+        if (withEmbeddings) {
+            result.replaceAll(this::withEmbedding);
+        }
+        return result;
+    }
+
+    /**
+     * No passage table here: compression keeps every document whole.
+     */
+    @Override
+    public List<ScoredPassage> findPassages(float[] embedding, Collection<Long> documentIds) {
+        return List.of();
+    }
+
+    /**
+     * Copy carrying the vector in pgvector text form, as the SQL path returns it; the shared documents stay lean.
+     */
+    private ScoredDocument withEmbedding(ScoredDocument scored) {
+        KbDocument source = scored.document();
+        KbDocument copy = new KbDocument();
+        copy.setId(source.getId());
+        copy.setDocType(source.getDocType());
+        copy.setContent(source.getContent());
+        copy.setMetadata(source.getMetadata());
+        copy.setEmbedding(Arrays.toString(vectors.get((int) (source.getId() - 1))).replace(" ", ""));
+        return new ScoredDocument(copy, scored.score());
+    }
+
+    /**
+     * doc_type membership plus shallow metadata equality (the in-memory stand-in for metadata @> ?).
+     */
+    private static boolean matches(KbDocument doc, DocumentFilter filter) {
+        if (!filter.docTypes().isEmpty() && !filter.docTypes().contains(doc.getDocType())) {
+            return false;
+        }
+        for (Map.Entry<String, Object> entry : filter.metadata().entrySet()) {
+            JsonNode value = doc.getMetadata() == null ? null : doc.getMetadata().get(entry.getKey());
+            if (value == null || !value.asText().equals(String.valueOf(entry.getValue()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.MrPot.loadtest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Percentile summaries shared by the load driver and the replay tool.
+ */
+final class LatencyStats {
+
+    static final String[] PERCENTILES = {"p50", "p90", "p99", "p999"};
+    private static final double[] QUANTILES = {0.50, 0.90, 0.99, 0.999};
+
+    private LatencyStats() {
+    }
+
+    /**
+     * count / p50 / p90 / p99 / p999 / max / mean in milliseconds.
+     */
+    static Map<String, Object> summarize(Collection<Long> nanos) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", nanos.size());
+        if (nanos.isEmpty()) {
+            return result;
+        }
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            result.put(PERCENTILES[i], millis(percentile(sorted, QUANTILES[i])));
+        }
+        result.put("max", millis(sorted[sorted.length - 1]));
+        result.put("mean", millis((long) Arrays.stream(sorted).average().orElse(0)));
+        return result;
+    }
+
+    /**
+     * Nearest-rank percentile.
+     */
+    static long percentile(long[] sorted, double p) {
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.min(sorted.length - 1, Math.max(0, idx))];
+    }
+
+    static double millis(long nanos) {
+        return round(nanos / 1e6);
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.service.RedisChatMemoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces every paid / external dependency with a local stand-in (profile "loadtest"):
+ *  - ChatModel      -> StubChatModel (AiConfig builds the default ChatClient from it)
+ *  - EmbeddingModel -> StubEmbeddingModel
+ *  - pgvector       -> InMemoryKbDocumentVectorRepository
+ *  - Redis memory   -> InMemoryChatMemoryService
+ */
+@Configuration
+@Profile("loadtest")
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestConfiguration {
+
+    @Bean
+    public ChatModel stubChatModel(LoadTestProperties properties) {
+        return new StubChatModel(properties.getChatTtft(), properties.getTokenInterval(), properties.getTokens());
+    }
+
+    @Bean
+    public EmbeddingModel stubEmbeddingModel(LoadTestProperties properties) {
+        return new StubEmbeddingModel(properties.getEmbeddingLatency(), properties.getEmbeddingDimensions());
+    }
+
+    @Bean
+    @Primary
+    public KbDocumentVectorRepository inMemoryKbDocumentVectorRepository(LoadTestProperties properties) {
+        return new InMemoryKbDocumentVectorRepository(
+                properties.getDocuments(),
+                properties.getDocumentChars(),
+                properties.getEmbeddingDimensions(),
+                properties.getVectorSearchLatency()
+        );
+    }
+
+    @Bean
+    @Primary
+    public RedisChatMemoryService inMemoryChatMemoryService(ObjectMapper objectMapper, LoadTestProperties properties) {
+        return new InMemoryChatMemoryService(objectMapper, properties.getChatMemoryLatency());
+    }
+}
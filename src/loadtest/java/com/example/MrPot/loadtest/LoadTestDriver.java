@@ -0,0 +1,259 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.MrPotApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Fires concurrent /api/rag/answer/stream requests and writes a JSON report with throughput,
+ * TTFT / end-to-end latency percentiles, status counts, heap usage and thread counts.
+ *
+ * By default it boots the app in-process under the "loadtest" profile (stub models, in-memory
+ * KB and chat memory). With -Dloadtest.target=http://host:port it drives an external node instead;
+ * heap / thread figures then describe the driver JVM only.
+ *
+ * System properties:
+ *  loadtest.concurrency (32), loadtest.requests (2000), loadtest.warmup (100),
+ *  loadtest.sessions (200), loadtest.target, loadtest.report (target/loadtest-report.json)
+ */
+public final class LoadTestDriver {
+
+    private static final List<String> QUESTIONS = List.of(
+            "What projects has Yuqi built with Spring Boot?",
+            "Summarize Yuqi's experience with vector databases.",
+            "Which blog posts talk about streaming LLM answers?",
+            "How does the RAG pipeline handle slow Redis?",
+            "What is Yuqi's background in distributed systems?",
+            "Tell me about the Mr Pot project architecture.",
+            "hi",
+            "How do I use this website?"
+    );
+
+    private LoadTestDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        int requests = Integer.getInteger("loadtest.requests", 2000);
+        int warmup = Integer.getInteger("loadtest.warmup", 100);
+        int sessions = Integer.getInteger("loadtest.sessions", 200);
+        String target = System.getProperty("loadtest.target");
+        Path reportPath = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+
+        ConfigurableApplicationContext context = null;
+        if (target == null || target.isBlank()) {
+            context = new SpringApplicationBuilder(MrPotApplication.class)
+                    .profiles("loadtest")
+                    .properties("server.port=0")
+                    .run(args);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            target = "http://localhost:" + port;
+        }
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(workers)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            URI uri = URI.create(target + "/api/rag/answer/stream");
+
+            System.out.printf("Warm-up: %d requests%n", warmup);
+            run(client, uri, workers, warmup, concurrency, sessions);
+
+            System.out.printf("Load: %d requests, concurrency %d, target %s%n", requests, concurrency, target);
+            ResourceSampler sampler = ResourceSampler.start();
+            long start = System.nanoTime();
+            List<Sample> samples = run(client, uri, workers, requests, concurrency, sessions);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+            Map<String, Object> resources = sampler.stop();
+
+            Map<String, Object> report = report(target, concurrency, requests, elapsedSeconds, samples, resources);
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+            System.out.printf("Report written to %s%n%s%n", reportPath.toAbsolutePath(), report);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static List<Sample> run(HttpClient client,
+                                    URI uri,
+                                    ExecutorService workers,
+                                    int requests,
+                                    int concurrency,
+                                    int sessions) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Sample> samples = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int n = i;
+            workers.execute(() -> {
+                try {
+                    samples.add(send(client, uri, n, sessions));
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        // Wait for the tail
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+        return new ArrayList<>(samples);
+    }
+
+    private static Sample send(HttpClient client, URI uri, int n, int sessions) {
+        String body = "{\"question\":\"" + QUESTIONS.get(n % QUESTIONS.size())
+                + "\",\"sessionId\":\"loadtest-" + (n % Math.max(1, sessions)) + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            long ttft = -1;
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> it = lines.iterator();
+                while (it.hasNext()) {
+                    String line = it.next();
+                    if (ttft < 0 && line.startsWith("event:answer_delta")) {
+                        ttft = System.nanoTime() - start;
+                    }
+                }
+            }
+            return new Sample(response.statusCode(), ttft, System.nanoTime() - start);
+        } catch (IOException ex) {
+            return new Sample(-1, -1, System.nanoTime() - start);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new Sample(-1, -1, System.nanoTime() - start);
+        }
+    }
+
+    private static Map<String, Object> report(String target,
+                                              int concurrency,
+                                              int requests,
+                                              double elapsedSeconds,
+                                              List<Sample> samples,
+                                              Map<String, Object> resources) {
+        Map<Integer, Integer> statuses = new LinkedHashMap<>();
+        List<Long> ttfts = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+        for (Sample sample : samples) {
+            statuses.merge(sample.status(), 1, Integer::sum);
+            if (sample.status() == 200) {
+                latencies.add(sample.latencyNanos());
+                if (sample.ttftNanos() >= 0) {
+                    ttfts.add(sample.ttftNanos());
+                }
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("target", target);
+        report.put("concurrency", concurrency);
+        report.put("requests", requests);
+        report.put("elapsedSeconds", LatencyStats.round(elapsedSeconds));
+        report.put("throughputRps", LatencyStats.round(latencies.size() / elapsedSeconds));
+        report.put("statusCounts", statuses);
+        report.put("ttftMillis", LatencyStats.summarize(ttfts));
+        report.put("latencyMillis", LatencyStats.summarize(latencies));
+        report.putAll(resources);
+        return report;
+    }
+
+    private record Sample(int status, long ttftNanos, long latencyNanos) { }
+
+    /**
+     * Samples heap usage and live thread counts every 250ms while the load runs.
+     */
+    private static final class ResourceSampler {
+
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final List<long[]> samples = new ArrayList<>();
+
+        static ResourceSampler start() {
+            ResourceSampler sampler = new ResourceSampler();
+            sampler.threads.resetPeakThreadCount();
+            sampler.scheduler.scheduleAtFixedRate(sampler::sample, 0, 250, TimeUnit.MILLISECONDS);
+            return sampler;
+        }
+
+        private synchronized void sample() {
+            samples.add(new long[]{memory.getHeapMemoryUsage().getUsed(), threads.getThreadCount()});
+        }
+
+        Map<String, Object> stop() throws InterruptedException {
+            scheduler.shutdown();
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+            synchronized (this) {
+                return summarize();
+            }
+        }
+
+        private Map<String, Object> summarize() {
+            long maxHeap = 0;
+            long maxThreads = 0;
+            double heapSum = 0;
+            double threadSum = 0;
+            for (long[] s : samples) {
+                maxHeap = Math.max(maxHeap, s[0]);
+                maxThreads = Math.max(maxThreads, s[1]);
+                heapSum += s[0];
+                threadSum += s[1];
+            }
+            int n = Math.max(1, samples.size());
+
+            Map<String, Object> heap = new LinkedHashMap<>();
+            heap.put("maxUsedMb", LatencyStats.round(maxHeap / 1048576.0));
+            heap.put("avgUsedMb", LatencyStats.round(heapSum / n / 1048576.0));
+            heap.put("committedMb", LatencyStats.round(memory.getHeapMemoryUsage().getCommitted() / 1048576.0));
+
+            Map<String, Object> threadStats = new LinkedHashMap<>();
+            threadStats.put("max", maxThreads);
+            threadStats.put("avg", LatencyStats.round(threadSum / n));
+            threadStats.put("peak", threads.getPeakThreadCount());
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("heap", heap);
+            result.put("threads", threadStats);
+            return result;
+        }
+    }
+}
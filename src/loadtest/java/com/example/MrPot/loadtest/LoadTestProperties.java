@@ -0,0 +1,109 @@
+package com.example.MrPot.loadtest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Latency / size knobs of the stub models and in-memory stand-ins.
+ */
+@ConfigurationProperties(prefix = "mrpot.loadtest")
+public class LoadTestProperties {
+
+    /** Delay before the stub chat model emits its first token. */
+    private Duration chatTtft = Duration.ofMillis(300);
+
+    /** Delay between streamed tokens (20ms = 50 tokens/s). */
+    private Duration tokenInterval = Duration.ofMillis(20);
+
+    /** Tokens per stub answer. */
+    private int tokens = 120;
+
+    /** Fixed latency of one stub embedding call. */
+    private Duration embeddingLatency = Duration.ofMillis(40);
+
+    private int embeddingDimensions = 1536;
+
+    /** Documents in the in-memory knowledge base. */
+    private int documents = 2000;
+
+    private int documentChars = 800;
+
+    /** Extra latency added to every in-memory vector search, standing in for the JDBC round trip. */
+    private Duration vectorSearchLatency = Duration.ofMillis(5);
+
+    /** Extra latency added to every in-memory chat memory read / write. */
+    private Duration chatMemoryLatency = Duration.ofMillis(1);
+
+    public Duration getChatTtft() {
+        return chatTtft;
+    }
+
+    public void setChatTtft(Duration chatTtft) {
+        this.chatTtft = chatTtft;
+    }
+
+    public Duration getTokenInterval() {
+        return tokenInterval;
+    }
+
+    public void setTokenInterval(Duration tokenInterval) {
+        this.tokenInterval = tokenInterval;
+    }
+
+    public int getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(int tokens) {
+        this.tokens = tokens;
+    }
+
+    public Duration getEmbeddingLatency() {
+        return embeddingLatency;
+    }
+
+    public void setEmbeddingLatency(Duration embeddingLatency) {
+        this.embeddingLatency = embeddingLatency;
+    }
+
+    public int getEmbeddingDimensions() {
+        return embeddingDimensions;
+    }
+
+    public void setEmbeddingDimensions(int embeddingDimensions) {
+        this.embeddingDimensions = embeddingDimensions;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(int documents) {
+        this.documents = documents;
+    }
+
+    public int getDocumentChars() {
+        return documentChars;
+    }
+
+    public void setDocumentChars(int documentChars) {
+        this.documentChars = documentChars;
+    }
+
+    public Duration getVectorSearchLatency() {
+        return vectorSearchLatency;
+    }
+
+    public void setVectorSearchLatency(Duration vectorSearchLatency) {
+        this.vectorSearchLatency = vectorSearchLatency;
+    }
+
+    public Duration getChatMemoryLatency() {
+        return chatMemoryLatency;
+    }
+
+    public void setChatMemoryLatency(Duration chatMemoryLatency) {
+        this.chatMemoryLatency = chatMemoryLatency;
+    }
+}
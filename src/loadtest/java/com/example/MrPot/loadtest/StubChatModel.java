@@ -0,0 +1,79 @@
+package com.example.MrPot.loadtest;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Deterministic chat model: first token after a fixed TTFT, then one token per interval,
+ * then a usage-only chunk (like OpenAI with stream usage enabled). Tool callbacks are ignored.
+ */
+public class StubChatModel implements ChatModel {
+
+    private static final String[] TOKENS = {
+            "Mr ", "Pot ", "says: ", "the ", "answer ", "is ", "based ", "on ", "the ", "retrieved ",
+            "context ", "and ", "the ", "chat ", "history. "
+    };
+
+    private final Duration ttft;
+    private final Duration tokenInterval;
+    private final int tokens;
+
+    public StubChatModel(Duration ttft, Duration tokenInterval, int tokens) {
+        this.ttft = ttft;
+        this.tokenInterval = tokenInterval;
+        this.tokens = Math.max(1, tokens);
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        try {
+            Thread.sleep(ttft.plus(tokenInterval.multipliedBy(tokens - 1L)));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            text.append(TOKENS[i % TOKENS.length]);
+        }
+        return response(text.toString(), usage(prompt));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        // Flux.interval runs on the parallel scheduler: no thread is parked while "generating"
+        return Flux.interval(ttft, tokenInterval)
+                .take(tokens)
+                .map(i -> response(TOKENS[(int) (i % TOKENS.length)], null))
+                .concatWith(Mono.fromSupplier(() -> new ChatResponse(List.of(),
+                        ChatResponseMetadata.builder().usage(usage(prompt)).build())));
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return ToolCallingChatOptions.builder().build();
+    }
+
+    private DefaultUsage usage(Prompt prompt) {
+        // ~4 characters per token, good enough for throughput accounting
+        return new DefaultUsage(Math.max(1, prompt.getContents().length() / 4), tokens);
+    }
+
+    private static ChatResponse response(String text, DefaultUsage usage) {
+        ChatResponseMetadata metadata = usage == null
+                ? ChatResponseMetadata.builder().build()
+                : ChatResponseMetadata.builder().usage(usage).build();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata);
+    }
+}
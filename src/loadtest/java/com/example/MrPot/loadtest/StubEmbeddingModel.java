@@ -0,0 +1,70 @@
+package com.example.MrPot.loadtest;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic embedding model with a fixed (blocking) latency per call.
+ * The same text always maps to the same unit vector.
+ */
+public class StubEmbeddingModel implements EmbeddingModel {
+
+    private final Duration latency;
+    private final int dimensions;
+
+    public StubEmbeddingModel(Duration latency, int dimensions) {
+        this.latency = latency;
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> inputs = request.getInstructions();
+        for (int i = 0; i < inputs.size(); i++) {
+            embeddings.add(new Embedding(vectorFor(inputs.get(i), dimensions), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return vectorFor(document.getText(), dimensions);
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Unit vector seeded by the text hash (no latency; also used to build the in-memory KB).
+     */
+    static float[] vectorFor(String text, int dimensions) {
+        SplittableRandom random = new SplittableRandom(text == null ? 0L : text.hashCode());
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
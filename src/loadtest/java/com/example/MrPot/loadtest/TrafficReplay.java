@@ -0,0 +1,331 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.capture.CapturedRequest;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Re-issues captured traffic (mrpot.capture JSON-lines files) against a node, keeping the original
+ * arrival pattern (optionally time-compressed), and reports latency distributions per endpoint next to
+ * the captured ones. Pass the report of a previous build as the baseline to get per-percentile deltas.
+ *
+ * Questions captured without text are replaced by synthetic questions of the same length
+ * (or a greeting / site-guide question when the fast path handled the original).
+ *
+ * System properties:
+ *  replay.input     capture file or directory (required)
+ *  replay.target    base URL (http://localhost:8080)
+ *  replay.speedup   time compression factor (1.0); 0 replays as fast as replay.concurrency allows
+ *  replay.concurrency max in-flight requests (64)
+ *  replay.report    output report (target/replay-report.json)
+ *  replay.baseline  report of an earlier replay to compare against
+ */
+public final class TrafficReplay {
+
+    private static final String[] WORDS = {
+            "Yuqi", "project", "experience", "blog", "Spring", "vector", "search", "streaming", "Redis",
+            "latency", "design", "system", "what", "how", "which", "about", "with", "the", "and", "did"
+    };
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private TrafficReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String input = System.getProperty("replay.input");
+        if (input == null || input.isBlank()) {
+            throw new IllegalArgumentException("-Dreplay.input=<capture file or directory> is required");
+        }
+        String target = System.getProperty("replay.target", "http://localhost:8080");
+        double speedup = Double.parseDouble(System.getProperty("replay.speedup", "1.0"));
+        int concurrency = Integer.getInteger("replay.concurrency", 64);
+        Path reportPath = Path.of(System.getProperty("replay.report", "target/replay-report.json"));
+        String baseline = System.getProperty("replay.baseline");
+
+        List<CapturedRequest> captured = load(Path.of(input));
+        if (captured.isEmpty()) {
+            throw new IllegalArgumentException("No captured requests found in " + input);
+        }
+        System.out.printf("Replaying %d requests against %s (speedup %.1fx)%n", captured.size(), target, speedup);
+
+        Map<String, ConcurrentLinkedQueue<Result>> results = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(workers)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            Semaphore inFlight = new Semaphore(concurrency);
+            long firstTs = captured.get(0).ts();
+
+            for (CapturedRequest request : captured) {
+                if (speedup > 0) {
+                    long dueNanos = start + (long) ((request.ts() - firstTs) * 1_000_000L / speedup);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                }
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        results.computeIfAbsent(request.endpoint(), e -> new ConcurrentLinkedQueue<>())
+                                .add(send(client, target, request));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(concurrency);
+            inFlight.release(concurrency);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> report = report(target, speedup, elapsedSeconds, captured, results);
+        if (baseline != null && !baseline.isBlank()) {
+            Map<String, Object> previous = MAPPER.readValue(Path.of(baseline).toFile(), new TypeReference<>() { });
+            report.put("baseline", baseline);
+            report.put("comparison", compare(previous, report));
+        }
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        MAPPER.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        System.out.printf("Report written to %s%n", reportPath.toAbsolutePath());
+    }
+
+    private static List<CapturedRequest> load(Path input) throws IOException {
+        List<Path> files;
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> list = Files.list(input)) {
+                files = list.filter(p -> p.getFileName().toString().endsWith(".jsonl")).sorted().toList();
+            }
+        } else {
+            files = List.of(input);
+        }
+        List<CapturedRequest> records = new ArrayList<>();
+        for (Path file : files) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        records.add(MAPPER.readValue(line, CapturedRequest.class));
+                    }
+                }
+            }
+        }
+        records.sort(Comparator.comparingLong(CapturedRequest::ts));
+        return records;
+    }
+
+    private static Result send(HttpClient client, String target, CapturedRequest captured) {
+        String question = questionFor(captured);
+        String session = captured.session() == null ? null : "replay-" + captured.session();
+        HttpRequest request = switch (captured.endpoint()) {
+            case "retrieve" -> post(target + "/api/rag/retrieve", body(question, null, captured));
+            case "answer" -> post(target + "/api/rag/answer", body(question, session, captured));
+            default -> HttpRequest.newBuilder(URI.create(target + "/api/rag/answer/stream"))
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "text/event-stream")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(body(question, session, captured)))
+                    .build();
+        };
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            long ttft = -1;
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> it = lines.iterator();
+                while (it.hasNext()) {
+                    if (ttft < 0 && it.next().startsWith("event:answer_delta")) {
+                        ttft = System.nanoTime() - start;
+                    }
+                }
+            }
+            return new Result(response.statusCode(), ttft, System.nanoTime() - start);
+        } catch (IOException ex) {
+            return new Result(-1, -1, System.nanoTime() - start);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new Result(-1, -1, System.nanoTime() - start);
+        }
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String body(String question, String session, CapturedRequest captured) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("question", question);
+        if (session != null) {
+            node.put("sessionId", session);
+        }
+        if (captured.topK() != null) {
+            node.put("topK", captured.topK());
+        }
+        if (captured.minScore() != null) {
+            node.put("minScore", captured.minScore());
+        }
+        if (captured.model() != null) {
+            node.put("model", captured.model());
+        }
+        if (captured.profile() != null) {
+            node.put("toolProfile", captured.profile());
+        }
+        return node.toString();
+    }
+
+    /**
+     * Original text when captured, otherwise a stand-in with the same shape.
+     */
+    static String questionFor(CapturedRequest captured) {
+        if (captured.text() != null) {
+            return captured.text();
+        }
+        if ("GREETING".equals(captured.intent())) {
+            return "hi";
+        }
+        if ("SITE_GUIDE".equals(captured.intent())) {
+            return "How do I use this website?";
+        }
+        SplittableRandom random = new SplittableRandom(captured.qHash() == null ? 0L : captured.qHash().hashCode());
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < Math.max(8, captured.qLen()) - 1) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        sb.setLength(Math.max(8, captured.qLen()) - 1);
+        return sb.toString().trim() + "?";
+    }
+
+    private static Map<String, Object> report(String target,
+                                              double speedup,
+                                              double elapsedSeconds,
+                                              List<CapturedRequest> captured,
+                                              Map<String, ConcurrentLinkedQueue<Result>> results) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (var entry : results.entrySet()) {
+            String endpoint = entry.getKey();
+            Map<Integer, Integer> statuses = new LinkedHashMap<>();
+            List<Long> latencies = new ArrayList<>();
+            List<Long> ttfts = new ArrayList<>();
+            for (Result result : entry.getValue()) {
+                statuses.merge(result.status(), 1, Integer::sum);
+                if (result.status() == 200) {
+                    latencies.add(result.latencyNanos());
+                    if (result.ttftNanos() >= 0) {
+                        ttfts.add(result.ttftNanos());
+                    }
+                }
+            }
+
+            List<Long> capturedLatencies = new ArrayList<>();
+            List<Long> capturedTtfts = new ArrayList<>();
+            for (CapturedRequest request : captured) {
+                if (endpoint.equals(request.endpoint()) && request.status() == 200 && request.stagesMs() != null) {
+                    addMillis(capturedLatencies, request.stagesMs().get("total"));
+                    addMillis(capturedTtfts, request.stagesMs().get("ttft"));
+                }
+            }
+
+            Map<String, Object> replayed = new LinkedHashMap<>();
+            replayed.put("statusCounts", statuses);
+            replayed.put("latencyMillis", LatencyStats.summarize(latencies));
+            replayed.put("ttftMillis", LatencyStats.summarize(ttfts));
+            Map<String, Object> original = new LinkedHashMap<>();
+            original.put("latencyMillis", LatencyStats.summarize(capturedLatencies));
+            original.put("ttftMillis", LatencyStats.summarize(capturedTtfts));
+
+            Map<String, Object> section = new LinkedHashMap<>();
+            section.put("replayed", replayed);
+            section.put("captured", original);
+            endpoints.put(endpoint, section);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("target", target);
+        report.put("speedup", speedup);
+        report.put("requests", captured.size());
+        report.put("elapsedSeconds", LatencyStats.round(elapsedSeconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    /**
+     * Per endpoint / metric / percentile: baseline ms, current ms and relative change.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> compare(Map<String, Object> baseline, Map<String, Object> current) {
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        Map<String, Object> before = (Map<String, Object>) baseline.getOrDefault("endpoints", Map.of());
+        Map<String, Object> after = (Map<String, Object>) current.get("endpoints");
+        for (String endpoint : after.keySet()) {
+            if (!before.containsKey(endpoint)) {
+                continue;
+            }
+            Map<String, Object> beforeReplay = (Map<String, Object>) ((Map<String, Object>) before.get(endpoint)).get("replayed");
+            Map<String, Object> afterReplay = (Map<String, Object>) ((Map<String, Object>) after.get(endpoint)).get("replayed");
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            for (String metric : List.of("latencyMillis", "ttftMillis")) {
+                Map<String, Object> b = (Map<String, Object>) beforeReplay.get(metric);
+                Map<String, Object> a = (Map<String, Object>) afterReplay.get(metric);
+                Map<String, Object> deltas = new LinkedHashMap<>();
+                for (String p : LatencyStats.PERCENTILES) {
+                    if (b.get(p) instanceof Number bv && a.get(p) instanceof Number av && bv.doubleValue() > 0) {
+                        deltas.put(p, Map.of(
+                                "baseline", bv.doubleValue(),
+                                "current", av.doubleValue(),
+                                "changePct", LatencyStats.round((av.doubleValue() / bv.doubleValue() - 1) * 100)
+                        ));
+                    }
+                }
+                metrics.put(metric, deltas);
+            }
+            comparison.put(endpoint, metrics);
+        }
+        return comparison;
+    }
+
+    private static void addMillis(List<Long> nanos, Long millis) {
+        if (millis != null) {
+            nanos.add(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+
+    private record Result(int status, long ttftNanos, long latencyNanos) { }
+}
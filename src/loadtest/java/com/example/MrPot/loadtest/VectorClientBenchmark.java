@@ -0,0 +1,230 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.model.DocumentFilter;
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.repository.ReactiveKbDocumentVectorRepository;
+import com.example.MrPot.repository.VectorSearchProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * findNearest over JDBC vs R2DBC against an existing kb_documents table, at increasing concurrency.
+ *
+ * JDBC is measured the way the streaming path used it: a fixed thread pool (the vector-search bulkhead)
+ * in front of a Hikari pool of the same size, so callers beyond the pool size queue for a thread.
+ * R2DBC uses an r2dbc-pool of the same size and no extra threads. Latency includes queueing on both
+ * sides; the report also carries throughput and the peak live thread count of the benchmark JVM.
+ *
+ * System properties:
+ *  client.jdbc-url (jdbc:postgresql://localhost:5432/postgres), client.r2dbc-url (r2dbc:postgresql://localhost:5432/postgres),
+ *  client.user / client.password (PGUSER / PGPASSWORD), client.pool-size (10), client.concurrency (10,50,200,1000),
+ *  client.requests (2000), client.dims (1536), client.k (3), client.profile (FAST),
+ *  client.report (target/vector-client.json)
+ */
+public final class VectorClientBenchmark {
+
+    private VectorClientBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jdbcUrl = System.getProperty("client.jdbc-url", "jdbc:postgresql://localhost:5432/postgres");
+        String r2dbcUrl = System.getProperty("client.r2dbc-url", "r2dbc:postgresql://localhost:5432/postgres");
+        String user = System.getProperty("client.user", System.getenv("PGUSER"));
+        String password = System.getProperty("client.password", System.getenv("PGPASSWORD"));
+        int poolSize = Integer.getInteger("client.pool-size", 10);
+        String levels = System.getProperty("client.concurrency", "10,50,200,1000");
+        int requests = Integer.getInteger("client.requests", 2000);
+        int dims = Integer.getInteger("client.dims", 1536);
+        int k = Integer.getInteger("client.k", 3);
+        VectorSearchProfile profile = VectorSearchProfile.valueOf(System.getProperty("client.profile", "FAST"));
+        Path reportPath = Path.of(System.getProperty("client.report", "target/vector-client.json"));
+
+        VectorSearchProperties vectorProperties = new VectorSearchProperties();
+        vectorProperties.setDimensions(dims);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setJdbcUrl(jdbcUrl);
+        hikari.setUsername(user);
+        hikari.setPassword(password);
+        hikari.setMaximumPoolSize(poolSize);
+        hikari.setPoolName("bench-jdbc");
+
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate();
+        if (user != null) {
+            options.option(ConnectionFactoryOptions.USER, user);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionPool r2dbcPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("bench-r2dbc")
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .build());
+
+        Random random = new Random(42);
+        List<float[]> queryVectors = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            queryVectors.add(randomUnit(random, dims));
+        }
+
+        Map<String, Object> byConcurrency = new LinkedHashMap<>();
+        try (HikariDataSource dataSource = new HikariDataSource(hikari)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            KbDocumentVectorRepository jdbc =
+                    new KbDocumentVectorRepository(jdbcTemplate, objectMapper, vectorProperties, transactions);
+            ReactiveKbDocumentVectorRepository r2dbc =
+                    new ReactiveKbDocumentVectorRepository(r2dbcPool, objectMapper, vectorProperties);
+
+            // Warm both pools and the index pages
+            runJdbc(jdbc, queryVectors.subList(0, Math.min(200, requests)), k, profile, poolSize, poolSize);
+            runR2dbc(r2dbc, queryVectors.subList(0, Math.min(200, requests)), k, profile, poolSize);
+
+            for (String level : levels.split(",")) {
+                int concurrency = Integer.parseInt(level.trim());
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("jdbc", runJdbc(jdbc, queryVectors, k, profile, poolSize, concurrency));
+                result.put("r2dbc", runR2dbc(r2dbc, queryVectors, k, profile, concurrency));
+                byConcurrency.put(String.valueOf(concurrency), result);
+                System.out.printf("concurrency %d: %s%n", concurrency, result);
+            }
+        } finally {
+            r2dbcPool.dispose();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("poolSize", poolSize);
+        report.put("requests", requests);
+        report.put("dims", dims);
+        report.put("k", k);
+        report.put("profile", profile.name());
+        report.put("concurrency", byConcurrency);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        System.out.printf("Report written to %s%n", reportPath.toAbsolutePath());
+    }
+
+    /**
+     * Callers (virtual threads, like request handlers) hand each query to a fixed pool of poolSize
+     * threads and wait for it.
+     */
+    private static Map<String, Object> runJdbc(KbDocumentVectorRepository repository,
+                                               List<float[]> queryVectors,
+                                               int k,
+                                               VectorSearchProfile profile,
+                                               int poolSize,
+                                               int concurrency) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        try (ExecutorService bulkhead = Executors.newFixedThreadPool(poolSize);
+             ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (float[] vector : queryVectors) {
+                inFlight.acquire();
+                callers.execute(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        bulkhead.submit(() -> repository.findNearest(vector, k, profile, DocumentFilter.NONE)).get();
+                        latencies.add(System.nanoTime() - t0);
+                    } catch (Exception ex) {
+                        errors.add(ex.toString());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(concurrency);
+            inFlight.release(concurrency);
+        }
+        return result(latencies, errors, (System.nanoTime() - start) / 1e9, threads.getPeakThreadCount());
+    }
+
+    private static Map<String, Object> runR2dbc(ReactiveKbDocumentVectorRepository repository,
+                                                List<float[]> queryVectors,
+                                                int k,
+                                                VectorSearchProfile profile,
+                                                int concurrency) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+
+        long start = System.nanoTime();
+        Flux.fromIterable(queryVectors)
+                .flatMap(vector -> Mono.defer(() -> {
+                    long t0 = System.nanoTime();
+                    return repository.findNearest(vector, k, profile, DocumentFilter.NONE)
+                            .then(Mono.fromRunnable(() -> latencies.add(System.nanoTime() - t0)))
+                            .onErrorResume(ex -> {
+                                errors.add(ex.toString());
+                                return Mono.empty();
+                            });
+                }), concurrency)
+                .blockLast();
+        return result(latencies, errors, (System.nanoTime() - start) / 1e9, threads.getPeakThreadCount());
+    }
+
+    private static Map<String, Object> result(ConcurrentLinkedQueue<Long> latencies,
+                                              ConcurrentLinkedQueue<String> errors,
+                                              double elapsedSeconds,
+                                              int peakThreads) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("throughputQps", LatencyStats.round(latencies.size() / elapsedSeconds));
+        result.put("latencyMillis", LatencyStats.summarize(latencies));
+        result.put("errors", errors.size());
+        if (!errors.isEmpty()) {
+            result.put("firstError", errors.peek());
+        }
+        result.put("peakThreads", peakThreads);
+        return result;
+    }
+
+    private static float[] randomUnit(Random random, int dims) {
+        float[] v = new float[dims];
+        double norm = 0;
+        for (int i = 0; i < dims; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dims; i++) {
+            v[i] *= inv;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.MrPot.loadtest;
+
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.repository.VectorSearchMode;
+import com.example.MrPot.repository.VectorSearchProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pgvector.PGvector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares pgvector candidate modes and search profiles against a brute-force baseline on a real kb_documents table.
+ *
+ * Queries are sampled document embeddings with a little Gaussian noise, so the source document is
+ * not trivially the only hit. Ground truth is the exact top-k with index scans disabled; each mode
+ * and search profile (hnsw.ef_search) then reports recall@k against it plus per-query latency percentiles. Run it after applying
+ * db/vector/quantized-indexes.sql; a mode without its index still answers, just via a sequential scan,
+ * so confirm with EXPLAIN (example in that file) that the planner picks the expression index before
+ * trusting a mode's latency. The EXACT mode needs the full-precision index that the same file
+ * suggests dropping for HALFVEC/BINARY deployments, so evaluate before dropping it.
+ *
+ * System properties:
+ *  eval.url (jdbc:postgresql://localhost:5432/postgres), eval.user / eval.password (PGUSER / PGPASSWORD),
+ *  eval.queries (200), eval.k (5), eval.noise (0.02), eval.modes (EXACT,HALFVEC,BINARY),
+ *  eval.profiles (FAST,BALANCED,PRECISE), eval.iterative-scan (RELAXED_ORDER),
+ *  eval.dimensions (1536), eval.candidate-dimensions (0), eval.over-fetch (4), eval.min-candidates (40),
+ *  eval.report (target/vector-eval.json)
+ */
+public final class VectorSearchEvaluator {
+
+    private VectorSearchEvaluator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("eval.url", "jdbc:postgresql://localhost:5432/postgres");
+        String user = System.getProperty("eval.user", System.getenv("PGUSER"));
+        String password = System.getProperty("eval.password", System.getenv("PGPASSWORD"));
+        int queries = Integer.getInteger("eval.queries", 200);
+        int k = Integer.getInteger("eval.k", 5);
+        double noise = Double.parseDouble(System.getProperty("eval.noise", "0.02"));
+        String modes = System.getProperty("eval.modes", "EXACT,HALFVEC,BINARY");
+        String profiles = System.getProperty("eval.profiles", "FAST,BALANCED,PRECISE");
+        Path reportPath = Path.of(System.getProperty("eval.report", "target/vector-eval.json"));
+
+        VectorSearchProperties properties = new VectorSearchProperties();
+        properties.setDimensions(Integer.getInteger("eval.dimensions", properties.getDimensions()));
+        properties.setCandidateDimensions(Integer.getInteger("eval.candidate-dimensions", 0));
+        properties.setOverFetchFactor(Integer.getInteger("eval.over-fetch", properties.getOverFetchFactor()));
+        properties.setMinCandidates(Integer.getInteger("eval.min-candidates", properties.getMinCandidates()));
+        properties.setIterativeScan(VectorSearchProperties.IterativeScan.valueOf(
+                System.getProperty("eval.iterative-scan", properties.getIterativeScan().name()).toUpperCase()));
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, user, password);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        KbDocumentVectorRepository repository =
+                new KbDocumentVectorRepository(jdbcTemplate, new ObjectMapper(), properties, transactions);
+
+        Long documents = jdbcTemplate.queryForObject("SELECT count(*) FROM kb_documents", Long.class);
+        List<float[]> queryVectors = sampleQueries(jdbcTemplate, queries, noise);
+        System.out.printf("kb_documents: %d rows, %d queries, k=%d%n", documents, queryVectors.size(), k);
+
+        // Ground truth: exact top-k with index scans off (sequential scan + sort)
+        List<Set<Long>> truth = new ArrayList<>();
+        List<Long> truthLatencies = new ArrayList<>();
+        for (float[] query : queryVectors) {
+            long start = System.nanoTime();
+            List<ScoredDocument> exact = transactions.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL enable_indexscan = off");
+                return repository.findNearest(query, k, VectorSearchMode.EXACT, VectorSearchProfile.PRECISE);
+            });
+            truthLatencies.add(System.nanoTime() - start);
+            truth.add(ids(exact));
+        }
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String modeName : modes.split(",")) {
+            VectorSearchMode mode = VectorSearchMode.valueOf(modeName.trim().toUpperCase());
+            for (String profileName : profiles.split(",")) {
+                VectorSearchProfile profile = VectorSearchProfile.valueOf(profileName.trim().toUpperCase());
+                Map<String, Object> result = evaluate(repository, queryVectors, truth, k, mode, profile);
+                results.put(mode.name() + "/" + profile.name(), result);
+                System.out.printf("%-8s %-8s %s%n", mode, profile, result);
+            }
+        }
+
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("dimensions", properties.getDimensions());
+        config.put("candidateDimensions", properties.effectiveCandidateDimensions());
+        config.put("overFetchFactor", properties.getOverFetchFactor());
+        config.put("candidates", properties.candidateCount(k));
+        config.put("iterativeScan", properties.getIterativeScan().sqlValue());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("documents", documents);
+        report.put("queries", queryVectors.size());
+        report.put("k", k);
+        report.put("noise", noise);
+        report.put("config", config);
+        report.put("bruteForceLatencyMillis", LatencyStats.summarize(truthLatencies));
+        report.put("modes", results);
+
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+        System.out.printf("Report written to %s%n", reportPath.toAbsolutePath());
+    }
+
+    private static Map<String, Object> evaluate(KbDocumentVectorRepository repository,
+                                                List<float[]> queryVectors,
+                                                List<Set<Long>> truth,
+                                                int k,
+                                                VectorSearchMode mode,
+                                                VectorSearchProfile profile) {
+        // Warm the index pages before timing
+        for (int i = 0; i < Math.min(20, queryVectors.size()); i++) {
+            repository.findNearest(queryVectors.get(i), k, mode, profile);
+        }
+
+        List<Long> latencies = new ArrayList<>();
+        double recallSum = 0;
+        for (int i = 0; i < queryVectors.size(); i++) {
+            long start = System.nanoTime();
+            List<ScoredDocument> found = repository.findNearest(queryVectors.get(i), k, mode, profile);
+            latencies.add(System.nanoTime() - start);
+            recallSum += recall(truth.get(i), ids(found));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("efSearch", repository.efSearch(profile, mode, k));
+        result.put("recallAtK", Math.round(recallSum / Math.max(1, queryVectors.size()) * 10_000) / 10_000.0);
+        result.put("latencyMillis", LatencyStats.summarize(latencies));
+        return result;
+    }
+
+    private static List<float[]> sampleQueries(JdbcTemplate jdbcTemplate, int count, double noise) {
+        Random random = new Random(42);
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT embedding::text FROM kb_documents WHERE embedding IS NOT NULL ORDER BY random() LIMIT ?",
+                String.class, count);
+        List<float[]> vectors = new ArrayList<>(rows.size());
+        for (String row : rows) {
+            float[] vector;
+            try {
+                vector = new PGvector(row).toArray();
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Unparseable embedding: " + ex.getMessage(), ex);
+            }
+            double norm = 0;
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] += (float) (random.nextGaussian() * noise);
+                norm += vector[i] * vector[i];
+            }
+            float scale = (float) (1.0 / Math.sqrt(Math.max(norm, 1e-12)));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+            vectors.add(vector);
+        }
+        return vectors;
+    }
+
+    static Set<Long> ids(List<ScoredDocument> documents) {
+        Set<Long> ids = new HashSet<>();
+        if (documents != null) {
+            for (ScoredDocument document : documents) {
+                ids.add(document.document().getId());
+            }
+        }
+        return ids;
+    }
+
+    static double recall(Set<Long> truth, Set<Long> found) {
+        if (truth.isEmpty()) {
+            return 1.0;
+        }
+        Set<Long> hits = new HashSet<>(found);
+        hits.retainAll(truth);
+        return (double) hits.size() / truth.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.MrPot.capture;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * One captured request: its anonymized shape and what it cost. Serialized as one compact JSON line.
+ *
+ * @param ts        epoch millis when the request arrived
+ * @param endpoint  "answer", "stream" or "retrieve"
+ * @param qHash     salted hash of the question (dedupe without content)
+ * @param text      raw question, only when capture.include-text is on
+ * @param qLen      question length in characters
+ * @param session   salted hash of the session id, null for temporary sessions
+ * @param turn      request number within the session (as seen by this node)
+ * @param topK      requested topK override
+ * @param minScore  requested minScore override
+ * @param model     requested model hint
+ * @param profile   requested tool profile
+ * @param status    HTTP status (200, 429, 500)
+ * @param outcome   "complete", "error" or "cancel"
+ * @param stagesMs  milliseconds since arrival at which each stage finished
+ *                  (redis, rag, ttft, final, total)
+ * @param docs      retrieved documents
+ * @param intent    intent when retrieval was skipped by the fast path
+ * @param degraded  whether any stage degraded
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CapturedRequest(
+        long ts,
+        String endpoint,
+        String qHash,
+        String text,
+        int qLen,
+        String session,
+        Integer turn,
+        Integer topK,
+        Double minScore,
+        String model,
+        String profile,
+        int status,
+        String outcome,
+        Map<String, Long> stagesMs,
+        Integer docs,
+        String intent,
+        Boolean degraded
+) {
+}
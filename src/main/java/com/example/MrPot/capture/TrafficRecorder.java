@@ -0,0 +1,310 @@
+package com.example.MrPot.capture;
+
+import com.example.MrPot.config.CaptureProperties;
+import com.example.MrPot.model.ThinkingEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Opt-in capture of request shapes and per-stage timings (mrpot.capture.*).
+ *
+ * Controllers open a {@link Capture} per request and finish it with the HTTP outcome. Records are
+ * handed to a single writer thread through a bounded queue, so capturing never blocks a request;
+ * when the queue is full the record is dropped and counted (mrpot.capture.dropped).
+ * Files are JSON lines, rolled over by size and pruned to the configured count.
+ */
+@Component
+public class TrafficRecorder implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final int MAX_TRACKED_SESSIONS = 10_000;
+
+    private final CaptureProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Counter dropped;
+    private final BlockingQueue<CapturedRequest> queue;
+    private final Thread writerThread;
+
+    // Turn counters per hashed session, LRU-bounded; guarded by "this"
+    private final Map<String, Integer> turns = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > MAX_TRACKED_SESSIONS;
+        }
+    };
+
+    // Writer-thread state
+    private BufferedWriter writer;
+    private long writtenBytes;
+
+    private volatile boolean running = true;
+
+    public TrafficRecorder(CaptureProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.dropped = Counter.builder("mrpot.capture.dropped")
+                .description("Captured requests dropped because the write queue was full")
+                .register(meterRegistry);
+        if (properties.isEnabled()) {
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+            this.writerThread = new Thread(this::drain, "traffic-capture");
+            this.writerThread.setDaemon(true);
+            this.writerThread.start();
+        } else {
+            this.queue = null;
+            this.writerThread = null;
+        }
+    }
+
+    /**
+     * Start capturing one request; returns a no-op capture when capture is disabled.
+     */
+    public Capture begin(String endpoint,
+                         String question,
+                         String sessionId,
+                         Integer topK,
+                         Double minScore,
+                         String model,
+                         String profile) {
+        if (queue == null) {
+            return Capture.NOOP;
+        }
+        String session = sessionId == null || sessionId.isBlank() ? null : hash(sessionId);
+        Integer turn = null;
+        if (session != null) {
+            synchronized (this) {
+                turn = turns.merge(session, 1, Integer::sum);
+            }
+        }
+        return new Capture(this, System.currentTimeMillis(), System.nanoTime(), endpoint,
+                question == null ? null : hash(question),
+                properties.isIncludeText() ? question : null,
+                question == null ? 0 : question.length(),
+                session, turn, topK, minScore, model, profile);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        }
+    }
+
+    private void submit(CapturedRequest record) {
+        if (!queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                CapturedRequest record = queue.poll(1, TimeUnit.SECONDS);
+                if (record != null) {
+                    write(record);
+                } else if (writer != null) {
+                    writer.flush();
+                }
+            } catch (InterruptedException ex) {
+                running = false;
+            } catch (IOException ex) {
+                log.warn("Traffic capture write failed: {}", ex.toString());
+                closeQuietly();
+            }
+        }
+        closeQuietly();
+    }
+
+    private void write(CapturedRequest record) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(record);
+        if (writer == null || writtenBytes + line.length > properties.getMaxFileSize().toBytes()) {
+            roll();
+        }
+        writer.write(new String(line, StandardCharsets.UTF_8));
+        writer.newLine();
+        writtenBytes += line.length + 1;
+    }
+
+    private void roll() throws IOException {
+        closeQuietly();
+        Path directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("mrpot-capture-" + LocalDateTime.now().format(FILE_TIME) + ".jsonl");
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writtenBytes = 0;
+        prune(directory);
+    }
+
+    private void prune(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> captures = files
+                    .filter(p -> p.getFileName().toString().startsWith("mrpot-capture-"))
+                    .sorted()
+                    .toList();
+            for (int i = 0; i < captures.size() - Math.max(1, properties.getMaxFiles()); i++) {
+                Files.deleteIfExists(captures.get(i));
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // Nothing left to do with a broken file
+            }
+            writer = null;
+        }
+    }
+
+    private String hash(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(properties.getSalt().getBytes(StandardCharsets.UTF_8));
+            byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes, 0, 8);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Per-request capture state. Stage marks keep the first time each stage was seen.
+     */
+    public static final class Capture {
+
+        static final Capture NOOP = new Capture(null, 0L, 0L, null, null, null, 0, null, null, null, null, null, null);
+
+        private final TrafficRecorder recorder;
+        private final long ts;
+        private final long startNanos;
+        private final String endpoint;
+        private final String qHash;
+        private final String text;
+        private final int qLen;
+        private final String session;
+        private final Integer turn;
+        private final Integer topK;
+        private final Double minScore;
+        private final String model;
+        private final String profile;
+
+        private final Map<String, Long> stagesMs = new LinkedHashMap<>();
+        private Integer docs;
+        private String intent;
+        private boolean degraded;
+
+        private Capture(TrafficRecorder recorder, long ts, long startNanos, String endpoint, String qHash,
+                        String text, int qLen, String session, Integer turn, Integer topK, Double minScore,
+                        String model, String profile) {
+            this.recorder = recorder;
+            this.ts = ts;
+            this.startNanos = startNanos;
+            this.endpoint = endpoint;
+            this.qHash = qHash;
+            this.text = text;
+            this.qLen = qLen;
+            this.session = session;
+            this.turn = turn;
+            this.topK = topK;
+            this.minScore = minScore;
+            this.model = model;
+            this.profile = profile;
+        }
+
+        public synchronized void stage(String name) {
+            if (recorder != null) {
+                stagesMs.putIfAbsent(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+
+        public synchronized void documents(int count) {
+            if (recorder != null) {
+                docs = count;
+            }
+        }
+
+        /**
+         * Derive stage marks and retrieval shape from the SSE stage events.
+         */
+        public void event(ThinkingEvent event) {
+            if (recorder == null) {
+                return;
+            }
+            switch (event.stage()) {
+                case "redis" -> {
+                    stage("redis");
+                    payloadFlags(event.payload());
+                }
+                case "rag" -> {
+                    stage("rag");
+                    payloadFlags(event.payload());
+                    if (event.payload() instanceof Map<?, ?> payload) {
+                        if (payload.get("documents") instanceof Collection<?> documents) {
+                            documents(documents.size());
+                        }
+                        if (payload.get("intent") instanceof String value) {
+                            synchronized (this) {
+                                intent = value;
+                            }
+                        }
+                    }
+                }
+                case "answer_delta" -> stage("ttft");
+                case "answer_final" -> stage("final");
+                default -> {
+                    // "start" carries no timing information worth keeping
+                }
+            }
+        }
+
+        public void finish(int status, String outcome) {
+            if (recorder == null) {
+                return;
+            }
+            stage("total");
+            CapturedRequest record;
+            synchronized (this) {
+                record = new CapturedRequest(ts, endpoint, qHash, text, qLen, session, turn, topK, minScore,
+                        model, profile, status, outcome, Map.copyOf(stagesMs), docs, intent,
+                        degraded ? Boolean.TRUE : null);
+            }
+            recorder.submit(record);
+        }
+
+        private synchronized void payloadFlags(Object payload) {
+            if (payload instanceof Map<?, ?> map && Boolean.TRUE.equals(map.get("degraded"))) {
+                degraded = true;
+            }
+        }
+    }
+}
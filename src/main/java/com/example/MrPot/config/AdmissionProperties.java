@@ -0,0 +1,153 @@
+package com.example.MrPot.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive admission control in front of LLM generations.
+ * Every ChatClient provider gets its own AIMD concurrency limit.
+ */
+@ConfigurationProperties(prefix = "mrpot.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    /** Limits used for every provider without an entry in {@link #clients}. */
+    private LimitSettings defaults = new LimitSettings();
+
+    /** Per-provider limits (key = provider, e.g. "deepseek"); an entry replaces the defaults. */
+    private Map<String, LimitSettings> clients = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public LimitSettings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(LimitSettings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, LimitSettings> getClients() {
+        return clients;
+    }
+
+    public void setClients(Map<String, LimitSettings> clients) {
+        this.clients = clients;
+    }
+
+    public LimitSettings forClient(String provider) {
+        return clients.getOrDefault(provider, defaults);
+    }
+
+    public static class LimitSettings {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 2;
+
+        private int maxLimit = 200;
+
+        /** Multiplicative decrease applied when a generation was slow or failed. */
+        private double backoffRatio = 0.9;
+
+        /** Latency (time to first token) above which the limit is reduced. */
+        private Duration latencyThreshold = Duration.ofSeconds(4);
+
+        /**
+         * Latency above which a blocking (non-streaming) generation reduces the limit. Blocking calls have
+         * no first token, so their sample is the whole call and needs a threshold of its own.
+         */
+        private Duration blockingLatencyThreshold = Duration.ofSeconds(30);
+
+        /** Requests allowed to wait for a slot before being rejected. */
+        private int queueSize = 10;
+
+        /** Max time a queued request waits before it gets a 429. */
+        private Duration maxQueueWait = Duration.ofMillis(250);
+
+        /** Value of the Retry-After header on rejection. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+
+        public Duration getLatencyThreshold() {
+            return latencyThreshold;
+        }
+
+        public void setLatencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+        }
+
+        public Duration getBlockingLatencyThreshold() {
+            return blockingLatencyThreshold;
+        }
+
+        public void setBlockingLatencyThreshold(Duration blockingLatencyThreshold) {
+            this.blockingLatencyThreshold = blockingLatencyThreshold;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public Duration getMaxQueueWait() {
+            return maxQueueWait;
+        }
+
+        public void setMaxQueueWait(Duration maxQueueWait) {
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+}
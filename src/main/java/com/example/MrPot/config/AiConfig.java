@@ -1,6 +1,7 @@
 package com.example.MrPot.config;
 
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.deepseek.DeepSeekChatModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.beans.factory.ObjectProvider;
@@ -8,22 +9,37 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 
+/**
+ * Provider ChatClients are @Lazy: ChatClientRouter only looks them up by name and builds a client
+ * the first time its provider is routed to (or during warm-up for the default provider).
+ */
 @Configuration
 public class AiConfig {
 
+    /**
+     * The one system prompt every answer path sends. Providers cache repeated prompt prefixes
+     * (system prompt, then tool definitions), so it must stay byte-identical across requests:
+     * anything per-request belongs in the user message.
+     */
+    public static final String SYSTEM_PROMPT = "You are Mr Pot, Yuqi's LLM agent and a helpful assistant. "
+            + "Answer clearly and succinctly in the user's language, using the provided context and chat history; "
+            + "you may infer from that information.";
+
     /**
      * DeepSeek is the default ChatClient.
      * This bean is only created when a DeepSeekChatModel bean exists
      * (so the app won't fail to start if the DeepSeek API key is missing in some envs).
      */
     @Bean
+    @Lazy
     @Primary
     @ConditionalOnBean(DeepSeekChatModel.class)
     public ChatClient deepseekChatClient(DeepSeekChatModel model) {
         return ChatClient.builder(model)
-                .defaultSystem("You're Mr Pot, Yuqi's LLM Agent")
+                .defaultSystem(SYSTEM_PROMPT)
                 .build();
     }
 
@@ -33,35 +49,46 @@ public class AiConfig {
      * (so missing OpenAI API key will not break the app).
      */
     @Bean
+    @Lazy
     @ConditionalOnBean(OpenAiChatModel.class)
     public ChatClient openaiChatClient(OpenAiChatModel model) {
         return ChatClient.builder(model)
-                .defaultSystem("You're Mr Pot, Yuqi's LLM Agent")
+                .defaultSystem(SYSTEM_PROMPT)
                 .build();
     }
 
     /**
      * If no ChatClient beans are registered (e.g. missing @ConditionalOnBean matches),
-     * build a default client using DeepSeek when available, otherwise fall back to OpenAI.
+     * build a default client using DeepSeek when available, otherwise fall back to OpenAI,
+     * otherwise to any single ChatModel bean (e.g. the stub model of the load-test harness).
      */
     @Bean
+    @Lazy
     @Primary
     @ConditionalOnMissingBean(ChatClient.class)
     public ChatClient defaultChatClient(
             ObjectProvider<DeepSeekChatModel> deepSeekProvider,
-            ObjectProvider<OpenAiChatModel> openAiProvider
+            ObjectProvider<OpenAiChatModel> openAiProvider,
+            ObjectProvider<ChatModel> chatModelProvider
     ) {
         DeepSeekChatModel deepseekModel = deepSeekProvider.getIfAvailable();
         if (deepseekModel != null) {
             return ChatClient.builder(deepseekModel)
-                    .defaultSystem("You're Mr Pot, Yuqi's LLM Agent")
+                    .defaultSystem(SYSTEM_PROMPT)
                     .build();
         }
 
         OpenAiChatModel openAiModel = openAiProvider.getIfAvailable();
         if (openAiModel != null) {
             return ChatClient.builder(openAiModel)
-                    .defaultSystem("You're Mr Pot, Yuqi's LLM Agent")
+                    .defaultSystem(SYSTEM_PROMPT)
+                    .build();
+        }
+
+        ChatModel anyModel = chatModelProvider.getIfUnique();
+        if (anyModel != null) {
+            return ChatClient.builder(anyModel)
+                    .defaultSystem(SYSTEM_PROMPT)
                     .build();
         }
 
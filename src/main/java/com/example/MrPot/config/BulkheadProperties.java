@@ -0,0 +1,77 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sizes of the dedicated executors used by the blocking stages of the streaming pipeline.
+ * Thread counts default to the size of the connection pool each stage draws from,
+ * so a bulkhead never has more threads than it can hand connections to.
+ */
+@ConfigurationProperties(prefix = "mrpot.bulkhead")
+public class BulkheadProperties {
+
+    /** Embedding HTTP calls (OpenAI embeddings API). */
+    private PoolSettings embedding = new PoolSettings(8, 32);
+
+    /** pgvector queries; threads should match spring.datasource.hikari.maximum-pool-size. */
+    private PoolSettings vectorSearch = new PoolSettings(10, 32);
+
+    /** Redis chat-memory reads/writes; threads should match spring.data.redis.lettuce.pool.max-active. */
+    private PoolSettings chatMemory = new PoolSettings(8, 64);
+
+    public PoolSettings getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(PoolSettings embedding) {
+        this.embedding = embedding;
+    }
+
+    public PoolSettings getVectorSearch() {
+        return vectorSearch;
+    }
+
+    public void setVectorSearch(PoolSettings vectorSearch) {
+        this.vectorSearch = vectorSearch;
+    }
+
+    public PoolSettings getChatMemory() {
+        return chatMemory;
+    }
+
+    public void setChatMemory(PoolSettings chatMemory) {
+        this.chatMemory = chatMemory;
+    }
+
+    public static class PoolSettings {
+
+        private int threads;
+
+        /** Tasks allowed to wait for a thread; beyond that submissions are rejected. */
+        private int queueCapacity;
+
+        public PoolSettings() {
+        }
+
+        public PoolSettings(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Opt-in production traffic capture (request shapes + per-stage timings) for replay.
+ */
+@ConfigurationProperties(prefix = "mrpot.capture")
+public class CaptureProperties {
+
+    private boolean enabled = false;
+
+    /** Directory for the rotating JSON-lines capture files. */
+    private String directory = "capture";
+
+    /** Roll over to a new file after this size. */
+    private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+    /** Oldest files beyond this count are deleted. */
+    private int maxFiles = 10;
+
+    /** Store the raw question text. Off by default: only a salted hash and the length are kept. */
+    private boolean includeText = false;
+
+    /** Salt for question / session hashes, so captures cannot be joined against other data sets. */
+    private String salt = "";
+
+    /** Records waiting to be written; when full, new records are dropped rather than slowing requests. */
+    private int queueCapacity = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(DataSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    public boolean isIncludeText() {
+        return includeText;
+    }
+
+    public void setIncludeText(boolean includeText) {
+        this.includeText = includeText;
+    }
+
+    public String getSalt() {
+        return salt;
+    }
+
+    public void setSalt(String salt) {
+        this.salt = salt;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fast-then-strong model cascade for answers (mrpot.llm.cascade.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.llm.cascade")
+public class CascadeProperties {
+
+    /** Answer confident requests with the fast model first; the routed provider is the strong model. */
+    private boolean enabled = false;
+
+    /** Provider key (ChatClient bean name without the "ChatClient" suffix) of the fast model. */
+    private String fastProvider = "deepseek";
+
+    /** Optional model name sent as a per-request option on the fast provider (e.g. a smaller model); empty keeps its default. */
+    private String fastModel = "";
+
+    /** Retrieval must reach this top score for the fast model. */
+    private double minTopScore = 0.78;
+
+    /** ... and lead the second-best document by at least this much. */
+    private double minScoreGap = 0.03;
+
+    private final SelfCheck selfCheck = new SelfCheck();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getFastProvider() {
+        return fastProvider;
+    }
+
+    public void setFastProvider(String fastProvider) {
+        this.fastProvider = fastProvider;
+    }
+
+    public String getFastModel() {
+        return fastModel;
+    }
+
+    public void setFastModel(String fastModel) {
+        this.fastModel = fastModel;
+    }
+
+    public double getMinTopScore() {
+        return minTopScore;
+    }
+
+    public void setMinTopScore(double minTopScore) {
+        this.minTopScore = minTopScore;
+    }
+
+    public double getMinScoreGap() {
+        return minScoreGap;
+    }
+
+    public void setMinScoreGap(double minScoreGap) {
+        this.minScoreGap = minScoreGap;
+    }
+
+    public SelfCheck getSelfCheck() {
+        return selfCheck;
+    }
+
+    /**
+     * Heuristic check of the fast answer (no extra model call); a failure escalates to the strong model.
+     */
+    public static class SelfCheck {
+
+        private boolean enabled = true;
+
+        /** Answers shorter than this (trimmed) fail. */
+        private int minAnswerChars = 20;
+
+        /** Fraction of the answer's content terms that must occur in the retrieved context. */
+        private double minGrounding = 0.5;
+
+        /** Case-insensitive phrases that mark a non-answer. */
+        private List<String> refusalPhrases = new ArrayList<>(List.of(
+                "i don't know", "i do not know", "not mentioned in the context", "no information",
+                "cannot find", "can't find", "unable to answer", "不知道", "没有相关信息", "无法回答"));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinAnswerChars() {
+            return minAnswerChars;
+        }
+
+        public void setMinAnswerChars(int minAnswerChars) {
+            this.minAnswerChars = minAnswerChars;
+        }
+
+        public double getMinGrounding() {
+            return minGrounding;
+        }
+
+        public void setMinGrounding(double minGrounding) {
+            this.minGrounding = minGrounding;
+        }
+
+        public List<String> getRefusalPhrases() {
+            return refusalPhrases;
+        }
+
+        public void setRefusalPhrases(List<String> refusalPhrases) {
+            this.refusalPhrases = refusalPhrases;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Query-focused extractive compression of retrieved documents (mrpot.retrieval.compression.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.retrieval.compression")
+public class CompressionProperties {
+
+    /** Replace long documents in the context by their passages closest to the query (needs db/vector/passages.sql). */
+    private boolean enabled = false;
+
+    /** Estimated prompt tokens the whole context (headers, whole documents and excerpts) should fit in. */
+    private int tokenBudget = 600;
+
+    /** Documents shorter than this are always kept whole; compressing them saves too little. */
+    private int minDocumentChars = 600;
+
+    /** Upper bound of passages taken from one document. */
+    private int maxPassagesPerDocument = 4;
+
+    /** Target passage length at ingestion; sentences are packed up to it, longer sentences are cut. */
+    private int passageChars = 400;
+
+    /** Documents read per indexing round. */
+    private int indexBatchSize = 32;
+
+    /** Passages per embedding request when indexing. */
+    private int embeddingBatchSize = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    public void setTokenBudget(int tokenBudget) {
+        this.tokenBudget = tokenBudget;
+    }
+
+    public int getMinDocumentChars() {
+        return minDocumentChars;
+    }
+
+    public void setMinDocumentChars(int minDocumentChars) {
+        this.minDocumentChars = minDocumentChars;
+    }
+
+    public int getMaxPassagesPerDocument() {
+        return maxPassagesPerDocument;
+    }
+
+    public void setMaxPassagesPerDocument(int maxPassagesPerDocument) {
+        this.maxPassagesPerDocument = maxPassagesPerDocument;
+    }
+
+    public int getPassageChars() {
+        return passageChars;
+    }
+
+    public void setPassageChars(int passageChars) {
+        this.passageChars = passageChars;
+    }
+
+    public int getIndexBatchSize() {
+        return indexBatchSize;
+    }
+
+    public void setIndexBatchSize(int indexBatchSize) {
+        this.indexBatchSize = indexBatchSize;
+    }
+
+    public int getEmbeddingBatchSize() {
+        return embeddingBatchSize;
+    }
+
+    public void setEmbeddingBatchSize(int embeddingBatchSize) {
+        this.embeddingBatchSize = embeddingBatchSize;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Near-duplicate suppression and MMR re-ranking of retrieved documents (mrpot.retrieval.diversity.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.retrieval.diversity")
+public class DiversityProperties {
+
+    /** Drop documents whose content is a near duplicate of a better-scored one (MinHash over character shingles). */
+    private boolean dedupEnabled = true;
+
+    /** Estimated Jaccard similarity of the shingle sets at or above which a document counts as a duplicate. */
+    private double duplicateThreshold = 0.8;
+
+    /** Shingle length in characters (character shingles also work for text without spaces). */
+    private int shingleSize = 5;
+
+    /** MinHash signature size (one-permutation hashing: one hash per shingle, one minimum per bin). */
+    private int minhashBins = 64;
+
+    /** Maximal Marginal Relevance over the candidates' stored embeddings. */
+    private boolean mmrEnabled = false;
+
+    /** Relevance vs. diversity trade-off: 1.0 = pure relevance, 0.0 = pure diversity. */
+    private double mmrLambda = 0.7;
+
+    /** With MMR on, topK * factor candidates (with embeddings) are fetched to choose from. */
+    private int mmrCandidateFactor = 3;
+
+    /** Candidates at or above this cosine similarity to an already selected document are never selected. */
+    private double mmrRedundancyThreshold = 0.95;
+
+    public boolean isDedupEnabled() {
+        return dedupEnabled;
+    }
+
+    public void setDedupEnabled(boolean dedupEnabled) {
+        this.dedupEnabled = dedupEnabled;
+    }
+
+    public double getDuplicateThreshold() {
+        return duplicateThreshold;
+    }
+
+    public void setDuplicateThreshold(double duplicateThreshold) {
+        this.duplicateThreshold = duplicateThreshold;
+    }
+
+    public int getShingleSize() {
+        return shingleSize;
+    }
+
+    public void setShingleSize(int shingleSize) {
+        this.shingleSize = shingleSize;
+    }
+
+    public int getMinhashBins() {
+        return minhashBins;
+    }
+
+    public void setMinhashBins(int minhashBins) {
+        this.minhashBins = minhashBins;
+    }
+
+    public boolean isMmrEnabled() {
+        return mmrEnabled;
+    }
+
+    public void setMmrEnabled(boolean mmrEnabled) {
+        this.mmrEnabled = mmrEnabled;
+    }
+
+    public double getMmrLambda() {
+        return mmrLambda;
+    }
+
+    public void setMmrLambda(double mmrLambda) {
+        this.mmrLambda = mmrLambda;
+    }
+
+    public int getMmrCandidateFactor() {
+        return mmrCandidateFactor;
+    }
+
+    public void setMmrCandidateFactor(int mmrCandidateFactor) {
+        this.mmrCandidateFactor = mmrCandidateFactor;
+    }
+
+    public double getMmrRedundancyThreshold() {
+        return mmrRedundancyThreshold;
+    }
+
+    public void setMmrRedundancyThreshold(double mmrRedundancyThreshold) {
+        this.mmrRedundancyThreshold = mmrRedundancyThreshold;
+    }
+}
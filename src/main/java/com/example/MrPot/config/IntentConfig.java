@@ -0,0 +1,29 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.service.HashedLinearIntentModel;
+import com.example.MrPot.service.IntentModel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+@EnableConfigurationProperties(IntentProperties.class)
+public class IntentConfig {
+
+    /**
+     * Tiny on-device intent model, only when a weights file is configured.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "mrpot.intent", name = "model-location")
+    public IntentModel intentModel(IntentProperties properties) throws IOException {
+        return HashedLinearIntentModel.load(
+                new InputStreamReader(properties.getModelLocation().getInputStream(), StandardCharsets.UTF_8),
+                properties.getModelThreshold()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+/**
+ * Intent fast-path: greetings and site-guide questions skip embedding + vector search.
+ */
+@ConfigurationProperties(prefix = "mrpot.intent")
+public class IntentProperties {
+
+    private boolean enabled = true;
+
+    /** A greeting rule only applies to messages at most this long. */
+    private int maxGreetingLength = 40;
+
+    /** Optional weights file for the hashed linear intent model; rules only when unset. */
+    private Resource modelLocation;
+
+    /** Minimum model probability to trust a model prediction. */
+    private double modelThreshold = 0.85;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxGreetingLength() {
+        return maxGreetingLength;
+    }
+
+    public void setMaxGreetingLength(int maxGreetingLength) {
+        this.maxGreetingLength = maxGreetingLength;
+    }
+
+    public Resource getModelLocation() {
+        return modelLocation;
+    }
+
+    public void setModelLocation(Resource modelLocation) {
+        this.modelLocation = modelLocation;
+    }
+
+    public double getModelThreshold() {
+        return modelThreshold;
+    }
+
+    public void setModelThreshold(double modelThreshold) {
+        this.modelThreshold = modelThreshold;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Independent knowledge bases (one per customer site) hosted in one deployment.
+ * Every collection has its own table (and therefore its own HNSW indexes); large tenants can
+ * also get their own Postgres instance with a dedicated connection pool.
+ * Requests without a collection use the "default" collection: kb_documents on the primary datasource.
+ */
+@ConfigurationProperties(prefix = "mrpot.kb")
+public class KbCollectionProperties {
+
+    /** Additional collections by name. */
+    private Map<String, Collection> collections = new LinkedHashMap<>();
+
+    public Map<String, Collection> getCollections() {
+        return collections;
+    }
+
+    public void setCollections(Map<String, Collection> collections) {
+        this.collections = collections;
+    }
+
+    public static class Collection {
+
+        /** Table holding this collection's documents (same columns as kb_documents), optionally schema-qualified. */
+        private String table;
+
+        /** Dedicated database for this collection; unset means the primary datasource. */
+        private Shard datasource;
+
+        public String getTable() {
+            return table;
+        }
+
+        public void setTable(String table) {
+            this.table = table;
+        }
+
+        public Shard getDatasource() {
+            return datasource;
+        }
+
+        public void setDatasource(Shard datasource) {
+            this.datasource = datasource;
+        }
+    }
+
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+
+        /** Connection pool size for this shard. */
+        private int maximumPoolSize = 10;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
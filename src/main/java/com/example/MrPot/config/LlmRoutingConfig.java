@@ -0,0 +1,9 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({LlmRoutingProperties.class, AdmissionProperties.class, CascadeProperties.class})
+public class LlmRoutingConfig {
+}
@@ -0,0 +1,186 @@
+package com.example.MrPot.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adaptive routing across the registered ChatClient beans (DeepSeek / OpenAI).
+ */
+@ConfigurationProperties(prefix = "mrpot.llm.routing")
+public class LlmRoutingProperties {
+
+    /** Smoothing factor of the moving time-to-first-token average. */
+    private double ewmaAlpha = 0.2;
+
+    /** Number of recent TTFT samples kept per provider for percentiles. */
+    private int sampleWindow = 200;
+
+    /**
+     * Route away from the requested provider when its moving TTFT is this many times
+     * slower than the best alternative. 0 disables latency-aware switching.
+     */
+    private double latencySwitchRatio = 2.0;
+
+    /** Latency samples older than this are not trusted for switching decisions. */
+    private Duration statsFreshness = Duration.ofMinutes(1);
+
+    private final HedgeSettings hedge = new HedgeSettings();
+
+    private final BreakerSettings circuitBreaker = new BreakerSettings();
+
+    public double getEwmaAlpha() {
+        return ewmaAlpha;
+    }
+
+    public void setEwmaAlpha(double ewmaAlpha) {
+        this.ewmaAlpha = ewmaAlpha;
+    }
+
+    public int getSampleWindow() {
+        return sampleWindow;
+    }
+
+    public void setSampleWindow(int sampleWindow) {
+        this.sampleWindow = sampleWindow;
+    }
+
+    public double getLatencySwitchRatio() {
+        return latencySwitchRatio;
+    }
+
+    public void setLatencySwitchRatio(double latencySwitchRatio) {
+        this.latencySwitchRatio = latencySwitchRatio;
+    }
+
+    public Duration getStatsFreshness() {
+        return statsFreshness;
+    }
+
+    public void setStatsFreshness(Duration statsFreshness) {
+        this.statsFreshness = statsFreshness;
+    }
+
+    public HedgeSettings getHedge() {
+        return hedge;
+    }
+
+    public BreakerSettings getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Hedged streaming: if the primary has not produced a token after the hedge delay,
+     * the same prompt is sent to the alternate provider and the first one to stream wins.
+     */
+    public static class HedgeSettings {
+
+        private boolean enabled = false;
+
+        /** Hedge delay = this percentile of the primary's recent TTFT. */
+        private double percentile = 0.95;
+
+        /** Samples needed before the percentile is used; until then initialDelay applies. */
+        private int minSamples = 20;
+
+        private Duration initialDelay = Duration.ofSeconds(2);
+
+        private Duration minDelay = Duration.ofMillis(300);
+
+        private Duration maxDelay = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+    }
+
+    /**
+     * Per-provider circuit breaker.
+     */
+    public static class BreakerSettings {
+
+        private int windowSize = 50;
+
+        private int minimumCalls = 10;
+
+        private double failureRateThreshold = 0.5;
+
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.repository.ReactiveKbDocumentVectorRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(R2dbcVectorProperties.class)
+@ConditionalOnProperty(prefix = "mrpot.r2dbc", name = "enabled", havingValue = "true")
+public class R2dbcVectorConfig {
+
+    /**
+     * Dedicated pool for vector reads; Spring Boot's R2DBC auto-configuration is excluded in application.yaml.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool vectorConnectionPool(R2dbcVectorProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("vector-r2dbc")
+                .initialSize(properties.getInitialSize())
+                .maxSize(properties.getMaxSize())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .build();
+        return new ConnectionPool(configuration);
+    }
+
+    @Bean
+    public ReactiveKbDocumentVectorRepository reactiveKbDocumentVectorRepository(ConnectionPool vectorConnectionPool,
+                                                                                 ObjectMapper objectMapper,
+                                                                                 VectorSearchProperties vectorProperties) {
+        return new ReactiveKbDocumentVectorRepository(vectorConnectionPool, objectMapper, vectorProperties);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking pgvector access for the streaming pipeline (mrpot.r2dbc.*).
+ * Uses its own R2DBC connection pool next to the JDBC one; Spring Boot's R2DBC auto-configuration
+ * stays excluded so nothing else in the app switches to R2DBC.
+ */
+@ConfigurationProperties(prefix = "mrpot.r2dbc")
+public class R2dbcVectorProperties {
+
+    private boolean enabled = false;
+
+    /** e.g. r2dbc:postgresql://host:5432/db (may point at a read replica). */
+    private String url;
+    private String username;
+    private String password;
+
+    private int initialSize = 2;
+    private int maxSize = 20;
+    private Duration maxIdleTime = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public void setInitialSize(int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(Duration maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({RagPipelineProperties.class, BulkheadProperties.class, DiversityProperties.class,
+        CompressionProperties.class, RetrievalCacheProperties.class})
+public class RagPipelineConfig {
+}
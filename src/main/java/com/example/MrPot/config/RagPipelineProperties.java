@@ -0,0 +1,57 @@
+package com.example.MrPot.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Latency budget for the streaming RAG pipeline.
+ * Each stage gets its own deadline, capped by whatever is left of the overall budget.
+ */
+@ConfigurationProperties(prefix = "mrpot.pipeline")
+public class RagPipelineProperties {
+
+    /** Total time allowed for everything that runs before the LLM call. */
+    private Duration latencyBudget = Duration.ofMillis(2500);
+
+    /** Deadline for loading chat history from Redis. */
+    private Duration historyTimeout = Duration.ofMillis(300);
+
+    /** Deadline for embedding the question. */
+    private Duration embeddingTimeout = Duration.ofMillis(1200);
+
+    /** Deadline for the pgvector nearest-neighbour query. */
+    private Duration vectorSearchTimeout = Duration.ofMillis(800);
+
+    public Duration getLatencyBudget() {
+        return latencyBudget;
+    }
+
+    public void setLatencyBudget(Duration latencyBudget) {
+        this.latencyBudget = latencyBudget;
+    }
+
+    public Duration getHistoryTimeout() {
+        return historyTimeout;
+    }
+
+    public void setHistoryTimeout(Duration historyTimeout) {
+        this.historyTimeout = historyTimeout;
+    }
+
+    public Duration getEmbeddingTimeout() {
+        return embeddingTimeout;
+    }
+
+    public void setEmbeddingTimeout(Duration embeddingTimeout) {
+        this.embeddingTimeout = embeddingTimeout;
+    }
+
+    public Duration getVectorSearchTimeout() {
+        return vectorSearchTimeout;
+    }
+
+    public void setVectorSearchTimeout(Duration vectorSearchTimeout) {
+        this.vectorSearchTimeout = vectorSearchTimeout;
+    }
+}
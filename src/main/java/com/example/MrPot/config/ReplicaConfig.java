@@ -0,0 +1,27 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.repository.ReplicaRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfig {
+
+    /**
+     * The router is deliberately not a DataSource bean: that would switch off the auto-configured
+     * primary, and JPA and every write must keep using it.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "mrpot.replicas", name = "enabled", havingValue = "true")
+    public ReplicaRouter replicaRouter(ReplicaProperties properties,
+                                       DataSource dataSource,
+                                       MeterRegistry meterRegistry) {
+        return new ReplicaRouter(properties, dataSource, meterRegistry);
+    }
+}
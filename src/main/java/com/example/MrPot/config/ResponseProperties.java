@@ -0,0 +1,48 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.model.ResponseView;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Shape of /api/rag/retrieve and /api/rag/answer responses (mrpot.response.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.response")
+public class ResponseProperties {
+
+    /** View used when a request does not pass "view". */
+    private ResponseView defaultView = ResponseView.PREVIEW;
+
+    /** Content characters kept per document in the PREVIEW view. */
+    private int previewChars = 240;
+
+    /**
+     * Bodies whose document text (plus context, when requested) exceeds this are written document by document
+     * straight to the response stream instead of through the message converter.
+     */
+    private DataSize streamThreshold = DataSize.ofKilobytes(256);
+
+    public ResponseView getDefaultView() {
+        return defaultView;
+    }
+
+    public void setDefaultView(ResponseView defaultView) {
+        this.defaultView = defaultView;
+    }
+
+    public int getPreviewChars() {
+        return previewChars;
+    }
+
+    public void setPreviewChars(int previewChars) {
+        this.previewChars = previewChars;
+    }
+
+    public DataSize getStreamThreshold() {
+        return streamThreshold;
+    }
+
+    public void setStreamThreshold(DataSize streamThreshold) {
+        this.streamThreshold = streamThreshold;
+    }
+}
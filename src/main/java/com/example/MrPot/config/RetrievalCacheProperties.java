@@ -0,0 +1,56 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * KB-versioned cache of GET /api/rag/retrieve results plus its HTTP caching headers (mrpot.retrieval.cache.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.retrieval.cache")
+public class RetrievalCacheProperties {
+
+    /** Cache results and answer conditional requests; needs db/vector/kb-versions.sql, otherwise nothing is cached. */
+    private boolean enabled = true;
+
+    /** Entries kept in memory (LRU). */
+    private int maxEntries = 5000;
+
+    /** Upper bound on an entry's age, even when the KB version does not change. */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /** How often kb_versions is polled; a KB change is noticed within this interval. */
+    private Duration versionRefresh = Duration.ofSeconds(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getVersionRefresh() {
+        return versionRefresh;
+    }
+
+    public void setVersionRefresh(Duration versionRefresh) {
+        this.versionRefresh = versionRefresh;
+    }
+}
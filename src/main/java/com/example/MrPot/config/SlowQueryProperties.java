@@ -0,0 +1,78 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Slow vector search log with sampled EXPLAIN (ANALYZE, BUFFERS) capture (mrpot.vector.slow-query.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.vector.slow-query")
+public class SlowQueryProperties {
+
+    /** Record findNearest calls slower than threshold (served at /actuator/slowqueries). */
+    private boolean enabled = true;
+
+    /** findNearest wall time (transaction included) above which a call counts as slow. */
+    private Duration threshold = Duration.ofMillis(250);
+
+    /** Fraction of slow calls re-run under EXPLAIN ANALYZE; the re-run costs another full search. */
+    private double sampleRate = 0.2;
+
+    /** At most one EXPLAIN per interval, and never two at once. */
+    private Duration minInterval = Duration.ofSeconds(30);
+
+    /** statement_timeout for the EXPLAIN re-run. */
+    private Duration explainTimeout = Duration.ofSeconds(5);
+
+    /** Slow calls kept in memory (oldest dropped first). */
+    private int maxEntries = 50;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public Duration getMinInterval() {
+        return minInterval;
+    }
+
+    public void setMinInterval(Duration minInterval) {
+        this.minInterval = minInterval;
+    }
+
+    public Duration getExplainTimeout() {
+        return explainTimeout;
+    }
+
+    public void setExplainTimeout(Duration explainTimeout) {
+        this.explainTimeout = explainTimeout;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
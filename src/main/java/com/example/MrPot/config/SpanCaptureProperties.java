@@ -0,0 +1,42 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Local span capture for trace analysis without a tracing backend.
+ */
+@ConfigurationProperties(prefix = "mrpot.tracing.capture")
+public class SpanCaptureProperties {
+
+    private boolean enabled = false;
+
+    /** Finished spans kept in memory (served by /actuator/spans). */
+    private int maxSpans = 2000;
+
+    /** Optional JSON-lines file every finished span is appended to; in-memory only when unset. */
+    private String file;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSpans() {
+        return maxSpans;
+    }
+
+    public void setMaxSpans(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+}
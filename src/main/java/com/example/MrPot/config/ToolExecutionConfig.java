@@ -0,0 +1,41 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.tools.ParallelToolCallingManager;
+import com.example.MrPot.tools.ToolCallbackCatalog;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ToolExecutionProperties.class)
+public class ToolExecutionConfig {
+
+    /**
+     * Replaces Spring AI's default (sequential) ToolCallingManager.
+     * Parallel fan-out can be switched off with mrpot.tools.parallel=false.
+     */
+    @Bean
+    public ToolCallingManager toolCallingManager(
+            ToolExecutionProperties properties,
+            ToolCallbackCatalog toolCallbackCatalog,
+            ObjectProvider<ToolCallbackResolver> toolCallbackResolver,
+            ObjectProvider<ToolExecutionExceptionProcessor> exceptionProcessor,
+            ObjectProvider<ObservationRegistry> observationRegistry
+    ) {
+        DefaultToolCallingManager.Builder builder = DefaultToolCallingManager.builder();
+        toolCallbackResolver.ifAvailable(builder::toolCallbackResolver);
+        exceptionProcessor.ifAvailable(builder::toolExecutionExceptionProcessor);
+        observationRegistry.ifAvailable(builder::observationRegistry);
+        ToolCallingManager sequential = builder.build();
+
+        return properties.isParallel()
+                ? new ParallelToolCallingManager(sequential, toolCallbackCatalog.toolExecutor())
+                : sequential;
+    }
+}
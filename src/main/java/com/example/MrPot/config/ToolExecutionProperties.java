@@ -0,0 +1,73 @@
+package com.example.MrPot.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tool execution: timeouts, parallel fan-out and memoization of pure tools.
+ */
+@ConfigurationProperties(prefix = "mrpot.tools")
+public class ToolExecutionProperties {
+
+    /** Default timeout for one tool call. */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /** Per-tool timeout overrides, keyed by tool name. */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /** Run several tool calls of one model response in parallel (virtual threads). */
+    private boolean parallel = true;
+
+    /** Max memoized results across all pure tools. */
+    private int memoMaxEntries = 1000;
+
+    /** How long a memoized result stays valid. */
+    private Duration memoTtl = Duration.ofMinutes(10);
+
+    public Duration timeoutFor(String toolName) {
+        return timeouts.getOrDefault(toolName, timeout);
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public Map<String, Duration> getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Map<String, Duration> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public int getMemoMaxEntries() {
+        return memoMaxEntries;
+    }
+
+    public void setMemoMaxEntries(int memoMaxEntries) {
+        this.memoMaxEntries = memoMaxEntries;
+    }
+
+    public Duration getMemoTtl() {
+        return memoTtl;
+    }
+
+    public void setMemoTtl(Duration memoTtl) {
+        this.memoTtl = memoTtl;
+    }
+}
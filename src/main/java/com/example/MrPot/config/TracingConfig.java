@@ -0,0 +1,32 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.tracing.RecentSpansEndpoint;
+import com.example.MrPot.tracing.RecentSpansHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+@EnableConfigurationProperties(SpanCaptureProperties.class)
+@ConditionalOnProperty(prefix = "mrpot.tracing.capture", name = "enabled", havingValue = "true")
+public class TracingConfig {
+
+    /**
+     * Brave span handler keeping finished spans in memory (and optionally in a file).
+     * Spring Boot registers every SpanHandler bean with the tracer.
+     */
+    @Bean
+    public RecentSpansHandler recentSpansHandler(SpanCaptureProperties properties, ObjectMapper objectMapper)
+            throws IOException {
+        return new RecentSpansHandler(properties.getMaxSpans(), properties.getFile(), objectMapper);
+    }
+
+    @Bean
+    public RecentSpansEndpoint recentSpansEndpoint(RecentSpansHandler handler) {
+        return new RecentSpansEndpoint(handler);
+    }
+}
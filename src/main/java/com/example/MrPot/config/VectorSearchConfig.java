@@ -0,0 +1,30 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.tracing.SlowQueryEndpoint;
+import com.example.MrPot.tracing.SlowQueryLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({VectorSearchProperties.class, SlowQueryProperties.class})
+public class VectorSearchConfig {
+
+    /**
+     * Picked up by KbDocumentVectorRepository and the collection repositories built by KbCollections.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "mrpot.vector.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SlowQueryLog slowQueryLog(SlowQueryProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new SlowQueryLog(properties, objectMapper, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "mrpot.vector.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        return new SlowQueryEndpoint(slowQueryLog);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.MrPot.config;
+
+import com.example.MrPot.repository.VectorSearchMode;
+import com.example.MrPot.repository.VectorSearchProfile;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * pgvector candidate generation for kb_documents.
+ * Compact modes over-fetch candidates from a halfvec / binary index and re-rank them with exact cosine.
+ * Search profiles set hnsw.ef_search per query (SET LOCAL), so one request can trade recall for latency
+ * without touching the server default.
+ */
+@ConfigurationProperties(prefix = "mrpot.vector")
+public class VectorSearchProperties {
+
+    private static final int MAX_EF_SEARCH = 1000;
+
+    /** Candidate generation mode. */
+    private VectorSearchMode mode = VectorSearchMode.EXACT;
+
+    /** Dimensions of the stored embedding column (must match the embedding model). */
+    private int dimensions = 1536;
+
+    /**
+     * Leading dimensions used for candidate generation; 0 keeps all of them.
+     * Only meaningful for embeddings trained to be truncatable (e.g. text-embedding-3-*).
+     */
+    private int candidateDimensions = 0;
+
+    /** Candidates fetched per requested result before the exact re-rank. */
+    private int overFetchFactor = 4;
+
+    /** Lower bound on the candidate count, so small topK still gets a useful re-rank pool. */
+    private int minCandidates = 40;
+
+    /** hnsw.ef_search per profile; raised to the number of rows a query needs when that is larger. */
+    private Map<VectorSearchProfile, Integer> efSearch = new EnumMap<>(Map.of(
+            VectorSearchProfile.FAST, 20,
+            VectorSearchProfile.BALANCED, 40,
+            VectorSearchProfile.PRECISE, 200));
+
+    /** Profile for requests that do not pick one. */
+    private VectorSearchProfile defaultProfile = VectorSearchProfile.BALANCED;
+
+    /** Profile for streaming answers that do not pick one (latency-sensitive: first byte matters). */
+    private VectorSearchProfile streamProfile = VectorSearchProfile.FAST;
+
+    /**
+     * pgvector 0.8 iterative index scans: keep scanning the graph when filtering leaves fewer rows
+     * than requested. relaxed_order is re-sorted by the query, so results stay ordered.
+     * OFF by default: the hnsw.iterative_scan setting only exists on pgvector 0.8+, and older versions
+     * reject unknown hnsw.* settings, which would fail every search.
+     */
+    private IterativeScan iterativeScan = IterativeScan.OFF;
+
+    /** hnsw.max_scan_tuples: upper bound on tuples visited by an iterative scan. */
+    private int maxScanTuples = 20_000;
+
+    public VectorSearchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(VectorSearchMode mode) {
+        this.mode = mode;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    public int getCandidateDimensions() {
+        return candidateDimensions;
+    }
+
+    public void setCandidateDimensions(int candidateDimensions) {
+        this.candidateDimensions = candidateDimensions;
+    }
+
+    public int getOverFetchFactor() {
+        return overFetchFactor;
+    }
+
+    public void setOverFetchFactor(int overFetchFactor) {
+        this.overFetchFactor = overFetchFactor;
+    }
+
+    public int getMinCandidates() {
+        return minCandidates;
+    }
+
+    public void setMinCandidates(int minCandidates) {
+        this.minCandidates = minCandidates;
+    }
+
+    public Map<VectorSearchProfile, Integer> getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(Map<VectorSearchProfile, Integer> efSearch) {
+        this.efSearch = efSearch;
+    }
+
+    public VectorSearchProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public void setDefaultProfile(VectorSearchProfile defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    public VectorSearchProfile getStreamProfile() {
+        return streamProfile;
+    }
+
+    public void setStreamProfile(VectorSearchProfile streamProfile) {
+        this.streamProfile = streamProfile;
+    }
+
+    public IterativeScan getIterativeScan() {
+        return iterativeScan;
+    }
+
+    public void setIterativeScan(IterativeScan iterativeScan) {
+        this.iterativeScan = iterativeScan;
+    }
+
+    public int getMaxScanTuples() {
+        return maxScanTuples;
+    }
+
+    public void setMaxScanTuples(int maxScanTuples) {
+        this.maxScanTuples = maxScanTuples;
+    }
+
+    /**
+     * Dimensions actually used by the candidate index.
+     */
+    public int effectiveCandidateDimensions() {
+        return candidateDimensions > 0 && candidateDimensions < dimensions ? candidateDimensions : dimensions;
+    }
+
+    /**
+     * Size of the re-rank pool for a request of {@code limit} results.
+     */
+    public int candidateCount(int limit) {
+        return Math.max(Math.max(1, overFetchFactor) * limit, Math.max(limit, minCandidates));
+    }
+
+    /**
+     * The profile's ef_search, raised to the rows the index scan must return (limit, or the
+     * candidate pool for compact modes) since HNSW never yields more than ef_search rows per pass.
+     * Capped at pgvector's maximum of 1000.
+     */
+    public int efSearchFor(VectorSearchProfile profile, VectorSearchMode mode, int limit) {
+        VectorSearchProfile resolved = profile == null ? defaultProfile : profile;
+        int configured = efSearch.getOrDefault(resolved, 40);
+        int needed = mode == null || mode == VectorSearchMode.EXACT ? limit : candidateCount(limit);
+        return Math.min(MAX_EF_SEARCH, Math.max(configured, needed));
+    }
+
+    public enum IterativeScan {
+        OFF,
+        RELAXED_ORDER,
+        STRICT_ORDER;
+
+        /**
+         * Value for the hnsw.iterative_scan setting.
+         */
+        public String sqlValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
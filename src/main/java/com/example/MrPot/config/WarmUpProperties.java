@@ -0,0 +1,92 @@
+package com.example.MrPot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup warm-up that runs before the node reports ready (mrpot.warmup.*).
+ */
+@ConfigurationProperties(prefix = "mrpot.warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    /** Upper bound for the whole warm-up; the node becomes ready when it is exceeded. */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /** Connections opened at once on the primary pool (capped by its maximum size); 0 = the pool's maximum. */
+    private int connections = 0;
+
+    /** Questions embedded for real; their vectors drive the synthetic searches. 0 = synthetic vectors only. */
+    private int embeddingCalls = 1;
+
+    /** Synthetic vector searches (and prompt builds), for JIT and HNSW upper layers. */
+    private int iterations = 20;
+
+    /** Relations loaded with pg_prewarm (needs the extension), e.g. the HNSW index of kb_documents. */
+    private List<String> prewarmRelations = new ArrayList<>();
+
+    private List<String> questions = new ArrayList<>(List.of(
+            "What projects has Yuqi built?",
+            "Summarize Yuqi's experience with distributed systems."
+    ));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
+    public int getEmbeddingCalls() {
+        return embeddingCalls;
+    }
+
+    public void setEmbeddingCalls(int embeddingCalls) {
+        this.embeddingCalls = embeddingCalls;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public List<String> getPrewarmRelations() {
+        return prewarmRelations;
+    }
+
+    public void setPrewarmRelations(List<String> prewarmRelations) {
+        this.prewarmRelations = prewarmRelations;
+    }
+
+    public List<String> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<String> questions) {
+        this.questions = questions;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.MrPot.controller;
+
+import com.example.MrPot.repository.UnknownCollectionException;
+import com.example.MrPot.resilience.AdmissionRejectedException;
+import com.example.MrPot.resilience.CallNotPermittedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /**
+     * Load shedding: answer fast with 429 + Retry-After instead of queueing the request.
+     * No body, so it works for both JSON and text/event-stream clients.
+     */
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Void> onAdmissionRejected(AdmissionRejectedException ex) {
+        long retryAfterSeconds = Math.max(1L, (ex.getRetryAfter().toMillis() + 999L) / 1000L);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+
+    /**
+     * A request for a collection this deployment does not host.
+     */
+    @ExceptionHandler(UnknownCollectionException.class)
+    public ResponseEntity<Void> onUnknownCollection(UnknownCollectionException ex) {
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * The provider's circuit is open and no alternate could take the call.
+     */
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<Void> onCallNotPermitted(CallNotPermittedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
@@ -1,15 +1,19 @@
 package com.example.MrPot.controller;
 
+import com.example.MrPot.capture.TrafficRecorder;
 import com.example.MrPot.model.RagAnswer;
 import com.example.MrPot.model.RagAnswerRequest;
 import com.example.MrPot.model.ThinkingEvent;
+import com.example.MrPot.resilience.AdmissionRejectedException;
 import com.example.MrPot.service.RagAnswerService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
 
 import java.io.IOException;
 
@@ -19,10 +23,25 @@ import java.io.IOException;
 public class RagAnswerController {
 
     private final RagAnswerService ragAnswerService;
+    private final TrafficRecorder trafficRecorder;
+    private final ResponseProjection responseProjection;
 
+    /**
+     * view (ids | preview | full) controls how much of each supporting document is returned.
+     */
     @PostMapping("/answer")
-    public RagAnswer answer(@RequestBody RagAnswerRequest request) {
-        return ragAnswerService.answer(request);
+    public ResponseEntity<?> answer(@RequestBody RagAnswerRequest request,
+                                    @RequestParam(value = "view", required = false) String view) {
+        TrafficRecorder.Capture capture = begin("answer", request);
+        try {
+            RagAnswer answer = ragAnswerService.answer(request);
+            capture.documents(answer.supportingDocs() == null ? 0 : answer.supportingDocs().size());
+            capture.finish(200, "complete");
+            return responseProjection.answer(answer, responseProjection.view(view));
+        } catch (RuntimeException ex) {
+            capture.finish(statusOf(ex), "error");
+            throw ex;
+        }
     }
 
     @PostMapping(value = "/answer/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -31,8 +50,21 @@ public class RagAnswerController {
         SseEmitter emitter = new SseEmitter(0L);
 
         // RAG + LLM streaming with low-latency thinking stages
-        // Stages: start / redis / rag / answer_delta / answer_final
-        Flux<ThinkingEvent> stream = ragAnswerService.streamAnswerWithLogic(request);
+        // Stages: start / redis / rag / [cascade] / answer_delta / answer_final
+        // Admission rejections are thrown here, before the SSE response is opened
+        TrafficRecorder.Capture capture = begin("stream", request);
+        Flux<ThinkingEvent> stream;
+        try {
+            stream = ragAnswerService.streamAnswerWithLogic(request)
+                    .doOnNext(capture::event)
+                    .doFinally(signalType -> capture.finish(200,
+                            signalType == SignalType.ON_COMPLETE ? "complete"
+                                    : signalType == SignalType.CANCEL ? "cancel"
+                                    : "error"));
+        } catch (RuntimeException ex) {
+            capture.finish(statusOf(ex), "error");
+            throw ex;
+        }
 
         // Subscribe to the thinking stream and bridge it into SSE events
         Disposable subscription = stream.subscribe(
@@ -61,4 +93,13 @@ public class RagAnswerController {
 
         return emitter;
     }
+
+    private TrafficRecorder.Capture begin(String endpoint, RagAnswerRequest request) {
+        return trafficRecorder.begin(endpoint, request.question(), request.sessionId(),
+                request.topK(), request.minScore(), request.model(), request.toolProfile());
+    }
+
+    private static int statusOf(RuntimeException ex) {
+        return ex instanceof AdmissionRejectedException ? 429 : 500;
+    }
 }
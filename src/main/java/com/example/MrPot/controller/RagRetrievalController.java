@@ -1,9 +1,15 @@
 package com.example.MrPot.controller;
 
+import com.example.MrPot.capture.TrafficRecorder;
 import com.example.MrPot.model.RagQueryRequest;
 import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.model.ResponseView;
 import com.example.MrPot.service.RagRetrievalService;
+import com.example.MrPot.service.RetrievalResultCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -12,40 +18,108 @@ import org.springframework.web.bind.annotation.*;
 public class RagRetrievalController {
 
     private final RagRetrievalService ragRetrievalService;
+    private final TrafficRecorder trafficRecorder;
+    private final ResponseProjection responseProjection;
+    private final RetrievalResultCache retrievalCache;
 
     /**
      * 简单模式：
      *  - 前端只传 question；topK/minScore 用默认值
      *  请求示例：
      *    GET /api/rag/retrieve?q=xxx
+     *    GET /api/rag/retrieve?q=xxx&collection=acme
+     *    GET /api/rag/retrieve?q=xxx&view=full&context=true
+     *    GET /api/rag/retrieve?q=xxx&topK=5&minScore=0.7
+     *  view: ids | preview | full (默认 mrpot.response.default-view)；context=true 时才返回拼好的 context
+     *  结果按 KB 版本缓存 (mrpot.retrieval.cache)，带 ETag / Cache-Control；If-None-Match 命中时返回 304
      */
     @GetMapping("/retrieve")
-    public RagRetrievalResult retrieveByQueryParam(
-            @RequestParam("q") String question
+    public ResponseEntity<?> retrieveByQueryParam(
+            @RequestParam("q") String question,
+            @RequestParam(value = "collection", required = false) String collection,
+            @RequestParam(value = "topK", required = false) Integer topK,
+            @RequestParam(value = "minScore", required = false) Double minScore,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "context", defaultValue = "false") boolean context,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         RagQueryRequest req = new RagQueryRequest(
                 question,
-                null,   // 使用 RagRetrievalService 默认 topK
-                null    // 使用 RagRetrievalService 默认 minScore
+                topK,      // null -> RagRetrievalService 默认 topK
+                minScore,  // null -> RagRetrievalService 默认 minScore
+                null,      // 默认 search profile
+                null,      // 不过滤
+                collection
         );
-        return ragRetrievalService.retrieve(req);
+        ResponseView responseView = responseProjection.view(view);
+        RetrievalResultCache.Key key = retrievalCache.key(req, responseView.name(), context);
+        if (key == null) {
+            return responseProjection.retrieval(retrieve(req), responseView, context);
+        }
+        if (retrievalCache.notModified(key, ifNoneMatch)) {
+            TrafficRecorder.Capture capture = trafficRecorder.begin("retrieve", question, null, topK, minScore, null, null);
+            capture.finish(304, "not-modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(key.etag())
+                    .cacheControl(retrievalCache.cacheControl())
+                    .build();
+        }
+
+        RagRetrievalResult cached = retrievalCache.get(key);
+        RagRetrievalResult result;
+        if (cached != null) {
+            TrafficRecorder.Capture capture = trafficRecorder.begin("retrieve", question, null, topK, minScore, null, null);
+            capture.documents(cached.documents() == null ? 0 : cached.documents().size());
+            capture.finish(200, "cached");
+            // Same normalized question: answer with this caller's wording
+            result = new RagRetrievalResult(question, cached.documents(), cached.context(), cached.efSearch(),
+                    cached.tokensSaved());
+        } else {
+            result = retrieve(req);
+            retrievalCache.put(key, result);
+        }
+
+        ResponseEntity<?> response = responseProjection.retrieval(result, responseView, context);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(key.etag())
+                .cacheControl(retrievalCache.cacheControl())
+                .body(response.getBody());
     }
 
     /**
      * 高级模式：
-     *  - 前端可以控制 topK / minScore
+     *  - 前端可以控制 topK / minScore / searchProfile (fast | balanced | precise) / filter
      *  请求示例：
-     *    POST /api/rag/retrieve
+     *    POST /api/rag/retrieve?view=full&context=true
      *    {
      *      "question": "xxx",
      *      "topK": 8,
-     *      "minScore": 0.65
+     *      "minScore": 0.65,
+     *      "searchProfile": "precise",
+     *      "filter": { "docTypes": ["blog"], "metadata": { "lang": "en" } }
      *    }
      */
     @PostMapping("/retrieve")
-    public RagRetrievalResult retrieveByBody(
-            @RequestBody RagQueryRequest request
+    public ResponseEntity<?> retrieveByBody(
+            @RequestBody RagQueryRequest request,
+            @RequestParam(value = "view", required = false) String view,
+            @RequestParam(value = "context", defaultValue = "false") boolean context
     ) {
-        return ragRetrievalService.retrieve(request);
+        return responseProjection.retrieval(retrieve(request), responseProjection.view(view), context);
+    }
+
+    private RagRetrievalResult retrieve(RagQueryRequest request) {
+        TrafficRecorder.Capture capture = trafficRecorder.begin("retrieve", request.question(), null,
+                request.topK(), request.minScore(), null, null);
+        try {
+            RagRetrievalResult result = ragRetrievalService.retrieve(request);
+            capture.documents(result.documents() == null ? 0 : result.documents().size());
+            capture.finish(200, "complete");
+            return result;
+        } catch (RuntimeException ex) {
+            capture.finish(500, "error");
+            throw ex;
+        }
     }
 }
@@ -0,0 +1,124 @@
+package com.example.MrPot.controller;
+
+import com.example.MrPot.config.ResponseProperties;
+import com.example.MrPot.model.AnswerResponse;
+import com.example.MrPot.model.DocumentView;
+import com.example.MrPot.model.RagAnswer;
+import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.model.ResponseView;
+import com.example.MrPot.model.RetrievalResponse;
+import com.example.MrPot.model.ScoredDocument;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Projects retrieval / answer results to the requested {@link ResponseView} (mrpot.response.*).
+ *
+ * Small bodies go through the regular message converter. Bodies whose text exceeds stream-threshold
+ * are written with a JsonGenerator, one document at a time with a flush in between, so the client
+ * starts receiving while the rest is serialized and no second full copy of the body is buffered.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseProjection {
+
+    private final ResponseProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public ResponseView view(String value) {
+        return ResponseView.parse(value, properties.getDefaultView());
+    }
+
+    public ResponseEntity<?> retrieval(RagRetrievalResult result, ResponseView view, boolean includeContext) {
+        String context = includeContext ? result.context() : null;
+        RetrievalResponse response = new RetrievalResponse(result.question(), documents(result.documents(), view),
+                context, result.efSearch(), result.tokensSaved());
+        if (textSize(response.documents()) + (context == null ? 0 : context.length()) <= streamThreshold()) {
+            return ResponseEntity.ok(response);
+        }
+        return stream(generator -> {
+            generator.writeStringField("question", response.question());
+            writeDocuments(generator, "documents", response.documents());
+            if (response.context() != null) {
+                generator.writeStringField("context", response.context());
+            }
+            if (response.efSearch() != null) {
+                generator.writeNumberField("efSearch", response.efSearch());
+            }
+            if (response.tokensSaved() != null) {
+                generator.writeNumberField("tokensSaved", response.tokensSaved());
+            }
+        });
+    }
+
+    public ResponseEntity<?> answer(RagAnswer answer, ResponseView view) {
+        AnswerResponse response = new AnswerResponse(answer.answer(), documents(answer.supportingDocs(), view));
+        if (textSize(response.supportingDocs()) <= streamThreshold()) {
+            return ResponseEntity.ok(response);
+        }
+        return stream(generator -> {
+            generator.writeStringField("answer", response.answer());
+            writeDocuments(generator, "supportingDocs", response.supportingDocs());
+        });
+    }
+
+    private List<DocumentView> documents(List<ScoredDocument> documents, ResponseView view) {
+        if (documents == null) {
+            return List.of();
+        }
+        return documents.stream()
+                .map(document -> DocumentView.of(document, view, properties.getPreviewChars()))
+                .toList();
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(Fields fields) {
+        StreamingResponseBody body = (OutputStream out) -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartObject();
+                fields.write(generator);
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private void writeDocuments(JsonGenerator generator, String name, List<DocumentView> documents) throws IOException {
+        generator.writeArrayFieldStart(name);
+        for (DocumentView document : documents) {
+            objectMapper.writeValue(generator, document);
+            generator.flush();
+        }
+        generator.writeEndArray();
+    }
+
+    private long streamThreshold() {
+        return properties.getStreamThreshold().toBytes();
+    }
+
+    /**
+     * Characters of document text in the projected body (content + preview), a cheap size estimate.
+     */
+    private static long textSize(List<DocumentView> documents) {
+        long size = 0;
+        for (DocumentView document : documents) {
+            size += document.content() == null ? 0 : document.content().length();
+            size += document.preview() == null ? 0 : document.preview().length();
+        }
+        return size;
+    }
+
+    @FunctionalInterface
+    private interface Fields {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.MrPot.ingest;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/passages?collection=... : passage index status; POST indexes documents without passages
+ * (up to limit) or, with documentId, re-indexes one document. Not exposed over HTTP by default.
+ */
+@Component
+@Endpoint(id = "passages")
+public class PassageIndexEndpoint {
+
+    private final PassageIndexer indexer;
+
+    public PassageIndexEndpoint(PassageIndexer indexer) {
+        this.indexer = indexer;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status(@Nullable String collection) {
+        return indexer.status(collection);
+    }
+
+    @WriteOperation
+    public PassageIndexer.Report index(@Nullable String collection, @Nullable Long documentId, @Nullable Integer limit) {
+        if (documentId != null) {
+            return indexer.reindex(collection, documentId);
+        }
+        return indexer.indexMissing(collection, limit == null ? 0 : limit);
+    }
+}
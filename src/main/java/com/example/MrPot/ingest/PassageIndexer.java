@@ -0,0 +1,172 @@
+package com.example.MrPot.ingest;
+
+import com.example.MrPot.config.CompressionProperties;
+import com.example.MrPot.repository.KbCollections;
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.pgvector.PGvector;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ingestion side of context compression: splits documents into passages (PassageSplitter), embeds them in
+ * batches and stores them in the collection's passage table (db/vector/passages.sql).
+ *
+ * Documents are written to the KB outside this service, so indexing is triggered afterwards through
+ * /actuator/passages: either every document that has no passages yet, or one document again after its
+ * content changed. Writes go to the primary pool; collections on a shard must be indexed on that database.
+ */
+@Component
+@RequiredArgsConstructor
+public class PassageIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(PassageIndexer.class);
+
+    private final EmbeddingModel embeddingModel;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KbCollections kbCollections;
+    private final CompressionProperties properties;
+
+    public record Report(String collection, int documents, int passages, long millis) {
+    }
+
+    private record Source(long id, String content) {
+    }
+
+    private record Passage(long documentId, int ordinal, String content) {
+    }
+
+    /**
+     * Indexes up to limit documents (all when limit <= 0) that have no passages yet, in id order.
+     */
+    public Report indexMissing(String collection, int limit) {
+        KbDocumentVectorRepository repository = writableRepository(collection);
+        String sql = """
+                SELECT d.id, d.content
+                FROM %s d
+                WHERE d.id > ?
+                  AND NOT EXISTS (SELECT 1 FROM %s p WHERE p.document_id = d.id)
+                ORDER BY d.id
+                LIMIT ?
+                """.formatted(repository.getTable(), repository.getPassageTable());
+
+        long start = System.nanoTime();
+        int documents = 0;
+        int passages = 0;
+        long lastId = Long.MIN_VALUE;
+        int batchSize = Math.max(1, properties.getIndexBatchSize());
+        while (limit <= 0 || documents < limit) {
+            int size = limit <= 0 ? batchSize : Math.min(batchSize, limit - documents);
+            List<Source> batch = jdbcTemplate.query(sql,
+                    (rs, rowNum) -> new Source(rs.getLong("id"), rs.getString("content")), lastId, size);
+            if (batch.isEmpty()) {
+                break;
+            }
+            passages += write(repository, batch);
+            documents += batch.size();
+            // Cursor instead of re-running NOT EXISTS from the start: documents without text get no passages
+            lastId = batch.get(batch.size() - 1).id();
+        }
+        Report report = new Report(kbCollections.resolve(collection), documents, passages,
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Passage indexing: {}", report);
+        return report;
+    }
+
+    /**
+     * Replaces the passages of one document (after its content changed).
+     */
+    public Report reindex(String collection, long documentId) {
+        KbDocumentVectorRepository repository = writableRepository(collection);
+        long start = System.nanoTime();
+        List<Source> batch = jdbcTemplate.query("SELECT id, content FROM " + repository.getTable() + " WHERE id = ?",
+                (rs, rowNum) -> new Source(rs.getLong("id"), rs.getString("content")), documentId);
+        if (batch.isEmpty()) {
+            throw new IllegalArgumentException("Document " + documentId + " not found in " + repository.getTable());
+        }
+        int passages = write(repository, batch);
+        return new Report(kbCollections.resolve(collection), 1, passages, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Documents, indexed documents and passages of a collection.
+     */
+    public Map<String, Object> status(String collection) {
+        KbDocumentVectorRepository repository = kbCollections.repository(collection);
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("collection", kbCollections.resolve(collection));
+        status.put("table", repository.getPassageTable());
+        if (!kbCollections.isOnPrimary(collection)) {
+            status.put("writable", false);
+            return status;
+        }
+        jdbcTemplate.query("""
+                SELECT (SELECT count(*) FROM %s) AS documents,
+                       (SELECT count(DISTINCT document_id) FROM %s) AS indexed,
+                       (SELECT count(*) FROM %s) AS passages
+                """.formatted(repository.getTable(), repository.getPassageTable(), repository.getPassageTable()),
+                rs -> {
+                    status.put("documents", rs.getLong("documents"));
+                    status.put("indexedDocuments", rs.getLong("indexed"));
+                    status.put("passages", rs.getLong("passages"));
+                });
+        return status;
+    }
+
+    private KbDocumentVectorRepository writableRepository(String collection) {
+        KbDocumentVectorRepository repository = kbCollections.repository(collection);
+        if (!kbCollections.isOnPrimary(collection)) {
+            throw new IllegalArgumentException("Collection '" + kbCollections.resolve(collection)
+                    + "' lives on its own database; index its passages there");
+        }
+        return repository;
+    }
+
+    /**
+     * Splits and embeds outside the transaction, then replaces the documents' passages in one transaction.
+     */
+    private int write(KbDocumentVectorRepository repository, List<Source> documents) {
+        List<Passage> passages = new ArrayList<>();
+        for (Source document : documents) {
+            List<String> parts = PassageSplitter.split(document.content(), properties.getPassageChars());
+            for (int i = 0; i < parts.size(); i++) {
+                passages.add(new Passage(document.id(), i, parts.get(i)));
+            }
+        }
+
+        List<float[]> embeddings = new ArrayList<>(passages.size());
+        int batchSize = Math.max(1, properties.getEmbeddingBatchSize());
+        for (int from = 0; from < passages.size(); from += batchSize) {
+            List<String> texts = passages.subList(from, Math.min(passages.size(), from + batchSize)).stream()
+                    .map(Passage::content)
+                    .toList();
+            embeddings.addAll(embeddingModel.embed(texts));
+        }
+
+        String ids = documents.stream().map(d -> String.valueOf(d.id())).collect(Collectors.joining(",", "{", "}"));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM " + repository.getPassageTable() + " WHERE document_id = ANY (?::bigint[])",
+                    ids);
+            List<Object[]> rows = new ArrayList<>(passages.size());
+            for (int i = 0; i < passages.size(); i++) {
+                Passage passage = passages.get(i);
+                rows.add(new Object[]{passage.documentId(), passage.ordinal(), passage.content(),
+                        new PGvector(embeddings.get(i))});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO " + repository.getPassageTable()
+                    + " (document_id, ordinal, content, embedding) VALUES (?, ?, ?, ?)", rows);
+        });
+        return passages.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.MrPot.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits document text into sentence-aligned passages of about targetChars.
+ *
+ * Sentences end at . ! ? followed by whitespace, at the CJK full stops 。！？； and at blank lines.
+ * Consecutive sentences are packed into one passage up to targetChars; a longer sentence is cut at the
+ * last whitespace before the limit (or hard, for text without spaces).
+ */
+public final class PassageSplitter {
+
+    private PassageSplitter() {
+    }
+
+    public static List<String> split(String text, int targetChars) {
+        List<String> passages = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return passages;
+        }
+        int target = Math.max(40, targetChars);
+        StringBuilder current = new StringBuilder();
+        for (String sentence : sentences(text)) {
+            if (sentence.length() > target) {
+                flush(current, passages);
+                cut(sentence, target, passages);
+            } else {
+                if (current.length() > 0 && current.length() + 1 + sentence.length() > target) {
+                    flush(current, passages);
+                }
+                if (current.length() > 0) {
+                    current.append(' ');
+                }
+                current.append(sentence);
+            }
+        }
+        flush(current, passages);
+        return passages;
+    }
+
+    static List<String> sentences(String text) {
+        List<String> sentences = new ArrayList<>();
+        int n = text.length();
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            boolean end = switch (text.charAt(i)) {
+                case '。', '！', '？', '；' -> true;
+                case '.', '!', '?' -> i + 1 == n || Character.isWhitespace(text.charAt(i + 1));
+                case '\n' -> i + 1 < n && text.charAt(i + 1) == '\n';
+                default -> false;
+            };
+            if (end) {
+                add(text.substring(start, i + 1), sentences);
+                start = i + 1;
+            }
+        }
+        add(text.substring(start), sentences);
+        return sentences;
+    }
+
+    private static void cut(String sentence, int target, List<String> passages) {
+        int start = 0;
+        while (sentence.length() - start > target) {
+            int end = sentence.lastIndexOf(' ', start + target);
+            if (end <= start) {
+                end = start + target;
+            }
+            add(sentence.substring(start, end), passages);
+            start = end;
+        }
+        add(sentence.substring(start), passages);
+    }
+
+    private static void flush(StringBuilder current, List<String> passages) {
+        if (current.length() > 0) {
+            passages.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static void add(String part, List<String> into) {
+        String stripped = part.strip();
+        if (!stripped.isEmpty()) {
+            into.add(stripped.replaceAll("\\s+", " "));
+        }
+    }
+}
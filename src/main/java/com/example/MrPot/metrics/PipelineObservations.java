@@ -0,0 +1,140 @@
+package com.example.MrPot.metrics;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Tracing spans for the RAG pipeline (Micrometer Observation -> Brave).
+ *
+ * Every stage span gets an explicit parent instead of relying on thread locals, so the
+ * trace stays connected when work hops onto bulkhead threads or into the ChatClient stream:
+ *
+ *   rag/answer
+ *    ├─ start              routing, admission, intent
+ *    ├─ redis              chat history load
+ *    ├─ rag/embed          query embedding
+ *    ├─ rag/vector         pgvector search (topK, effective min score, doc count)
+ *    ├─ llm-stream         whole LLM stream (provider, prompt / completion tokens)
+ *    │   └─ llm-first-token
+ *    └─ persist            chat turn write
+ */
+@Component
+@RequiredArgsConstructor
+public class PipelineObservations {
+
+    public static final String ROOT = "rag/answer";
+    public static final String START = "start";
+    public static final String REDIS = "redis";
+    public static final String EMBED = "rag/embed";
+    public static final String VECTOR = "rag/vector";
+    public static final String LLM_STREAM = "llm-stream";
+    public static final String LLM_FIRST_TOKEN = "llm-first-token";
+    public static final String PERSIST = "persist";
+
+    private static final String SPAN_NAME = "mrpot.rag.span";
+
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * Start the per-request root span under whatever observation is current (the HTTP request).
+     */
+    public Observation startRoot(String provider) {
+        return Observation.createNotStarted(SPAN_NAME, observationRegistry)
+                .contextualName(ROOT)
+                .lowCardinalityKeyValue("stage", ROOT)
+                .lowCardinalityKeyValue("provider", provider)
+                .start();
+    }
+
+    /**
+     * Start a stage span; the caller stops it.
+     */
+    public Observation start(String stage, Observation parent) {
+        return create(stage, parent).start();
+    }
+
+    /**
+     * Run blocking work inside a stage span. The span is in scope while it runs, so
+     * {@link #annotate(String, Object)} from inside the work lands on it.
+     */
+    public <T> T observe(String stage, Observation parent, Supplier<T> work) {
+        return create(stage, parent).observe(work);
+    }
+
+    public void observe(String stage, Observation parent, Runnable work) {
+        create(stage, parent).observe(work);
+    }
+
+    /**
+     * Record a failure on the given spans and stop them (used when a request is rejected
+     * before its stream exists).
+     */
+    public void fail(Throwable error, Observation... spans) {
+        for (Observation span : spans) {
+            span.error(error);
+            span.stop();
+        }
+    }
+
+    /**
+     * Attach an attribute to the span in scope on this thread, if any.
+     */
+    public void annotate(String key, Object value) {
+        Observation current = observationRegistry.getCurrentObservation();
+        if (current != null && value != null) {
+            current.highCardinalityKeyValue(key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Wrap the routed LLM stream with the llm-stream / llm-first-token spans. The llm-stream
+     * span is written into the Reactor context so the ChatClient's own observations nest under it.
+     */
+    public Flux<ChatResponse> observeLlm(Observation parent,
+                                         RagPipelineMetrics.GenerationTracker generation,
+                                         Flux<ChatResponse> stream) {
+        return Flux.defer(() -> {
+            Observation llm = start(LLM_STREAM, parent);
+            Observation firstToken = start(LLM_FIRST_TOKEN, llm);
+            AtomicBoolean firstTokenStopped = new AtomicBoolean();
+
+            return stream
+                    .doOnNext(response -> {
+                        if (!RagPipelineMetrics.textOf(response).isEmpty()
+                                && firstTokenStopped.compareAndSet(false, true)) {
+                            firstToken.stop();
+                        }
+                    })
+                    .doOnError(llm::error)
+                    .doFinally(signalType -> {
+                        if (firstTokenStopped.compareAndSet(false, true)) {
+                            firstToken.highCardinalityKeyValue("outcome", signalType.name());
+                            firstToken.stop();
+                        }
+                        llm.highCardinalityKeyValue("tokens.prompt", String.valueOf(generation.promptTokens()));
+                        llm.highCardinalityKeyValue("tokens.completion", String.valueOf(generation.completionTokens()));
+                        llm.highCardinalityKeyValue("outcome", signalType.name());
+                        llm.stop();
+                    })
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, llm));
+        });
+    }
+
+    /**
+     * A null parent means "whatever observation is current on this thread".
+     */
+    private Observation create(String stage, Observation parent) {
+        Observation observation = Observation.createNotStarted(SPAN_NAME, observationRegistry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage);
+        return parent != null ? observation.parentObservation(parent) : observation;
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.MrPot.metrics;
+
+import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.tools.ToolProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer surface for the RAG pipeline, all tagged by model and tool profile:
+ *  - mrpot.rag.stage.latency{stage}: embedding, vector_search, history_load, history_append, prompt_build
+ *  - mrpot.rag.ttft / mrpot.rag.generation.duration: time to first token and total generation time
+ *  - mrpot.rag.generation.tokens{type} and mrpot.rag.generation.tokens.per.second
+ *  - mrpot.rag.prompt.cache.tokens{result=hit|miss}: prompt tokens the provider served from / added to its
+ *    prompt cache, when it reports them
+ *  - mrpot.rag.prompt.chars, mrpot.rag.retrieval.docs, mrpot.rag.retrieval.score
+ *  - mrpot.rag.context.tokens.saved: estimated tokens removed by near-duplicate suppression / MMR
+ *
+ * All timers publish percentile histograms so p99 can be broken down per stage in Prometheus.
+ */
+@Component
+@RequiredArgsConstructor
+public class RagPipelineMetrics {
+
+    public static final String STAGE_EMBEDDING = "embedding";
+    public static final String STAGE_VECTOR_SEARCH = "vector_search";
+    public static final String STAGE_HISTORY_LOAD = "history_load";
+    public static final String STAGE_HISTORY_APPEND = "history_append";
+    public static final String STAGE_PROMPT_BUILD = "prompt_build";
+
+    // Cosine similarity buckets for the retrieved-score histogram
+    private static final double[] SCORE_BUCKETS = {0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 0.95};
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Common tags for one request. Model is the routed provider key, so cardinality stays bounded.
+     */
+    public Tags tags(String model, ToolProfile profile) {
+        return Tags.of("model", model, "profile", profile.name());
+    }
+
+    /**
+     * Time one blocking pipeline stage.
+     */
+    public <T> T time(String stage, Tags tags, Supplier<T> work) {
+        return stageTimer(stage, tags).record(work);
+    }
+
+    public void time(String stage, Tags tags, Runnable work) {
+        stageTimer(stage, tags).record(work);
+    }
+
+    /**
+     * Record a stage that was timed by the caller (non-blocking stages).
+     */
+    public void record(String stage, Tags tags, long nanos) {
+        stageTimer(stage, tags).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Prompt size in characters (a cheap proxy that moves with prompt tokens).
+     */
+    public void recordPrompt(String prompt, Tags tags) {
+        DistributionSummary.builder("mrpot.rag.prompt.chars")
+                .description("Size of the user prompt sent to the LLM")
+                .baseUnit("characters")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(prompt == null ? 0 : prompt.length());
+    }
+
+    /**
+     * Retrieved-document count and the score of every returned document.
+     */
+    public void recordRetrieval(RagRetrievalResult retrieval, Tags tags) {
+        var documents = retrieval == null || retrieval.documents() == null
+                ? List.<ScoredDocument>of()
+                : retrieval.documents();
+        DistributionSummary.builder("mrpot.rag.retrieval.docs")
+                .description("Documents returned by retrieval per request")
+                .tags(tags)
+                .serviceLevelObjectives(0, 1, 2, 3, 5, 8)
+                .register(meterRegistry)
+                .record(documents.size());
+
+        DistributionSummary scores = DistributionSummary.builder("mrpot.rag.retrieval.score")
+                .description("Similarity score of retrieved documents")
+                .tags(tags)
+                .serviceLevelObjectives(SCORE_BUCKETS)
+                .register(meterRegistry);
+        for (ScoredDocument document : documents) {
+            scores.record(document.score());
+        }
+
+        if (retrieval != null && retrieval.tokensSaved() != null) {
+            DistributionSummary.builder("mrpot.rag.context.tokens.saved")
+                    .description("Estimated context tokens removed by near-duplicate suppression, MMR and compression")
+                    .baseUnit("tokens")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(retrieval.tokensSaved());
+        }
+    }
+
+    /**
+     * Start tracking one LLM generation (streaming or blocking).
+     */
+    public GenerationTracker startGeneration(Tags tags) {
+        return new GenerationTracker(tags);
+    }
+
+    private Timer stageTimer(String stage, Tags tags) {
+        return Timer.builder("mrpot.rag.stage.latency")
+                .description("Latency of one RAG pipeline stage")
+                .tags(tags)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Per-request generation state: first token time, chunk count and the last usage report.
+     * Providers that do not report usage on streams fall back to the number of streamed chunks,
+     * which is roughly one token per chunk.
+     */
+    public final class GenerationTracker {
+
+        private final Tags tags;
+        private final long startNanos = System.nanoTime();
+        private volatile long firstTokenNanos;
+        private volatile long chunks;
+        private volatile Usage usage;
+
+        private GenerationTracker(Tags tags) {
+            this.tags = tags;
+        }
+
+        /**
+         * Record one streamed response and return its text delta.
+         */
+        public String onChunk(ChatResponse response) {
+            captureUsage(response);
+            String text = textOf(response);
+            if (!text.isEmpty()) {
+                if (firstTokenNanos == 0L) {
+                    firstTokenNanos = System.nanoTime();
+                    Timer.builder("mrpot.rag.ttft")
+                            .description("Time from LLM call to the first streamed token")
+                            .tags(tags)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry)
+                            .record(firstTokenNanos - startNanos, TimeUnit.NANOSECONDS);
+                }
+                chunks++;
+            }
+            return text;
+        }
+
+        /**
+         * Record a complete (non-streaming) response and return its text.
+         * Token counts are only known here when the provider reports usage.
+         */
+        public String onResponse(ChatResponse response) {
+            captureUsage(response);
+            return textOf(response);
+        }
+
+        /**
+         * Stream terminated; records duration and throughput.
+         */
+        public void finish(SignalType signalType) {
+            finish(signalType == SignalType.ON_COMPLETE ? "success"
+                    : signalType == SignalType.CANCEL ? "cancelled"
+                    : "error");
+        }
+
+        public void finish(String outcome) {
+            long endNanos = System.nanoTime();
+            long durationNanos = endNanos - startNanos;
+            Timer.builder("mrpot.rag.generation.duration")
+                    .description("Total LLM generation time")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(durationNanos, TimeUnit.NANOSECONDS);
+
+            long promptTokens = promptTokens();
+            long completionTokens = completionTokens();
+            if (promptTokens > 0) {
+                tokens("prompt").record(promptTokens);
+                long cachedTokens = cachedTokens();
+                if (cachedTokens >= 0) {
+                    tokens("cached").record(cachedTokens);
+                    cacheTokens("hit").increment(cachedTokens);
+                    cacheTokens("miss").increment(Math.max(0L, promptTokens - cachedTokens));
+                }
+            }
+            if (completionTokens > 0) {
+                tokens("completion").record(completionTokens);
+                // Decode throughput: measured from the first token when streaming
+                long decodeNanos = firstTokenNanos != 0L ? endNanos - firstTokenNanos : durationNanos;
+                if (decodeNanos > 0) {
+                    DistributionSummary.builder("mrpot.rag.generation.tokens.per.second")
+                            .description("Completion tokens generated per second")
+                            .tags(tags)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry)
+                            .record(completionTokens / (decodeNanos / 1_000_000_000.0));
+                }
+            }
+        }
+
+        /**
+         * Prompt tokens as reported by the provider, 0 when unknown.
+         */
+        public long promptTokens() {
+            Usage reported = usage;
+            return reported != null && reported.getPromptTokens() != null ? reported.getPromptTokens() : 0L;
+        }
+
+        /**
+         * Completion tokens as reported by the provider, otherwise the streamed chunk count.
+         */
+        public long completionTokens() {
+            Usage reported = usage;
+            return reported != null && reported.getCompletionTokens() != null && reported.getCompletionTokens() > 0
+                    ? reported.getCompletionTokens()
+                    : chunks;
+        }
+
+        /**
+         * Prompt tokens the provider served from its prompt cache, -1 when it does not report them.
+         * Read from the provider's native usage: prompt_tokens_details.cached_tokens (OpenAI and compatible
+         * APIs) or prompt_cache_hit_tokens (DeepSeek).
+         */
+        public long cachedTokens() {
+            Usage reported = usage;
+            Object nativeUsage = reported == null ? null : reported.getNativeUsage();
+            if (nativeUsage == null) {
+                return -1L;
+            }
+            JsonNode node;
+            try {
+                node = nativeUsage instanceof JsonNode json ? json : objectMapper.valueToTree(nativeUsage);
+            } catch (IllegalArgumentException ex) {
+                return -1L;
+            }
+            JsonNode cached = node.path("prompt_tokens_details").path("cached_tokens");
+            if (!cached.isNumber()) {
+                cached = node.path("prompt_cache_hit_tokens");
+            }
+            return cached.isNumber() ? cached.asLong() : -1L;
+        }
+
+        private Counter cacheTokens(String result) {
+            return Counter.builder("mrpot.rag.prompt.cache.tokens")
+                    .description("Prompt tokens served from (hit) or added to (miss) the provider's prompt cache")
+                    .baseUnit("tokens")
+                    .tags(tags)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private DistributionSummary tokens(String type) {
+            return DistributionSummary.builder("mrpot.rag.generation.tokens")
+                    .baseUnit("tokens")
+                    .tags(tags)
+                    .tag("type", type)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void captureUsage(ChatResponse response) {
+            if (response != null && response.getMetadata() != null) {
+                Usage reported = response.getMetadata().getUsage();
+                if (reported != null && reported.getTotalTokens() != null && reported.getTotalTokens() > 0) {
+                    usage = reported;
+                }
+            }
+        }
+    }
+
+    /**
+     * Text of the first generation; usage-only chunks have no generations at all.
+     */
+    public static String textOf(ChatResponse response) {
+        if (response == null) {
+            return "";
+        }
+        Generation generation = response.getResult();
+        if (generation == null || generation.getOutput() == null) {
+            return "";
+        }
+        String text = generation.getOutput().getText();
+        return text == null ? "" : text;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.MrPot.model;
+
+import java.util.List;
+
+/**
+ * Response body of /api/rag/answer; supporting documents are projected to the requested {@link ResponseView}.
+ */
+public record AnswerResponse(
+        String answer,
+        List<DocumentView> supportingDocs
+) {
+}
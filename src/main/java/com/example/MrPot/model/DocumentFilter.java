@@ -0,0 +1,52 @@
+package com.example.MrPot.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Retrieval filter pushed down into the vector query.
+ *
+ * @param docTypes restrict to these doc_type values (any of them); empty means all types
+ * @param metadata JSON containment predicate on metadata (metadata @> this object); empty means none
+ */
+public record DocumentFilter(
+        List<String> docTypes,
+        Map<String, Object> metadata
+) {
+    public static final DocumentFilter NONE = new DocumentFilter(null, null);
+
+    /** doc_type values are inlined as SQL literals (to match partial index predicates), so keep them plain. */
+    private static final Pattern DOC_TYPE = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+    private static final int MAX_DOC_TYPES = 16;
+
+    public DocumentFilter {
+        docTypes = docTypes == null ? List.of() : docTypes.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(type -> !type.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+        for (String type : docTypes) {
+            if (!DOC_TYPE.matcher(type).matches()) {
+                throw new IllegalArgumentException("Invalid docType: " + type);
+            }
+        }
+        if (docTypes.size() > MAX_DOC_TYPES) {
+            throw new IllegalArgumentException("At most " + MAX_DOC_TYPES + " docTypes per query");
+        }
+        metadata = metadata == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(metadata));
+    }
+
+    public static DocumentFilter docType(String docType) {
+        return new DocumentFilter(List.of(docType), null);
+    }
+
+    public boolean isEmpty() {
+        return docTypes.isEmpty() && metadata.isEmpty();
+    }
+}
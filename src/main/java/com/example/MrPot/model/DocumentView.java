@@ -0,0 +1,47 @@
+package com.example.MrPot.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One retrieved document as returned to API clients; fields outside the requested {@link ResponseView} stay null
+ * and are left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DocumentView(
+        Long id,
+        String docType,
+        double score,
+        String preview,
+        String content,
+        JsonNode metadata
+) {
+    public static DocumentView of(ScoredDocument scored, ResponseView view, int previewChars) {
+        KbDocument doc = scored.document();
+        return switch (view) {
+            case IDS -> new DocumentView(doc.getId(), doc.getDocType(), scored.score(), null, null, null);
+            case PREVIEW -> new DocumentView(doc.getId(), doc.getDocType(), scored.score(),
+                    preview(doc.getContent(), previewChars), null, null);
+            case FULL -> new DocumentView(doc.getId(), doc.getDocType(), scored.score(), null,
+                    doc.getContent(), doc.getMetadata());
+        };
+    }
+
+    /**
+     * First maxChars characters, cut back to the last space when there is one nearby and never inside
+     * a surrogate pair.
+     */
+    static String preview(String content, int maxChars) {
+        if (content == null || content.length() <= maxChars) {
+            return content;
+        }
+        int end = Math.max(0, maxChars);
+        int space = content.lastIndexOf(' ', end);
+        if (space > end * 3 / 4) {
+            end = space;
+        } else if (end > 0 && Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end).stripTrailing() + "…";
+    }
+}
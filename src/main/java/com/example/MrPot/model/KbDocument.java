@@ -1,5 +1,6 @@
 package com.example.MrPot.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.JsonNode;
 import lombok.Data;
@@ -11,5 +12,7 @@ public class KbDocument {
     private String docType;
     private String content;
     private JsonNode metadata;
+    // Raw vector text; never part of an API response
+    @JsonIgnore
     private String embedding;
 }
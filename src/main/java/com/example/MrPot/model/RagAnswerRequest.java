@@ -1,5 +1,6 @@
 package com.example.MrPot.model;
 
+import com.example.MrPot.repository.VectorSearchProfile;
 import com.example.MrPot.tools.ToolProfile;
 
 import java.util.HashSet;
@@ -14,6 +15,8 @@ import java.util.Set;
  * @param minScore   optional override for retrieval minScore
  * @param model      optional model name hint (e.g. "deepseek", "openai")
  * @param toolProfile  optional tool profile (e.g. "BASIC_CHAT", "ADMIN", "FULL")
+ * @param searchProfile optional vector search profile ("fast", "balanced", "precise")
+ * @param collection    optional knowledge base collection (mrpot.kb.collections); null means "default"
  */
 public record RagAnswerRequest(
         String question,
@@ -21,7 +24,9 @@ public record RagAnswerRequest(
         Integer topK,
         Double minScore,
         String model,
-        String toolProfile
+        String toolProfile,
+        String searchProfile,
+        String collection
 ) {
     private static final Set<String> models = Set.of("deepseek", "gemini", "openai");
     public static final String DEFAULT_MODEL = "deepseek";
@@ -65,5 +70,19 @@ public record RagAnswerRequest(
         }
     }
 
+    /**
+     * Resolve the vector search profile; null/blank/invalid falls back to defaultProfile.
+     */
+    public VectorSearchProfile resolveSearchProfile(VectorSearchProfile defaultProfile) {
+        if (searchProfile == null || searchProfile.isBlank()) {
+            return defaultProfile;
+        }
+        try {
+            return VectorSearchProfile.valueOf(searchProfile.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return defaultProfile;
+        }
+    }
+
     public record ResolvedSession(String id, boolean temporary) { }
 }
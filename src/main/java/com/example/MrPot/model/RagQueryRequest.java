@@ -1,10 +1,24 @@
 package com.example.MrPot.model;
 
+import com.example.MrPot.repository.VectorSearchProfile;
+
+/**
+ * @param searchProfile optional vector search profile ("fast", "balanced", "precise")
+ * @param filter        optional doc_type / metadata filter applied inside the vector query
+ * @param collection    optional knowledge base collection (mrpot.kb.collections); null means "default"
+ */
 public record RagQueryRequest(
         String question,
         Integer topK,
-        Double minScore
+        Double minScore,
+        String searchProfile,
+        DocumentFilter filter,
+        String collection
 ) {
+    public RagQueryRequest(String question, Integer topK, Double minScore) {
+        this(question, topK, minScore, null, null, null);
+    }
+
     public int resolveTopK(int defaultValue) {
         return topK == null || topK <= 0 ? defaultValue : topK;
     }
@@ -12,4 +26,22 @@ public record RagQueryRequest(
     public double resolveMinScore(double defaultValue) {
         return minScore == null ? defaultValue : minScore;
     }
+
+    public DocumentFilter resolveFilter() {
+        return filter == null ? DocumentFilter.NONE : filter;
+    }
+
+    /**
+     * Resolve the vector search profile; null/blank/invalid falls back to defaultProfile.
+     */
+    public VectorSearchProfile resolveSearchProfile(VectorSearchProfile defaultProfile) {
+        if (searchProfile == null || searchProfile.isBlank()) {
+            return defaultProfile;
+        }
+        try {
+            return VectorSearchProfile.valueOf(searchProfile.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return defaultProfile;
+        }
+    }
 }
@@ -7,10 +7,55 @@ import java.util.List;
  * - question: original user question
  * - documents: filtered scored documents from vector store
  * - context: formatted context string for LLM prompts
+ * - efSearch: hnsw.ef_search the vector query ran with (null when no search ran)
+ * - tokensSaved: estimated context tokens removed by near-duplicate suppression / MMR and compression
+ *   (null when not applied)
  */
 public record RagRetrievalResult(
         String question,
         List<ScoredDocument> documents,
-        String context
-) {}
+        String context,
+        Integer efSearch,
+        Integer tokensSaved
+) {
+    public RagRetrievalResult(String question, List<ScoredDocument> documents, String context) {
+        this(question, documents, context, null, null);
+    }
+
+    public RagRetrievalResult(String question, List<ScoredDocument> documents, String context, Integer efSearch) {
+        this(question, documents, context, efSearch, null);
+    }
+
+    /**
+     * Best document score, 0 when nothing was retrieved.
+     */
+    public double topScore() {
+        double top = 0.0;
+        if (documents != null) {
+            for (ScoredDocument document : documents) {
+                top = Math.max(top, document.score());
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Best minus second-best score (documents may be in MMR order); the top score itself for a single document.
+     */
+    public double scoreGap() {
+        double first = 0.0;
+        double second = 0.0;
+        if (documents != null) {
+            for (ScoredDocument document : documents) {
+                if (document.score() > first) {
+                    second = first;
+                    first = document.score();
+                } else if (document.score() > second) {
+                    second = document.score();
+                }
+            }
+        }
+        return first - second;
+    }
+}
 
@@ -0,0 +1,29 @@
+package com.example.MrPot.model;
+
+import java.util.Locale;
+
+/**
+ * How much of each document /api/rag/retrieve and /api/rag/answer return ("view" request parameter):
+ *  - IDS:     id, docType and score
+ *  - PREVIEW: plus the first mrpot.response.preview-chars characters of the content
+ *  - FULL:    plus the whole content and metadata
+ */
+public enum ResponseView {
+    IDS,
+    PREVIEW,
+    FULL;
+
+    /**
+     * Lenient parse; null/blank/unknown values fall back to defaultView.
+     */
+    public static ResponseView parse(String value, ResponseView defaultView) {
+        if (value == null || value.isBlank()) {
+            return defaultView;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return defaultView;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.MrPot.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Response body of /api/rag/retrieve. context (the prompt-ready text, which repeats every document's
+ * content) is only present when the request asks for it with context=true.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RetrievalResponse(
+        String question,
+        List<DocumentView> documents,
+        String context,
+        Integer efSearch,
+        Integer tokensSaved
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.MrPot.model;
+
+/**
+ * One stored passage of a document (ordinal = position within it) with its similarity to the query.
+ */
+public record ScoredPassage(
+        long documentId,
+        int ordinal,
+        String content,
+        double score
+) {
+}
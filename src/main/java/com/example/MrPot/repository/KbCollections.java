@@ -0,0 +1,139 @@
+package com.example.MrPot.repository;
+
+import com.example.MrPot.config.KbCollectionProperties;
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.tracing.SlowQueryLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Routes a collection name to the repository serving it (mrpot.kb.collections).
+ *
+ * Collections without a datasource share the primary pool and differ only by table. Collections
+ * with a datasource get their own Hikari pool ("kb-{name}", published under hikaricp.*), so a large
+ * tenant can live on a separate Postgres instance without competing for primary connections.
+ * Unknown names are rejected rather than routed to the default, to keep tenants apart.
+ */
+@Component
+public class KbCollections implements DisposableBean {
+
+    public static final String DEFAULT = "default";
+
+    private static final Logger log = LoggerFactory.getLogger(KbCollections.class);
+
+    private final Map<String, KbDocumentVectorRepository> repositories;
+    private final List<HikariDataSource> shardPools = new ArrayList<>();
+    private final Set<String> sharded = new HashSet<>();
+
+    public KbCollections(KbCollectionProperties properties,
+                         KbDocumentVectorRepository defaultRepository,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         ObjectMapper objectMapper,
+                         VectorSearchProperties vectorProperties,
+                         ObjectProvider<ReplicaRouter> replicaRouter,
+                         ObjectProvider<SlowQueryLog> slowQueryLog,
+                         MeterRegistry meterRegistry) {
+        // Collections on the primary database read through the replicas too, when configured
+        JdbcTemplate readJdbc = KbDocumentVectorRepository.readJdbcTemplate(jdbcTemplate, replicaRouter.getIfAvailable());
+        TransactionTemplate readTransactions =
+                KbDocumentVectorRepository.readTransactions(transactionTemplate, replicaRouter.getIfAvailable());
+
+        Map<String, KbDocumentVectorRepository> byName = new LinkedHashMap<>();
+        byName.put(DEFAULT, defaultRepository);
+
+        for (Map.Entry<String, KbCollectionProperties.Collection> entry : properties.getCollections().entrySet()) {
+            String name = entry.getKey();
+            KbCollectionProperties.Collection collection = entry.getValue();
+            if (DEFAULT.equals(name)) {
+                throw new IllegalStateException("mrpot.kb.collections must not redefine the '" + DEFAULT + "' collection");
+            }
+            String table = collection.getTable() == null ? KbDocumentVectorRepository.DEFAULT_TABLE : collection.getTable();
+
+            KbCollectionProperties.Shard shard = collection.getDatasource();
+            if (shard == null || shard.getUrl() == null || shard.getUrl().isBlank()) {
+                byName.put(name, new KbDocumentVectorRepository(
+                        readJdbc, objectMapper, vectorProperties, readTransactions, table));
+            } else {
+                HikariDataSource pool = shardPool(name, shard, meterRegistry);
+                shardPools.add(pool);
+                sharded.add(name);
+                byName.put(name, new KbDocumentVectorRepository(new JdbcTemplate(pool), objectMapper, vectorProperties,
+                        new TransactionTemplate(new DataSourceTransactionManager(pool)), table));
+            }
+            byName.get(name).setSlowQueryLog(slowQueryLog.getIfAvailable());
+            log.info("KB collection '{}' -> table {} on {}", name, table,
+                    shard == null || shard.getUrl() == null ? "primary datasource" : "pool kb-" + name);
+        }
+        this.repositories = Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Repository for a collection; null/blank means the default collection.
+     *
+     * @throws UnknownCollectionException when the collection is not configured
+     */
+    public KbDocumentVectorRepository repository(String collection) {
+        KbDocumentVectorRepository repository = repositories.get(resolve(collection));
+        if (repository == null) {
+            throw new UnknownCollectionException(collection);
+        }
+        return repository;
+    }
+
+    public String resolve(String collection) {
+        return collection == null || collection.isBlank() ? DEFAULT : collection.trim();
+    }
+
+    /**
+     * True when the collection lives on the primary database (writable through the primary pool);
+     * shard pools are read-only.
+     */
+    public boolean isOnPrimary(String collection) {
+        return !sharded.contains(resolve(collection));
+    }
+
+    public Set<String> names() {
+        return repositories.keySet();
+    }
+
+    @Override
+    public void destroy() {
+        shardPools.forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource shardPool(String name,
+                                              KbCollectionProperties.Shard shard,
+                                              MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("kb-" + name);
+        config.setJdbcUrl(shard.getUrl());
+        config.setUsername(shard.getUsername());
+        config.setPassword(shard.getPassword());
+        config.setMaximumPoolSize(Math.max(1, shard.getMaximumPoolSize()));
+        config.setReadOnly(true);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        // Do not block startup on a shard that is down; its queries fail until it is reachable
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+}
@@ -1,53 +1,432 @@
 package com.example.MrPot.repository;
 
 
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.model.DocumentFilter;
 import com.example.MrPot.model.KbDocument;
 import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import com.example.MrPot.tracing.SlowQueryLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pgvector.PGvector;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 @Repository
-@RequiredArgsConstructor
 public class KbDocumentVectorRepository {
 
+    /** Table of the default collection. */
+    public static final String DEFAULT_TABLE = "kb_documents";
+
+    // Table names are spliced into SQL, so only plain (optionally schema-qualified) identifiers
+    private static final Pattern TABLE_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}(\\.[a-z_][a-z0-9_]{0,62})?");
+
+    // hnsw.* settings for the current transaction only (set_config(..., true) == SET LOCAL)
+    static final String EF_SEARCH_SQL = "SELECT set_config('hnsw.ef_search', ?, true)";
+
+    // Iterative scan settings need pgvector 0.8+; older servers reject them, so they are only sent when enabled
+    static final String ITERATIVE_SEARCH_SQL = """
+            SELECT set_config('hnsw.ef_search', ?, true),
+                   set_config('hnsw.iterative_scan', ?, true),
+                   set_config('hnsw.max_scan_tuples', ?, true)
+            """;
+
     private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
+    private final VectorSearchProperties vectorProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final String table;
+    private SlowQueryLog slowQueryLog;
+
+    /**
+     * Default collection: kb_documents, read through the replica router when mrpot.replicas is enabled,
+     * otherwise on the primary datasource.
+     */
+    @Autowired
+    public KbDocumentVectorRepository(JdbcTemplate jdbcTemplate,
+                                      ObjectMapper objectMapper,
+                                      VectorSearchProperties vectorProperties,
+                                      TransactionTemplate transactionTemplate,
+                                      ObjectProvider<ReplicaRouter> replicaRouter) {
+        this(readJdbcTemplate(jdbcTemplate, replicaRouter.getIfAvailable()), objectMapper, vectorProperties,
+                readTransactions(transactionTemplate, replicaRouter.getIfAvailable()), DEFAULT_TABLE);
+    }
+
+    /**
+     * Default collection on the given datasource (tools and benchmarks).
+     */
+    public KbDocumentVectorRepository(JdbcTemplate jdbcTemplate,
+                                      ObjectMapper objectMapper,
+                                      VectorSearchProperties vectorProperties,
+                                      TransactionTemplate transactionTemplate) {
+        this(jdbcTemplate, objectMapper, vectorProperties, transactionTemplate, DEFAULT_TABLE);
+    }
+
+    /**
+     * A collection living in {@code table}, possibly on its own datasource (see KbCollections).
+     */
+    public KbDocumentVectorRepository(JdbcTemplate jdbcTemplate,
+                                      ObjectMapper objectMapper,
+                                      VectorSearchProperties vectorProperties,
+                                      TransactionTemplate transactionTemplate,
+                                      String table) {
+        if (table == null || !TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid knowledge base table name: " + table);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.vectorProperties = vectorProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.table = table;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Slow findNearest calls are reported here (mrpot.vector.slow-query); none when disabled.
+     */
+    @Autowired(required = false)
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Passages of this collection's documents (db/vector/passages.sql).
+     */
+    public String getPassageTable() {
+        return passageTable(table);
+    }
+
+    static String passageTable(String table) {
+        return table + "_passages";
+    }
+
+    static JdbcTemplate readJdbcTemplate(JdbcTemplate primary, ReplicaRouter replicaRouter) {
+        return replicaRouter == null ? primary : new JdbcTemplate(replicaRouter.readDataSource());
+    }
+
+    static TransactionTemplate readTransactions(TransactionTemplate primary, ReplicaRouter replicaRouter) {
+        if (replicaRouter == null) {
+            return primary;
+        }
+        TransactionTemplate transactions =
+                new TransactionTemplate(new DataSourceTransactionManager(replicaRouter.readDataSource()));
+        transactions.setReadOnly(true);
+        return transactions;
+    }
 
     /**
      * 使用 pgvector 的 cosine distance 运算符 `<=>`，
      * 同时计算相似度 score = 1 - distance。
+     * Candidate generation follows mrpot.vector.mode, search effort the default profile.
      */
     public List<ScoredDocument> findNearest(float[] embedding, int limit) {
-        PGvector queryVector = new PGvector(embedding);
+        return findNearest(embedding, limit, vectorProperties.getMode(), vectorProperties.getDefaultProfile(),
+                DocumentFilter.NONE);
+    }
+
+    public List<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter) {
+        return findNearest(embedding, limit, vectorProperties.getMode(), profile, filter);
+    }
+
+    /**
+     * Same with the configured mode; withEmbeddings also returns each document's embedding
+     * (KbDocument.embedding, pgvector text form) for MMR re-ranking.
+     */
+    public List<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter,
+                                            boolean withEmbeddings) {
+        return findNearest(embedding, limit, vectorProperties.getMode(), profile, filter, withEmbeddings);
+    }
+
+    public List<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchMode mode,
+                                            VectorSearchProfile profile) {
+        return findNearest(embedding, limit, mode, profile, DocumentFilter.NONE);
+    }
+
+    public List<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchMode mode,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter) {
+        return findNearest(embedding, limit, mode, profile, filter, false);
+    }
+
+    /**
+     * Nearest documents with an explicit candidate mode, search profile and filter (the vector
+     * evaluation tools compare them). Compact modes over-fetch from the halfvec / binary index, then
+     * re-rank with full-precision cosine, so returned scores are always exact.
+     *
+     * Runs in a short transaction so hnsw.ef_search / iterative scan settings apply to this query only
+     * (SET LOCAL semantics) and never leak to other users of the pooled connection.
+     */
+    public List<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchMode mode,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter,
+                                            boolean withEmbeddings) {
+        VectorSearchMode resolvedMode = mode == null ? VectorSearchMode.EXACT : mode;
+        DocumentFilter resolvedFilter = filter == null ? DocumentFilter.NONE : filter;
+        int efSearch = efSearch(profile, resolvedMode, limit);
+        int candidates = resolvedMode == VectorSearchMode.EXACT ? limit : vectorProperties.candidateCount(limit);
+        String sql = searchSql(table, resolvedMode, vectorProperties.getDimensions(),
+                vectorProperties.effectiveCandidateDimensions(), resolvedFilter, withEmbeddings);
+
+        String metadataJson = resolvedFilter.metadata().isEmpty() ? null : toJson(resolvedFilter.metadata());
+        List<Object> params = searchParams(new PGvector(embedding), metadataJson, resolvedFilter, candidates, limit);
+
+        long start = System.nanoTime();
+        List<ScoredDocument> result = transactionTemplate.execute(status -> {
+            applySettings(efSearch);
+            return jdbcTemplate.query(sql, new ScoredDocumentRowMapper(objectMapper, withEmbeddings), params.toArray());
+        });
+        long elapsed = System.nanoTime() - start;
+
+        SlowQueryLog slowLog = slowQueryLog;
+        if (slowLog != null && slowLog.isSlow(elapsed)) {
+            Map<String, Object> query = new LinkedHashMap<>();
+            query.put("mode", resolvedMode.name());
+            query.put("profile", profile == null ? null : profile.name());
+            query.put("efSearch", efSearch);
+            query.put("iterativeScan", vectorProperties.getIterativeScan() == null
+                    ? null : vectorProperties.getIterativeScan().name());
+            query.put("limit", limit);
+            query.put("candidates", candidates);
+            query.put("docTypes", resolvedFilter.docTypes());
+            query.put("metadata", resolvedFilter.metadata());
+            query.put("withEmbeddings", withEmbeddings);
+            query.put("rows", result == null ? 0 : result.size());
+            query.put("sql", sql);
+            Object[] args = params.toArray();
+            slowLog.record(table, query, elapsed, () -> explain(sql, args, efSearch, slowLog.explainTimeoutMillis()));
+        }
+        return result;
+    }
+
+    private void applySettings(int efSearch) {
+        VectorSearchProperties.IterativeScan iterativeScan = vectorProperties.getIterativeScan();
+        if (iterativeScan == null || iterativeScan == VectorSearchProperties.IterativeScan.OFF) {
+            jdbcTemplate.query(EF_SEARCH_SQL, rs -> null, String.valueOf(efSearch));
+        } else {
+            jdbcTemplate.query(ITERATIVE_SEARCH_SQL, rs -> null,
+                    String.valueOf(efSearch),
+                    iterativeScan.sqlValue(),
+                    String.valueOf(vectorProperties.getMaxScanTuples()));
+        }
+    }
+
+    /**
+     * Re-runs a search under EXPLAIN (ANALYZE, BUFFERS) with the same settings and a statement_timeout,
+     * in its own transaction (with replicas this may be another node than the slow call's).
+     */
+    private String explain(String sql, Object[] args, int efSearch, long timeoutMillis) {
+        return transactionTemplate.execute(status -> {
+            applySettings(efSearch);
+            jdbcTemplate.query("SELECT set_config('statement_timeout', ?, true)", rs -> null, String.valueOf(timeoutMillis));
+            return jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, String.class, args);
+        });
+    }
+
+    /**
+     * Stored passages of the given documents, each scored against the query vector (1 - cosine distance).
+     * Served by the (document_id, ordinal) primary key; no vector index is involved.
+     */
+    public List<ScoredPassage> findPassages(float[] embedding, Collection<Long> documentIds) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            return List.of();
+        }
+        // Bound through an Object[] like findNearest: PGvector is a PGobject, and the driver is runtime-scoped
+        Object[] params = {new PGvector(embedding), idArray(documentIds)};
+        return jdbcTemplate.query(passagesSql(getPassageTable()),
+                (rs, rowNum) -> new ScoredPassage(
+                        rs.getLong("document_id"),
+                        rs.getInt("ordinal"),
+                        rs.getString("content"),
+                        rs.getDouble("score")),
+                params);
+    }
+
+    static String passagesSql(String passageTable) {
+        return """
+                SELECT document_id, ordinal, content, 1 - (embedding <=> ?::vector) AS score
+                FROM %s
+                WHERE document_id = ANY (?::bigint[])
+                """.formatted(passageTable);
+    }
+
+    /**
+     * Postgres array literal, bound as text and cast server-side (works the same over JDBC and R2DBC).
+     */
+    static String idArray(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"));
+    }
+
+    /**
+     * hnsw.ef_search used for a query with the configured mode (reported in the "rag" stage event).
+     */
+    public int efSearch(VectorSearchProfile profile, int limit) {
+        return efSearch(profile, vectorProperties.getMode(), limit);
+    }
+
+    public int efSearch(VectorSearchProfile profile, VectorSearchMode mode, int limit) {
+        return vectorProperties.efSearchFor(profile, mode, limit);
+    }
+
+    /**
+     * Candidate scan + exact re-rank in one statement:
+     *
+     *   WITH q          the query vector, bound once; (SELECT v FROM q) is an init-plan constant,
+     *                   so the HNSW index still drives each ORDER BY
+     *   candidates      one branch per doc_type (UNION ALL), each ordered on the candidate expression
+     *                   and limited; metadata containment is a post-filter inside the scan
+     *   outer SELECT    exact cosine over the candidates; the re-sort also restores order after
+     *                   relaxed_order iterative scans
+     *
+     * Each branch carries a literal doc_type = '...' predicate so per-type partial indexes
+     * (db/vector/doc-type-indexes.sql) match; a bind parameter would not prove the index predicate.
+     * The candidate expressions match db/vector/quantized-indexes.sql (same casts and typmods).
+     * Table and dimensions come from configuration and doc types are validated by {@link DocumentFilter},
+     * so nothing from request input is spliced into the SQL unchecked.
+     */
+    static String searchSql(String table,
+                            VectorSearchMode mode,
+                            int dimensions,
+                            int candidateDimensions,
+                            DocumentFilter filter) {
+        return searchSql(table, mode, dimensions, candidateDimensions, filter, false);
+    }
 
-        String sql = """
+    static String searchSql(String table,
+                            VectorSearchMode mode,
+                            int dimensions,
+                            int candidateDimensions,
+                            DocumentFilter filter,
+                            boolean withEmbeddings) {
+        String candidateOrder = candidateOrder(mode, dimensions, candidateDimensions);
+        String metadataPredicate = filter.metadata().isEmpty() ? null : "metadata @> ?::jsonb";
+
+        List<String> branches = new ArrayList<>();
+        List<String> docTypes = filter.docTypes().isEmpty() ? Collections.singletonList(null) : filter.docTypes();
+        for (String docType : docTypes) {
+            List<String> predicates = new ArrayList<>();
+            if (docType != null) {
+                predicates.add("doc_type = '" + docType + "'");
+            }
+            if (metadataPredicate != null) {
+                predicates.add(metadataPredicate);
+            }
+            String where = predicates.isEmpty() ? "" : "\n    WHERE " + String.join(" AND ", predicates);
+            branches.add("""
+                    (SELECT id, doc_type, content, metadata, embedding
+                        FROM %s%s
+                        ORDER BY %s
+                        LIMIT ?)""".formatted(table, where, candidateOrder));
+        }
+
+        return """
+                WITH q AS MATERIALIZED (SELECT ?::vector AS v),
+                candidates AS MATERIALIZED (
+                %s
+                )
                 SELECT id,
                        doc_type,
                        content,
-                       metadata,
-                       1 - (embedding <=> ?) AS score
-                FROM kb_documents
-                ORDER BY embedding <=> ?
+                       metadata,%s
+                       1 - (embedding <=> (SELECT v FROM q)) AS score
+                FROM candidates
+                ORDER BY embedding <=> (SELECT v FROM q)
                 LIMIT ?
-                """;
+                """.formatted(String.join("\nUNION ALL\n", branches),
+                withEmbeddings ? "\n       embedding::text AS embedding," : "");
+    }
+
+    /**
+     * Bind values of {@link #searchSql} in statement order: query vector, then per branch (metadata?,
+     * candidate limit), then the final limit. Shared with ReactiveKbDocumentVectorRepository.
+     */
+    static List<Object> searchParams(Object vector, String metadataJson, DocumentFilter filter, int candidates, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(vector);
+        int branches = Math.max(1, filter.docTypes().size());
+        for (int i = 0; i < branches; i++) {
+            if (metadataJson != null) {
+                params.add(metadataJson);
+            }
+            params.add(candidates);
+        }
+        params.add(limit);
+        return params;
+    }
 
-        return jdbcTemplate.query(sql, ps -> {
-            ps.setObject(1, queryVector); // 用于 1 - (embedding <=> ?)
-            ps.setObject(2, queryVector); // 用于 ORDER BY embedding <=> ?
-            ps.setInt(3, limit);
-        }, new ScoredDocumentRowMapper());
+    private static String candidateOrder(VectorSearchMode mode, int dimensions, int candidateDimensions) {
+        if (mode == VectorSearchMode.EXACT) {
+            return "embedding <=> (SELECT v FROM q)";
+        }
+        boolean truncated = candidateDimensions < dimensions;
+        String column = truncated ? "subvector(embedding, 1, " + candidateDimensions + ")" : "embedding";
+        String query = truncated ? "subvector((SELECT v FROM q), 1, " + candidateDimensions + ")" : "(SELECT v FROM q)";
+        return switch (mode) {
+            case HALFVEC -> column + "::halfvec(" + candidateDimensions + ") <=> "
+                    + query + "::halfvec(" + candidateDimensions + ")";
+            case BINARY -> "binary_quantize(" + column + ")::bit(" + candidateDimensions + ") <~> "
+                    + "binary_quantize(" + query + ")::bit(" + candidateDimensions + ")";
+            case EXACT -> throw new IllegalStateException("unreachable");
+        };
     }
 
-    private class ScoredDocumentRowMapper implements RowMapper<ScoredDocument> {
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Metadata filter is not serializable", e);
+        }
+    }
+
+    /**
+     * Static (no hidden outer reference) and package-private so the JMH benchmarks in src/jmh can drive it.
+     */
+    static final class ScoredDocumentRowMapper implements RowMapper<ScoredDocument> {
+
+        private final ObjectMapper objectMapper;
+        private final boolean withEmbeddings;
+
+        ScoredDocumentRowMapper(ObjectMapper objectMapper) {
+            this(objectMapper, false);
+        }
+
+        ScoredDocumentRowMapper(ObjectMapper objectMapper, boolean withEmbeddings) {
+            this.objectMapper = objectMapper;
+            this.withEmbeddings = withEmbeddings;
+        }
+
         @Override
         public ScoredDocument mapRow(ResultSet rs, int rowNum) throws SQLException {
             KbDocument doc = new KbDocument();
@@ -66,6 +445,10 @@ public class KbDocumentVectorRepository {
                 }
             }
 
+            if (withEmbeddings) {
+                doc.setEmbedding(rs.getString("embedding"));
+            }
+
             double score = rs.getDouble("score");
             return new ScoredDocument(doc, score);
         }
@@ -0,0 +1,81 @@
+package com.example.MrPot.repository;
+
+import com.example.MrPot.config.RetrievalCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current version of each KB table, from kb_versions (db/vector/kb-versions.sql, bumped by triggers).
+ *
+ * Polled on the primary every mrpot.retrieval.cache.version-refresh, so a change is seen within one
+ * interval and never through a lagging replica. Until a poll has succeeded (table missing, database down)
+ * every version is unknown and callers must not cache. Tables without a row have never changed: version 0.
+ */
+@Component
+public class KbVersionTracker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KbVersionTracker.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService poller;
+    private volatile Map<String, Long> versions;
+    private volatile boolean warned;
+
+    public KbVersionTracker(JdbcTemplate jdbcTemplate, RetrievalCacheProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        if (!properties.isEnabled()) {
+            this.poller = null;
+            return;
+        }
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kb-version");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(100, properties.getVersionRefresh().toMillis());
+        poller.scheduleWithFixedDelay(this::refresh, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Version of the table, or null while unknown.
+     */
+    public Long version(String table) {
+        Map<String, Long> current = versions;
+        return current == null ? null : current.getOrDefault(table, 0L);
+    }
+
+    void refresh() {
+        try {
+            Map<String, Long> fresh = new HashMap<>();
+            jdbcTemplate.query("SELECT table_name, version FROM kb_versions",
+                    rs -> {
+                        fresh.put(rs.getString("table_name"), rs.getLong("version"));
+                    });
+            versions = Map.copyOf(fresh);
+            warned = false;
+        } catch (RuntimeException ex) {
+            // Unknown versions disable caching rather than serving results of an unknown KB state
+            versions = null;
+            if (!warned) {
+                warned = true;
+                log.warn("KB versions unavailable, retrieval cache bypassed: {}", ex.toString());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.MrPot.repository;
+
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.model.DocumentFilter;
+import com.example.MrPot.model.KbDocument;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Non-blocking twin of {@link KbDocumentVectorRepository} on R2DBC (mrpot.r2dbc.*), for the streaming path.
+ *
+ * Same SQL, same per-query hnsw settings in a short transaction, same exact re-rank; rows are emitted
+ * as they are decoded instead of being collected into a list. The query vector is bound as its text
+ * literal and cast server-side ($1::vector), so no driver-side type registration for pgvector is needed.
+ * Serves the default collection only; other collections stay on JDBC.
+ */
+public class ReactiveKbDocumentVectorRepository {
+
+    private final ConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final VectorSearchProperties vectorProperties;
+
+    public ReactiveKbDocumentVectorRepository(ConnectionFactory connectionFactory,
+                                              ObjectMapper objectMapper,
+                                              VectorSearchProperties vectorProperties) {
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.vectorProperties = vectorProperties;
+    }
+
+    /**
+     * The hnsw.ef_search a query with this profile and limit runs with (reported in the rag payload).
+     */
+    public int efSearch(VectorSearchProfile profile, int limit) {
+        return vectorProperties.efSearchFor(profile, vectorProperties.getMode(), limit);
+    }
+
+    public Flux<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter) {
+        return findNearest(embedding, limit, profile, filter, false);
+    }
+
+    /**
+     * withEmbeddings also returns each document's embedding (KbDocument.embedding) for MMR re-ranking.
+     */
+    public Flux<ScoredDocument> findNearest(float[] embedding,
+                                            int limit,
+                                            VectorSearchProfile profile,
+                                            DocumentFilter filter,
+                                            boolean withEmbeddings) {
+        VectorSearchMode mode = vectorProperties.getMode() == null ? VectorSearchMode.EXACT : vectorProperties.getMode();
+        DocumentFilter resolvedFilter = filter == null ? DocumentFilter.NONE : filter;
+        int efSearch = vectorProperties.efSearchFor(profile, mode, limit);
+        int candidates = mode == VectorSearchMode.EXACT ? limit : vectorProperties.candidateCount(limit);
+        String sql = positional(KbDocumentVectorRepository.searchSql(KbDocumentVectorRepository.DEFAULT_TABLE, mode,
+                vectorProperties.getDimensions(), vectorProperties.effectiveCandidateDimensions(), resolvedFilter,
+                withEmbeddings));
+
+        String metadataJson = resolvedFilter.metadata().isEmpty() ? null : toJson(resolvedFilter.metadata());
+        List<Object> params = KbDocumentVectorRepository.searchParams(vectorLiteral(embedding), metadataJson,
+                resolvedFilter, candidates, limit);
+
+        return Flux.usingWhen(
+                connectionFactory.create(),
+                connection -> Mono.from(connection.beginTransaction())
+                        .then(applySettings(connection, efSearch))
+                        .thenMany(Flux.from(bind(connection.createStatement(sql), params).execute())
+                                .flatMap(result -> result.map(row -> mapRow(row, withEmbeddings)))),
+                connection -> Mono.from(connection.commitTransaction()).then(Mono.from(connection.close())),
+                (connection, error) -> Mono.from(connection.rollbackTransaction()).then(Mono.from(connection.close())),
+                connection -> Mono.from(connection.rollbackTransaction()).then(Mono.from(connection.close())));
+    }
+
+    /**
+     * Same as {@link KbDocumentVectorRepository#findPassages}; a single statement, so no transaction.
+     */
+    public Flux<ScoredPassage> findPassages(float[] embedding, Collection<Long> documentIds) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            return Flux.empty();
+        }
+        String sql = positional(KbDocumentVectorRepository.passagesSql(
+                KbDocumentVectorRepository.passageTable(KbDocumentVectorRepository.DEFAULT_TABLE)));
+        return Flux.usingWhen(
+                connectionFactory.create(),
+                connection -> Flux.from(connection.createStatement(sql)
+                                .bind(0, vectorLiteral(embedding))
+                                .bind(1, KbDocumentVectorRepository.idArray(documentIds))
+                                .execute())
+                        .flatMap(result -> result.map(row -> {
+                            Long documentId = row.get("document_id", Long.class);
+                            Integer ordinal = row.get("ordinal", Integer.class);
+                            Double score = row.get("score", Double.class);
+                            return new ScoredPassage(
+                                    documentId == null ? 0L : documentId,
+                                    ordinal == null ? 0 : ordinal,
+                                    row.get("content", String.class),
+                                    score == null ? 0.0 : score);
+                        })),
+                Connection::close);
+    }
+
+    private Mono<Void> applySettings(Connection connection, int efSearch) {
+        VectorSearchProperties.IterativeScan iterativeScan = vectorProperties.getIterativeScan();
+        Statement statement;
+        if (iterativeScan == null || iterativeScan == VectorSearchProperties.IterativeScan.OFF) {
+            statement = connection.createStatement(positional(KbDocumentVectorRepository.EF_SEARCH_SQL))
+                    .bind(0, String.valueOf(efSearch));
+        } else {
+            statement = connection.createStatement(positional(KbDocumentVectorRepository.ITERATIVE_SEARCH_SQL))
+                    .bind(0, String.valueOf(efSearch))
+                    .bind(1, iterativeScan.sqlValue())
+                    .bind(2, String.valueOf(vectorProperties.getMaxScanTuples()));
+        }
+        return Flux.from(statement.execute())
+                .flatMap(result -> result.getRowsUpdated())
+                .then();
+    }
+
+    private static Statement bind(Statement statement, List<Object> params) {
+        for (int i = 0; i < params.size(); i++) {
+            statement.bind(i, params.get(i));
+        }
+        return statement;
+    }
+
+    private ScoredDocument mapRow(Readable row, boolean withEmbeddings) {
+        KbDocument doc = new KbDocument();
+        doc.setId(row.get("id", Long.class));
+        doc.setDocType(row.get("doc_type", String.class));
+        doc.setContent(row.get("content", String.class));
+        String metadataJson = row.get("metadata", String.class);
+        if (metadataJson != null) {
+            try {
+                doc.setMetadata(objectMapper.readTree(metadataJson));
+            } catch (Exception e) {
+                // Same as the JDBC mapper: unparseable metadata is dropped, the document is kept
+                doc.setMetadata(null);
+            }
+        }
+        if (withEmbeddings) {
+            doc.setEmbedding(row.get("embedding", String.class));
+        }
+        Double score = row.get("score", Double.class);
+        return new ScoredDocument(doc, score == null ? 0.0 : score);
+    }
+
+    /**
+     * JDBC "?" placeholders to Postgres "$n" (the shared SQL contains no other question marks).
+     */
+    static String positional(String sql) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        int index = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                out.append('$').append(++index);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * pgvector text format: [1.0,2.0,...]
+     */
+    static String vectorLiteral(float[] embedding) {
+        StringBuilder sb = new StringBuilder(embedding.length * 10 + 2).append('[');
+        for (int i = 0; i < embedding.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(embedding[i]);
+        }
+        return sb.append(']').toString();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Metadata filter is not serializable", e);
+        }
+    }
+}
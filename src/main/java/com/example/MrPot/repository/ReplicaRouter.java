@@ -0,0 +1,293 @@
+package com.example.MrPot.repository;
+
+import com.example.MrPot.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes vector-search reads across read replicas (mrpot.replicas.*).
+ *
+ * {@link #readDataSource()} hands out connections from the usable replica with the fewest outstanding
+ * connections (ties rotate). A replica is usable while its last health check passed and its replay lag
+ * is within max-lag; when none is, the primary serves. A connection counts as outstanding until it is
+ * closed, which for findNearest is exactly one short transaction.
+ *
+ * Metrics, tagged replica=&lt;name&gt; (the fallback is "primary"):
+ *  - mrpot.replica.selected     connections handed out
+ *  - mrpot.replica.latency      connection hold time (~ query latency)
+ *  - mrpot.replica.outstanding / mrpot.replica.lag.seconds / mrpot.replica.healthy (gauges)
+ * Each replica pool also publishes hikaricp.* under pool replica-&lt;name&gt;.
+ */
+public class ReplicaRouter implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    // Primary's WAL position, read before the replicas are checked
+    private static final String PRIMARY_LSN_SQL =
+            "SELECT CASE WHEN pg_is_in_recovery() THEN NULL ELSE pg_current_wal_lsn()::text END";
+
+    // Replay lag; 0 when this is not a standby or when it has replayed up to the primary's position read
+    // just before (an idle primary would otherwise look like a lagging replica). Equal receive/replay
+    // LSNs alone do not prove that: a standby whose WAL receiver disconnected has them equal too, so
+    // that shortcut is only taken when the primary's position could not be read.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN ?::pg_lsn IS NOT NULL AND pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0
+                     WHEN ?::pg_lsn IS NULL AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final ReplicaProperties properties;
+    private final Target primary;
+    private final List<Target> replicas = new ArrayList<>();
+    private final AtomicInteger rotation = new AtomicInteger();
+    private final ScheduledExecutorService checker;
+    private final DataSource readDataSource = new RoutingDataSource();
+
+    public ReplicaRouter(ReplicaProperties properties, DataSource primaryDataSource, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.primary = new Target("primary", primaryDataSource, null, meterRegistry);
+        for (ReplicaProperties.Node node : properties.getNodes()) {
+            HikariDataSource pool = pool(node, meterRegistry);
+            replicas.add(new Target(node.getName(), pool, pool, meterRegistry));
+        }
+
+        this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(100, properties.getCheckInterval().toMillis());
+        checker.scheduleWithFixedDelay(this::checkAll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * DataSource for read-only vector queries.
+     */
+    public DataSource readDataSource() {
+        return readDataSource;
+    }
+
+    @Override
+    public void destroy() {
+        checker.shutdownNow();
+        for (Target replica : replicas) {
+            if (replica.pool != null) {
+                replica.pool.close();
+            }
+        }
+    }
+
+    /**
+     * Least outstanding among usable replicas; the rotating start spreads ties.
+     */
+    private Target select() {
+        Target best = null;
+        int size = replicas.size();
+        int start = size == 0 ? 0 : Math.floorMod(rotation.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Target candidate = replicas.get((start + i) % size);
+            if (candidate.usable(properties.getMaxLag().toMillis())
+                    && (best == null || candidate.outstanding.get() < best.outstanding.get())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private Connection connect() throws SQLException {
+        Target target = select();
+        while (target != null) {
+            try {
+                return target.open();
+            } catch (SQLException ex) {
+                log.warn("Replica {} unavailable, skipping until next health check: {}", target.name, ex.toString());
+                target.healthy = false;
+                target = select();
+            }
+        }
+        return primary.open();
+    }
+
+    private void checkAll() {
+        int timeoutSeconds = (int) Math.max(1, properties.getCheckTimeout().toSeconds());
+        String primaryLsn = primaryLsn(timeoutSeconds);
+        for (Target replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LAG_SQL)) {
+                statement.setQueryTimeout(timeoutSeconds);
+                for (int i = 1; i <= 3; i++) {
+                    statement.setString(i, primaryLsn);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    replica.lagMillis = Math.round(rs.getDouble(1) * 1000);
+                }
+                if (!replica.healthy) {
+                    log.info("Replica {} healthy again (lag {} ms)", replica.name, replica.lagMillis);
+                }
+                replica.healthy = true;
+            } catch (SQLException | RuntimeException ex) {
+                if (replica.healthy) {
+                    log.warn("Replica {} failed its health check: {}", replica.name, ex.toString());
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    /**
+     * Current WAL LSN of the primary, or null when it cannot be read (the lag check then falls back to
+     * comparing the standby's own receive and replay positions).
+     */
+    private String primaryLsn(int timeoutSeconds) {
+        try (Connection connection = primary.dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(timeoutSeconds);
+            try (ResultSet rs = statement.executeQuery(PRIMARY_LSN_SQL)) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        } catch (SQLException | RuntimeException ex) {
+            log.debug("Could not read the primary's WAL position: {}", ex.toString());
+            return null;
+        }
+    }
+
+    private static HikariDataSource pool(ReplicaProperties.Node node, MeterRegistry meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica-" + node.getName());
+        config.setJdbcUrl(node.getUrl());
+        config.setUsername(node.getUsername());
+        config.setPassword(node.getPassword());
+        config.setMaximumPoolSize(Math.max(1, node.getMaximumPoolSize()));
+        config.setReadOnly(true);
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        // A replica that is down at startup is simply marked unhealthy by the first check
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * One routing target with its outstanding count, health and metrics.
+     */
+    private static final class Target {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final HikariDataSource pool;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final Counter selected;
+        private final Timer latency;
+        // Replicas start unhealthy until the first check; the primary is always usable
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+
+        private Target(String name, DataSource dataSource, HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.pool = pool;
+            this.healthy = pool == null;
+            this.selected = Counter.builder("mrpot.replica.selected")
+                    .description("Vector-search connections handed out per target")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            this.latency = Timer.builder("mrpot.replica.latency")
+                    .description("Connection hold time per target (one findNearest transaction)")
+                    .tag("replica", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            Gauge.builder("mrpot.replica.outstanding", outstanding, AtomicInteger::get)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            if (pool != null) {
+                Gauge.builder("mrpot.replica.lag.seconds", this, t -> t.lagMillis / 1000.0)
+                        .tag("replica", name)
+                        .register(meterRegistry);
+                Gauge.builder("mrpot.replica.healthy", this, t -> t.healthy ? 1 : 0)
+                        .tag("replica", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        private boolean usable(long maxLagMillis) {
+            return healthy && lagMillis <= maxLagMillis;
+        }
+
+        /**
+         * Open a connection whose close() releases the outstanding slot and records the hold time.
+         */
+        private Connection open() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            outstanding.incrementAndGet();
+            selected.increment();
+            long start = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals" -> {
+                                return proxy == args[0];
+                            }
+                            case "hashCode" -> {
+                                return System.identityHashCode(proxy);
+                            }
+                            default -> {
+                                // delegate below
+                            }
+                        }
+                        if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                            outstanding.decrementAndGet();
+                            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    });
+        }
+    }
+
+    private final class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connect();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            // Credentials belong to each pool
+            return connect();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.MrPot.repository;
+
+/**
+ * Thrown when a request names a knowledge-base collection that is not configured.
+ * Mapped to HTTP 404; never falls back to another tenant's collection.
+ */
+public class UnknownCollectionException extends RuntimeException {
+
+    private final String collection;
+
+    public UnknownCollectionException(String collection) {
+        super("Unknown knowledge base collection '" + collection + "'");
+        this.collection = collection;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+}
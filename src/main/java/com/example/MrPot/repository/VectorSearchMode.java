@@ -0,0 +1,17 @@
+package com.example.MrPot.repository;
+
+/**
+ * How {@link KbDocumentVectorRepository} generates nearest-neighbour candidates.
+ *
+ *  - EXACT: HNSW over the full-precision vector column, no re-rank.
+ *  - HALFVEC: HNSW over embedding::halfvec (optionally truncated to the leading dimensions),
+ *    then full-precision cosine re-rank of the over-fetched candidates.
+ *  - BINARY: HNSW over binary_quantize(embedding) with Hamming distance, then the same re-rank.
+ *
+ * The compact modes need the expression indexes from db/vector/quantized-indexes.sql.
+ */
+public enum VectorSearchMode {
+    EXACT,
+    HALFVEC,
+    BINARY
+}
@@ -0,0 +1,11 @@
+package com.example.MrPot.repository;
+
+/**
+ * Recall / latency trade-off for one vector search, applied as hnsw.ef_search for that query only.
+ * The ef_search value behind each profile is configured under mrpot.vector.ef-search.
+ */
+public enum VectorSearchProfile {
+    FAST,
+    BALANCED,
+    PRECISE
+}
@@ -0,0 +1,193 @@
+package com.example.MrPot.resilience;
+
+import com.example.MrPot.config.AdmissionProperties;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limiter with a short bounded queue.
+ *
+ * - Additive increase: each fast, successful call grows the limit by 1/limit
+ *   (about +1 per "window" of calls), but only while the limit is actually used.
+ * - Multiplicative decrease: a slow (time to first token above latencyThreshold, or a blocking call
+ *   above blockingLatencyThreshold) or failed call multiplies the limit by backoffRatio.
+ * - Over the limit, at most queueSize callers wait up to maxQueueWait; everyone else is rejected.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String client;
+    private final AdmissionProperties.LimitSettings settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotAvailable = lock.newCondition();
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveConcurrencyLimiter(String client, AdmissionProperties.LimitSettings settings) {
+        this.client = client;
+        this.settings = settings;
+        this.limit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), settings.getInitialLimit()));
+    }
+
+    /**
+     * Acquire a slot, waiting in the bounded queue if needed.
+     *
+     * @throws AdmissionRejectedException when the queue is full or the wait timed out
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return new Permit();
+            }
+            if (queued >= settings.getQueueSize()) {
+                throw rejected();
+            }
+
+            queued++;
+            try {
+                long remaining = settings.getMaxQueueWait().toNanos();
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0L) {
+                        throw rejected();
+                    }
+                    remaining = slotAvailable.awaitNanos(remaining);
+                }
+                inFlight++;
+                return new Permit();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw rejected();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Non-blocking acquire, used for optional work such as hedged requests.
+     */
+    public Optional<Permit> tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return Optional.of(new Permit());
+            }
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String client() {
+        return client;
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private AdmissionRejectedException rejected() {
+        return new AdmissionRejectedException(client, settings.getRetryAfter());
+    }
+
+    private void onRelease(long latencyNanos, boolean success, Duration threshold) {
+        lock.lock();
+        try {
+            int before = currentLimit();
+            if (threshold != null) {
+                if (!success || latencyNanos > threshold.toNanos()) {
+                    limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+                } else if (inFlight * 2 >= before) {
+                    // Only grow while the current limit is really being used
+                    limit = Math.min(settings.getMaxLimit(), limit + 1.0 / limit);
+                }
+            }
+            inFlight--;
+            if (currentLimit() > before) {
+                slotAvailable.signalAll();
+            } else {
+                slotAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One admitted generation. Exactly one of complete/cancel takes effect.
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit() {
+        }
+
+        /**
+         * Release with a latency sample of a streamed generation (time to first token, or total time when
+         * no token arrived), judged against latencyThreshold.
+         */
+        public void complete(long latencyNanos, boolean success) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(latencyNanos, success, settings.getLatencyThreshold());
+            }
+        }
+
+        /**
+         * Release with the total time of a blocking generation, judged against blockingLatencyThreshold.
+         */
+        public void completeBlocking(long latencyNanos, boolean success) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(latencyNanos, success, settings.getBlockingLatencyThreshold());
+            }
+        }
+
+        /**
+         * Release without touching the limit (e.g. the client went away).
+         */
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                onRelease(0L, true, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.MrPot.resilience;
+
+import com.example.MrPot.config.AdmissionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One adaptive concurrency limiter per ChatClient provider, plus their metrics:
+ *  - mrpot.admission.limit / inflight / queued (gauges)
+ *  - mrpot.admission.rejected (counter)
+ */
+@Component
+public class AdmissionLimiters {
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdmissionLimiters(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Admit one generation for the provider or throw {@link AdmissionRejectedException}.
+     * Returns empty when admission control is disabled.
+     */
+    public Optional<AdaptiveConcurrencyLimiter.Permit> acquire(String provider) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(limiter(provider).acquire());
+        } catch (AdmissionRejectedException ex) {
+            Counter.builder("mrpot.admission.rejected")
+                    .tag("client", provider)
+                    .register(meterRegistry)
+                    .increment();
+            throw ex;
+        }
+    }
+
+    /**
+     * Non-blocking admission for optional work (hedges, failover); empty means "no slot".
+     * Always empty when admission control is disabled, so check {@link #isEnabled()} first.
+     */
+    public Optional<AdaptiveConcurrencyLimiter.Permit> tryAcquire(String provider) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        return limiter(provider).tryAcquire();
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(String provider) {
+        return limiters.computeIfAbsent(provider, this::createLimiter);
+    }
+
+    private AdaptiveConcurrencyLimiter createLimiter(String provider) {
+        AdaptiveConcurrencyLimiter limiter =
+                new AdaptiveConcurrencyLimiter(provider, properties.forClient(provider));
+        Gauge.builder("mrpot.admission.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("client", provider)
+                .register(meterRegistry);
+        Gauge.builder("mrpot.admission.inflight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .tag("client", provider)
+                .register(meterRegistry);
+        Gauge.builder("mrpot.admission.queued", limiter, AdaptiveConcurrencyLimiter::queued)
+                .tag("client", provider)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.MrPot.resilience;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request cannot get a generation slot within the bounded queue.
+ * Mapped to HTTP 429 with a Retry-After header.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final String client;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String client, Duration retryAfter) {
+        super("Too many concurrent generations for '" + client + "'");
+        this.client = client;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
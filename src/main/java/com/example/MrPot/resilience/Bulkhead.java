@@ -0,0 +1,122 @@
+package com.example.MrPot.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Named, bounded, instrumented executor isolating one kind of blocking I/O.
+ *
+ * Metrics (tag name=&lt;bulkhead&gt;):
+ *  - executor.queued / executor.active / executor.pool.size ... (Micrometer ExecutorServiceMetrics)
+ *  - mrpot.bulkhead.wait     time a task spent in the queue before a thread picked it up
+ *  - mrpot.bulkhead.rejected tasks refused because threads and queue were full
+ *
+ * Tasks run with the submitting thread's context snapshot (tracing, MDC) restored.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final InstrumentedExecutor executor;
+    private final Scheduler scheduler;
+
+    public Bulkhead(String name, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.name = name;
+
+        Timer waitTimer = Timer.builder("mrpot.bulkhead.wait")
+                .description("Queue wait time before a bulkhead thread picked the task up")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("mrpot.bulkhead.rejected")
+                .tag("name", name)
+                .register(meterRegistry);
+
+        this.executor = new InstrumentedExecutor(name, Math.max(1, threads), Math.max(1, queueCapacity),
+                waitTimer, rejected);
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(meterRegistry);
+
+        this.scheduler = Schedulers.fromExecutorService(executor, name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Reactor scheduler backed by this bulkhead, for subscribeOn(...).
+     */
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Plain executor, for fire-and-forget work such as persisting a chat turn.
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    public void shutdown() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+
+    /**
+     * ThreadPoolExecutor that records how long each task waited in the queue.
+     */
+    private static final class InstrumentedExecutor extends ThreadPoolExecutor {
+
+        private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+        private final Timer waitTimer;
+
+        InstrumentedExecutor(String name, int threads, int queueCapacity, Timer waitTimer, Counter rejected) {
+            super(threads, threads, 60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    namedThreads(name),
+                    (task, pool) -> {
+                        rejected.increment();
+                        throw new RejectedExecutionException("Bulkhead '" + name + "' is full");
+                    });
+            this.waitTimer = waitTimer;
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            long enqueuedAt = System.nanoTime();
+            // Carry the submitter's thread locals (current span, MDC) onto the bulkhead thread
+            ContextSnapshot snapshot = SNAPSHOTS.captureAll();
+            super.execute(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try (ContextSnapshot.Scope ignored = snapshot.setThreadLocals()) {
+                    command.run();
+                }
+            });
+        }
+
+        private static ThreadFactory namedThreads(String name) {
+            AtomicInteger counter = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.MrPot.resilience;
+
+import com.example.MrPot.config.BulkheadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * The three bulkheads of the streaming pipeline, so a slow pgvector cannot starve
+ * Redis history loads (and the other way round).
+ */
+@Component
+public class Bulkheads implements DisposableBean {
+
+    private final Bulkhead embedding;
+    private final Bulkhead vectorSearch;
+    private final Bulkhead chatMemory;
+
+    public Bulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.embedding = create("embedding", properties.getEmbedding(), meterRegistry);
+        this.vectorSearch = create("vector-search", properties.getVectorSearch(), meterRegistry);
+        this.chatMemory = create("chat-memory", properties.getChatMemory(), meterRegistry);
+    }
+
+    public Bulkhead embedding() {
+        return embedding;
+    }
+
+    public Bulkhead vectorSearch() {
+        return vectorSearch;
+    }
+
+    public Bulkhead chatMemory() {
+        return chatMemory;
+    }
+
+    @Override
+    public void destroy() {
+        embedding.shutdown();
+        vectorSearch.shutdown();
+        chatMemory.shutdown();
+    }
+
+    private static Bulkhead create(String name, BulkheadProperties.PoolSettings settings, MeterRegistry meterRegistry) {
+        return new Bulkhead(name, settings.getThreads(), settings.getQueueCapacity(), meterRegistry);
+    }
+}
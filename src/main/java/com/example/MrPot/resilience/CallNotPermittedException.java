@@ -0,0 +1,20 @@
+package com.example.MrPot.resilience;
+
+/**
+ * Thrown instead of calling a provider whose circuit breaker refused the call
+ * (OPEN, or HALF_OPEN with the trial call already in flight).
+ * Mapped to HTTP 503 when no alternate provider could take over.
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    private final String provider;
+
+    public CallNotPermittedException(String provider) {
+        super("Circuit breaker for '" + provider + "' does not permit calls");
+        this.provider = provider;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.MrPot.resilience;
+
+import java.time.Duration;
+
+/**
+ * Minimal count-based circuit breaker.
+ *
+ * CLOSED    - calls pass, outcomes go into a sliding window of the last N calls
+ * OPEN      - failure rate exceeded the threshold; calls are refused until openDuration elapsed
+ * HALF_OPEN - one trial call is let through; success closes the breaker, failure re-opens it
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+
+    // Sliding window of outcomes (true = failure)
+    private final boolean[] window;
+    private int index;
+    private int count;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, minimumCalls);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Side-effect free check used for routing decisions.
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAtNanos >= openDurationNanos;
+            case HALF_OPEN -> !trialInFlight;
+        };
+    }
+
+    /**
+     * Claim permission for an actual call; moves OPEN -> HALF_OPEN once the open period is over.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Give back a permission without an outcome (e.g. the call was cancelled).
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onError() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && count >= minimumCalls
+                && (double) failures / count >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Failure rate over the current window, 0 when there are no calls yet.
+     */
+    public synchronized double failureRate() {
+        return count == 0 ? 0.0 : (double) failures / count;
+    }
+
+    private void record(boolean failure) {
+        if (count == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        window[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        trialInFlight = false;
+        index = 0;
+        count = 0;
+        failures = 0;
+    }
+}
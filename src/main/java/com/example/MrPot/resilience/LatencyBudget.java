@@ -0,0 +1,40 @@
+package com.example.MrPot.resilience;
+
+import java.time.Duration;
+
+/**
+ * Per-request latency budget.
+ * Created when the request arrives; every stage asks for its deadline,
+ * which is the stage's own timeout capped by the time left in the budget.
+ */
+public final class LatencyBudget {
+
+    /** Never hand out a zero/negative deadline; an exhausted budget times out almost immediately. */
+    private static final Duration MIN_STAGE_DEADLINE = Duration.ofMillis(1);
+
+    private final long deadlineNanos;
+
+    private LatencyBudget(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static LatencyBudget start(Duration total) {
+        return new LatencyBudget(System.nanoTime() + total.toNanos());
+    }
+
+    /**
+     * Time left before the overall budget is exhausted (may be negative).
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Deadline for the next stage: min(stageTimeout, remaining budget), at least 1ms.
+     */
+    public Duration deadlineFor(Duration stageTimeout) {
+        Duration remaining = remaining();
+        Duration deadline = stageTimeout.compareTo(remaining) <= 0 ? stageTimeout : remaining;
+        return deadline.compareTo(MIN_STAGE_DEADLINE) < 0 ? MIN_STAGE_DEADLINE : deadline;
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.MrPot.routing;
+
+import com.example.MrPot.config.LlmRoutingProperties;
+import com.example.MrPot.model.RagAnswerRequest;
+import com.example.MrPot.resilience.AdaptiveConcurrencyLimiter;
+import com.example.MrPot.resilience.AdmissionLimiters;
+import com.example.MrPot.resilience.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Adaptive routing layer over the ChatClient beans.
+ *
+ * - The requested model picks the preferred provider (same lookup rules as before).
+ * - Providers with an open circuit are skipped.
+ * - If the preferred provider's moving TTFT is much worse than an alternative, traffic moves over.
+ * - Streaming calls can be hedged: when no token arrived within a percentile-based delay,
+ *   the alternate provider gets the same prompt and whichever streams first wins;
+ *   the loser is cancelled.
+ */
+@Component
+public class ChatClientRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatClientRouter.class);
+
+    private static final String BEAN_SUFFIX = "ChatClient";
+
+    private final ListableBeanFactory beanFactory;
+    private final Map<String, String> beanNamesByProvider;
+    private final Map<String, ChatClient> clientsByProvider = new ConcurrentHashMap<>();
+    private final Map<String, ProviderStats> statsByProvider;
+    private final LlmRoutingProperties properties;
+    private final AdmissionLimiters admissionLimiters;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Providers are discovered by bean name only; the (lazy) ChatClient beans are created on first use,
+     * so a configured provider that never gets traffic never builds its client.
+     */
+    public ChatClientRouter(ListableBeanFactory beanFactory,
+                            LlmRoutingProperties properties,
+                            AdmissionLimiters admissionLimiters,
+                            MeterRegistry meterRegistry) {
+        this.beanFactory = beanFactory;
+        this.properties = properties;
+        this.admissionLimiters = admissionLimiters;
+        this.meterRegistry = meterRegistry;
+
+        Map<String, String> beanNames = new LinkedHashMap<>();
+        Map<String, ProviderStats> stats = new LinkedHashMap<>();
+        // allowEagerInit=false: type matching must not instantiate lazy beans
+        for (String beanName : beanFactory.getBeanNamesForType(ChatClient.class, true, false)) {
+            String provider = providerKey(beanName);
+            beanNames.put(provider, beanName);
+            stats.put(provider, new ProviderStats(provider, properties, meterRegistry));
+        }
+        this.beanNamesByProvider = Map.copyOf(beanNames);
+        this.statsByProvider = Map.copyOf(stats);
+    }
+
+    /**
+     * Routing decision for one request.
+     *
+     * @param primary    provider that serves the request
+     * @param alternate  provider used for hedging / failover, null if none is healthy
+     */
+    public record Route(String primary, String alternate) { }
+
+    /**
+     * Pick the primary and alternate provider for the requested model.
+     */
+    public Route route(String model) {
+        if (beanNamesByProvider.isEmpty()) {
+            throw new IllegalStateException("No ChatClient beans are available");
+        }
+        String preferred = resolvePreferred(model);
+
+        // Best healthy alternative: lowest fresh moving TTFT first, unknown latency last
+        Optional<ProviderStats> bestAlternative = statsByProvider.values().stream()
+                .filter(s -> !s.provider().equals(preferred))
+                .filter(s -> s.circuitBreaker().isCallPermitted())
+                .min(Comparator.comparingDouble(s -> orMax(s.freshEwmaTtftMillis())));
+
+        String primary = preferred;
+        ProviderStats preferredStats = statsByProvider.get(preferred);
+        if (bestAlternative.isPresent()) {
+            ProviderStats alternative = bestAlternative.get();
+            if (!preferredStats.circuitBreaker().isCallPermitted()) {
+                primary = alternative.provider();
+                log.debug("LLM routing: circuit open for '{}', routing to '{}'", preferred, primary);
+            } else if (isMuchSlower(preferredStats, alternative)) {
+                primary = alternative.provider();
+                log.debug("LLM routing: '{}' is slow (ewma={}ms), routing to '{}' (ewma={}ms)",
+                        preferred, preferredStats.freshEwmaTtftMillis(),
+                        primary, alternative.freshEwmaTtftMillis());
+            }
+        }
+
+        String finalPrimary = primary;
+        String alternate = statsByProvider.values().stream()
+                .filter(s -> !s.provider().equals(finalPrimary))
+                .filter(s -> s.circuitBreaker().isCallPermitted())
+                .min(Comparator.comparingDouble(s -> orMax(s.freshEwmaTtftMillis())))
+                .map(ProviderStats::provider)
+                .orElse(null);
+
+        if (!primary.equals(preferred)) {
+            meterRegistry.counter("mrpot.llm.rerouted", "from", preferred, "to", primary).increment();
+        }
+        return new Route(primary, alternate);
+    }
+
+    /**
+     * True when the provider is configured and its circuit lets calls through.
+     */
+    public boolean isAvailable(String provider) {
+        ProviderStats stats = provider == null ? null : statsByProvider.get(provider.toLowerCase(Locale.ROOT));
+        return stats != null && stats.circuitBreaker().isCallPermitted();
+    }
+
+    public ChatClient client(String provider) {
+        String beanName = beanNamesByProvider.get(provider);
+        if (beanName == null) {
+            return null;
+        }
+        return clientsByProvider.computeIfAbsent(provider, p -> beanFactory.getBean(beanName, ChatClient.class));
+    }
+
+    /**
+     * Blocking call with failover: if the primary fails (or its breaker refuses the call) and an
+     * alternate is healthy and has a free admission slot, the call is retried once on the alternate.
+     */
+    public <T> T call(Route route, Function<ChatClient, T> call) {
+        try {
+            return callOnce(route.primary(), call);
+        } catch (RuntimeException ex) {
+            if (route.alternate() == null
+                    || !statsByProvider.get(route.alternate()).circuitBreaker().isCallPermitted()) {
+                throw ex;
+            }
+            Optional<AdaptiveConcurrencyLimiter.Permit> permit = admissionLimiters.tryAcquire(route.alternate());
+            if (admissionLimiters.isEnabled() && permit.isEmpty()) {
+                throw ex;
+            }
+            log.warn("LLM call on '{}' failed ({}), failing over to '{}'",
+                    route.primary(), ex.toString(), route.alternate());
+            meterRegistry.counter("mrpot.llm.failover", "provider", route.alternate()).increment();
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                T result = callOnce(route.alternate(), call);
+                success = true;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                boolean ok = success;
+                permit.ifPresent(p -> p.completeBlocking(elapsed, ok));
+            }
+        }
+    }
+
+    /**
+     * Streaming call. With hedging enabled, the alternate provider is raced against
+     * the primary once the primary missed its percentile TTFT; first value wins.
+     * Without hedging, a primary whose breaker refuses the call fails over to the alternate.
+     */
+    public <T> Flux<T> stream(Route route, Function<ChatClient, Flux<T>> call) {
+        Flux<T> primary = instrument(route.primary(), call);
+        if (route.alternate() == null) {
+            return primary;
+        }
+        if (!properties.getHedge().isEnabled()) {
+            // Nothing was emitted before the refusal, so switching providers cannot duplicate output
+            return primary.onErrorResume(CallNotPermittedException.class, ex -> failoverStream(route, call, ex));
+        }
+
+        ProviderStats alternateStats = statsByProvider.get(route.alternate());
+        Flux<T> hedge = Mono.delay(statsByProvider.get(route.primary()).hedgeDelay())
+                .flatMapMany(tick -> {
+                    if (!alternateStats.circuitBreaker().isCallPermitted()) {
+                        return Flux.<T>empty();
+                    }
+                    // A hedge is optional work: only fire it if the alternate has a free slot right now
+                    Optional<AdaptiveConcurrencyLimiter.Permit> permit = admissionLimiters.tryAcquire(route.alternate());
+                    if (admissionLimiters.isEnabled() && permit.isEmpty()) {
+                        return Flux.<T>empty();
+                    }
+                    log.debug("LLM hedge: no first token from '{}', firing '{}'",
+                            route.primary(), route.alternate());
+                    meterRegistry.counter("mrpot.llm.hedged", "provider", route.alternate()).increment();
+                    return releasing(instrument(route.alternate(), call), permit);
+                });
+
+        // firstWithValue: the first source to emit wins, the other one is cancelled;
+        // an early error of the primary just leaves the race to the hedge.
+        return Flux.firstWithValue(primary, hedge);
+    }
+
+    private <T> Flux<T> failoverStream(Route route, Function<ChatClient, Flux<T>> call, RuntimeException cause) {
+        if (!statsByProvider.get(route.alternate()).circuitBreaker().isCallPermitted()) {
+            return Flux.error(cause);
+        }
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit = admissionLimiters.tryAcquire(route.alternate());
+        if (admissionLimiters.isEnabled() && permit.isEmpty()) {
+            return Flux.error(cause);
+        }
+        log.warn("LLM stream on '{}' refused ({}), failing over to '{}'",
+                route.primary(), cause.getMessage(), route.alternate());
+        meterRegistry.counter("mrpot.llm.failover", "provider", route.alternate()).increment();
+        return releasing(instrument(route.alternate(), call), permit);
+    }
+
+    /**
+     * Release the alternate's admission slot when its stream ends; the latency sample is the time to
+     * its first value (total time when none arrived), like the request's own permit.
+     */
+    private static <T> Flux<T> releasing(Flux<T> stream, Optional<AdaptiveConcurrencyLimiter.Permit> permit) {
+        long start = System.nanoTime();
+        AtomicLong firstNanos = new AtomicLong();
+        return stream
+                .doOnNext(item -> firstNanos.compareAndSet(0L, System.nanoTime()))
+                .doFinally(signal -> permit.ifPresent(p -> {
+                    if (signal == SignalType.CANCEL) {
+                        p.cancel();
+                    } else {
+                        long end = firstNanos.get() != 0L ? firstNanos.get() : System.nanoTime();
+                        p.complete(end - start, signal == SignalType.ON_COMPLETE);
+                    }
+                }));
+    }
+
+    /**
+     * One call on a provider. A refused breaker permission throws before the provider is called
+     * and records no outcome (the refusal is not a provider failure).
+     */
+    private <T> T callOnce(String provider, Function<ChatClient, T> call) {
+        ProviderStats stats = statsByProvider.get(provider);
+        if (!stats.circuitBreaker().tryAcquirePermission()) {
+            meterRegistry.counter("mrpot.llm.circuit.rejected", "provider", provider).increment();
+            throw new CallNotPermittedException(provider);
+        }
+        try {
+            T result = call.apply(client(provider));
+            stats.recordSuccess();
+            return result;
+        } catch (RuntimeException ex) {
+            stats.recordError();
+            throw ex;
+        }
+    }
+
+    /**
+     * Track TTFT / outcome of one streaming call. A call cancelled before its first token
+     * (e.g. the hedge loser) records no outcome.
+     */
+    private <T> Flux<T> instrument(String provider, Function<ChatClient, Flux<T>> call) {
+        ProviderStats stats = statsByProvider.get(provider);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicBoolean firstSeen = new AtomicBoolean(false);
+            if (!stats.circuitBreaker().tryAcquirePermission()) {
+                meterRegistry.counter("mrpot.llm.circuit.rejected", "provider", provider).increment();
+                return Flux.<T>error(new CallNotPermittedException(provider));
+            }
+            return call.apply(client(provider))
+                    .doOnNext(item -> {
+                        if (firstSeen.compareAndSet(false, true)) {
+                            stats.recordFirstToken(System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(ex -> stats.recordError())
+                    .doOnComplete(() -> {
+                        if (!firstSeen.get()) {
+                            stats.recordSuccess();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (!firstSeen.get()) {
+                            stats.circuitBreaker().releasePermission();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Resolve the preferred provider based on requested model identifier.
+     * Supported lookup keys:
+     *  - "<model>ChatClient"
+     *  - "<model>"
+     * Fallback:
+     *  - default model "ChatClient"
+     *  - any available ChatClient if nothing matches
+     */
+    private String resolvePreferred(String model) {
+        String key = Optional.ofNullable(model)
+                .map(m -> m.toLowerCase(Locale.ROOT))
+                .orElse(RagAnswerRequest.DEFAULT_MODEL);
+        if (beanNamesByProvider.containsKey(key)) {
+            return key;
+        }
+        if (beanNamesByProvider.containsKey(RagAnswerRequest.DEFAULT_MODEL)) {
+            return RagAnswerRequest.DEFAULT_MODEL;
+        }
+        return beanNamesByProvider.keySet().stream().sorted().findFirst().orElseThrow();
+    }
+
+    private boolean isMuchSlower(ProviderStats preferred, ProviderStats alternative) {
+        double ratio = properties.getLatencySwitchRatio();
+        double preferredTtft = preferred.freshEwmaTtftMillis();
+        double alternativeTtft = alternative.freshEwmaTtftMillis();
+        return ratio > 0
+                && !Double.isNaN(preferredTtft)
+                && !Double.isNaN(alternativeTtft)
+                && preferredTtft > alternativeTtft * ratio;
+    }
+
+    private static double orMax(double value) {
+        return Double.isNaN(value) ? Double.MAX_VALUE : value;
+    }
+
+    /**
+     * "deepseekChatClient" -> "deepseek"; bean names without the suffix are used as-is.
+     */
+    private static String providerKey(String beanName) {
+        String key = beanName.endsWith(BEAN_SUFFIX)
+                ? beanName.substring(0, beanName.length() - BEAN_SUFFIX.length())
+                : beanName;
+        return key.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.MrPot.routing;
+
+import com.example.MrPot.config.CascadeProperties;
+import com.example.MrPot.model.RagRetrievalResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fast-then-strong model cascade (mrpot.llm.cascade.*).
+ *
+ * The provider routed for the request is the strong model. The fast provider answers first when:
+ *  - no retrieval was needed (greetings, site guide), or
+ *  - retrieval was not degraded, its top score reaches min-top-score and it leads the second-best
+ *    document by min-score-gap
+ * The fast answer is then self-checked without another model call (length, refusal phrases, share of
+ * its content terms found in the retrieved context); a failed check or a fast-model error escalates to
+ * the strong model.
+ *
+ * The fast call is neither hedged nor failed over: escalation is its fallback. It runs under its own
+ * admission permit on the fast provider; without a free slot the request goes to the strong model
+ * (reason fast_shed). Metrics:
+ *  - mrpot.llm.cascade{path=fast|strong|escalated, reason}   answers per final path
+ *  - mrpot.llm.cascade.latency{path}                          generation time until the final answer
+ */
+@Component
+public class ModelCascade {
+
+    private final CascadeProperties properties;
+    private final ChatClientRouter chatClientRouter;
+    private final MeterRegistry meterRegistry;
+
+    public ModelCascade(CascadeProperties properties, ChatClientRouter chatClientRouter, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.chatClientRouter = chatClientRouter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param route  route of the fast model (no alternate) when fast is true, else null
+     * @param reason why this path was chosen (bounded set, used as a metric tag)
+     */
+    public record Decision(boolean fast, String reason, ChatClientRouter.Route route, double topScore, double scoreGap) {
+
+        public Map<String, Object> payload() {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("path", fast ? "fast" : "strong");
+            payload.put("reason", reason);
+            if (route != null) {
+                payload.put("provider", route.primary());
+            }
+            payload.put("topScore", topScore);
+            payload.put("scoreGap", scoreGap);
+            return payload;
+        }
+
+        /**
+         * The fast provider had no free admission slot: answer with the strong model instead.
+         */
+        public Decision shed() {
+            return new Decision(false, "fast_shed", null, topScore, scoreGap);
+        }
+    }
+
+    /**
+     * @param grounding share of the answer's content terms found in the context (1.0 when not measured)
+     */
+    public record Check(boolean passed, String reason, double grounding) { }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param retrievalNeeded false when the intent skipped retrieval
+     * @param degraded        retrieval missed its deadline or failed
+     */
+    public Decision decide(boolean retrievalNeeded, RagRetrievalResult retrieval, boolean degraded) {
+        double topScore = retrieval == null ? 0.0 : retrieval.topScore();
+        double scoreGap = retrieval == null ? 0.0 : retrieval.scoreGap();
+        String reason;
+        if (!retrievalNeeded) {
+            reason = "no_retrieval";
+        } else if (degraded) {
+            reason = "degraded";
+        } else if (topScore < properties.getMinTopScore()) {
+            reason = "low_top_score";
+        } else if (scoreGap < properties.getMinScoreGap()) {
+            reason = "small_gap";
+        } else {
+            reason = "confident";
+        }
+        boolean fast = reason.equals("no_retrieval") || reason.equals("confident");
+        if (fast && !chatClientRouter.isAvailable(properties.getFastProvider())) {
+            fast = false;
+            reason = "fast_unavailable";
+        }
+        ChatClientRouter.Route route = fast
+                ? new ChatClientRouter.Route(properties.getFastProvider().toLowerCase(Locale.ROOT), null)
+                : null;
+        return new Decision(fast, reason, route, topScore, scoreGap);
+    }
+
+    /**
+     * Per-request options for the fast call (the configured fast model), null to keep the client's defaults.
+     */
+    public ChatOptions fastOptions() {
+        String model = properties.getFastModel();
+        return model == null || model.isBlank() ? null : ChatOptions.builder().model(model).build();
+    }
+
+    /**
+     * Self-check of a fast answer against the context it was given.
+     */
+    public Check check(String answer, RagRetrievalResult retrieval, boolean retrievalNeeded) {
+        CascadeProperties.SelfCheck selfCheck = properties.getSelfCheck();
+        if (!selfCheck.isEnabled()) {
+            return new Check(true, "unchecked", 1.0);
+        }
+        String text = answer == null ? "" : answer.strip();
+        if (text.length() < selfCheck.getMinAnswerChars()) {
+            return new Check(false, "short_answer", 0.0);
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (String phrase : selfCheck.getRefusalPhrases()) {
+            if (!phrase.isBlank() && lower.contains(phrase.toLowerCase(Locale.ROOT))) {
+                return new Check(false, "refusal", 0.0);
+            }
+        }
+        if (!retrievalNeeded || retrieval == null || retrieval.documents() == null || retrieval.documents().isEmpty()) {
+            return new Check(true, "passed", 1.0);
+        }
+        double grounding = grounding(lower, retrieval.context());
+        return grounding < selfCheck.getMinGrounding()
+                ? new Check(false, "ungrounded", grounding)
+                : new Check(true, "passed", grounding);
+    }
+
+    public Tracker start(Decision decision) {
+        return new Tracker(decision.fast() ? "fast" : "strong", decision.reason());
+    }
+
+    /**
+     * Share of the answer's content terms (Latin words of 4+ letters / digits, CJK character bigrams)
+     * that also occur in the context. Package-private for the JMH benchmarks.
+     */
+    static double grounding(String answer, String context) {
+        Set<String> answerTerms = terms(answer);
+        if (answerTerms.isEmpty()) {
+            return 1.0;
+        }
+        Set<String> contextTerms = terms(context == null ? "" : context.toLowerCase(Locale.ROOT));
+        int found = 0;
+        for (String term : answerTerms) {
+            if (contextTerms.contains(term)) {
+                found++;
+            }
+        }
+        return (double) found / answerTerms.size();
+    }
+
+    private static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        StringBuilder word = new StringBuilder();
+        char previousCjk = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN) {
+                if (previousCjk != 0) {
+                    terms.add(new String(new char[]{previousCjk, c}));
+                }
+                previousCjk = c;
+                addWord(word, terms);
+            } else {
+                previousCjk = 0;
+                if (Character.isLetterOrDigit(c)) {
+                    word.append(Character.toLowerCase(c));
+                } else {
+                    addWord(word, terms);
+                }
+            }
+        }
+        addWord(word, terms);
+        return terms;
+    }
+
+    private static void addWord(StringBuilder word, Set<String> terms) {
+        if (word.length() >= 4) {
+            terms.add(word.toString());
+        }
+        word.setLength(0);
+    }
+
+    /**
+     * Final path of one request; records the metrics once.
+     */
+    public final class Tracker {
+
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile String path;
+        private volatile String reason;
+
+        private Tracker(String path, String reason) {
+            this.path = path;
+            this.reason = reason;
+        }
+
+        public void escalate(String reason) {
+            this.path = "escalated";
+            this.reason = reason;
+        }
+
+        public String path() {
+            return path;
+        }
+
+        public void finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            meterRegistry.counter("mrpot.llm.cascade", "path", path, "reason", reason).increment();
+            Timer.builder("mrpot.llm.cascade.latency")
+                    .description("Generation time until the final answer, by cascade path")
+                    .tag("path", path)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.MrPot.routing;
+
+import com.example.MrPot.config.LlmRoutingProperties;
+import com.example.MrPot.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live health of one LLM provider:
+ *  - moving average (EWMA) of time-to-first-token
+ *  - ring buffer of recent TTFT samples for percentile-based hedge delays
+ *  - circuit breaker over recent call outcomes
+ *  - Micrometer TTFT histogram / outcome counters tagged by provider
+ */
+public class ProviderStats {
+
+    private final String provider;
+    private final LlmRoutingProperties properties;
+    private final CircuitBreaker circuitBreaker;
+
+    private final Timer ttftTimer;
+    private final Counter successCounter;
+    private final Counter errorCounter;
+
+    // Guarded by "this"
+    private final long[] ttftSamples;
+    private int sampleIndex;
+    private int sampleCount;
+    private double ewmaTtftMillis = Double.NaN;
+    private long lastSampleNanos;
+
+    ProviderStats(String provider, LlmRoutingProperties properties, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.properties = properties;
+
+        LlmRoutingProperties.BreakerSettings breaker = properties.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(
+                breaker.getWindowSize(),
+                breaker.getMinimumCalls(),
+                breaker.getFailureRateThreshold(),
+                breaker.getOpenDuration()
+        );
+        this.ttftSamples = new long[Math.max(1, properties.getSampleWindow())];
+
+        this.ttftTimer = Timer.builder("mrpot.llm.ttft")
+                .description("Time to first streamed token per LLM provider")
+                .tag("provider", provider)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.successCounter = Counter.builder("mrpot.llm.calls")
+                .tag("provider", provider)
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.errorCounter = Counter.builder("mrpot.llm.calls")
+                .tag("provider", provider)
+                .tag("outcome", "error")
+                .register(meterRegistry);
+
+        Gauge.builder("mrpot.llm.ttft.ewma", this, s -> s.ewmaTtftMillis())
+                .description("Moving average time to first token (ms)")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("mrpot.llm.error.rate", circuitBreaker, CircuitBreaker::failureRate)
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("mrpot.llm.circuit.state", circuitBreaker, cb -> cb.state().ordinal())
+                .description("0=closed, 1=open, 2=half-open")
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    public String provider() {
+        return provider;
+    }
+
+    public CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * A first token arrived: the provider is responsive.
+     */
+    public void recordFirstToken(long ttftNanos) {
+        ttftTimer.record(ttftNanos, TimeUnit.NANOSECONDS);
+        synchronized (this) {
+            ttftSamples[sampleIndex] = ttftNanos;
+            sampleIndex = (sampleIndex + 1) % ttftSamples.length;
+            if (sampleCount < ttftSamples.length) {
+                sampleCount++;
+            }
+            double millis = ttftNanos / 1_000_000.0;
+            ewmaTtftMillis = Double.isNaN(ewmaTtftMillis)
+                    ? millis
+                    : ewmaTtftMillis + properties.getEwmaAlpha() * (millis - ewmaTtftMillis);
+            lastSampleNanos = System.nanoTime();
+        }
+        recordSuccess();
+    }
+
+    public void recordSuccess() {
+        successCounter.increment();
+        circuitBreaker.onSuccess();
+    }
+
+    public void recordError() {
+        errorCounter.increment();
+        circuitBreaker.onError();
+    }
+
+    public synchronized double ewmaTtftMillis() {
+        return ewmaTtftMillis;
+    }
+
+    /**
+     * Moving TTFT if it is recent enough to base a routing decision on, NaN otherwise.
+     */
+    public synchronized double freshEwmaTtftMillis() {
+        if (Double.isNaN(ewmaTtftMillis)
+                || System.nanoTime() - lastSampleNanos > properties.getStatsFreshness().toNanos()) {
+            return Double.NaN;
+        }
+        return ewmaTtftMillis;
+    }
+
+    /**
+     * Delay after which a hedge request is fired:
+     * the configured TTFT percentile, clamped to [minDelay, maxDelay].
+     */
+    public Duration hedgeDelay() {
+        LlmRoutingProperties.HedgeSettings hedge = properties.getHedge();
+        long[] snapshot;
+        synchronized (this) {
+            if (sampleCount < hedge.getMinSamples()) {
+                return hedge.getInitialDelay();
+            }
+            snapshot = Arrays.copyOf(ttftSamples, sampleCount);
+        }
+        Arrays.sort(snapshot);
+        int idx = (int) Math.ceil(hedge.getPercentile() * snapshot.length) - 1;
+        long nanos = snapshot[Math.min(snapshot.length - 1, Math.max(0, idx))];
+
+        long min = hedge.getMinDelay().toNanos();
+        long max = hedge.getMaxDelay().toNanos();
+        return Duration.ofNanos(Math.min(max, Math.max(min, nanos)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.CompressionProperties;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query-focused extractive compression (mrpot.retrieval.compression.*), applied to the final documents:
+ *
+ *  1. documents shorter than min-document-chars, or without stored passages, stay whole
+ *  2. every other document gets its best-scoring passage, so no retrieved document disappears
+ *  3. remaining passages are added best score first while the context stays within token-budget
+ *     and a document has fewer than max-passages-per-document
+ *  4. each excerpt lists its passages in document order, gaps marked with " … "
+ *
+ * Passages and their embeddings are written at ingestion time (PassageIndexer); the scores come from the
+ * query embedding the search already used, so this stage makes no model call. Documents are counted in
+ * mrpot.rag.compression.documents{outcome=compressed|whole|unindexed}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContextCompressor {
+
+    /** Same estimate as RagRetrievalService.estimateTokens. */
+    private static final int CONTEXT_HEADER_CHARS = 48;
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final String GAP = " … ";
+
+    private final CompressionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Excerpt per document id (documents kept whole have none) and the estimated prompt tokens saved.
+     */
+    public record Result(Map<Long, String> excerpts, int tokensSaved) {
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Ids of the documents long enough to be worth compressing; empty when compression is off.
+     */
+    public List<Long> targets(List<ScoredDocument> documents) {
+        if (!properties.isEnabled() || documents == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>();
+        for (ScoredDocument doc : documents) {
+            String content = doc.document().getContent();
+            if (doc.document().getId() != null && content != null
+                    && content.length() >= properties.getMinDocumentChars()) {
+                ids.add(doc.document().getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @param documents final documents, in context order
+     * @param passages  stored passages of (some of) the target documents, scored against the query
+     */
+    public Result compress(List<ScoredDocument> documents, List<ScoredPassage> passages) {
+        Map<Long, List<ScoredPassage>> byDocument = new HashMap<>();
+        for (ScoredPassage passage : passages) {
+            byDocument.computeIfAbsent(passage.documentId(), id -> new ArrayList<>()).add(passage);
+        }
+
+        // Context left for excerpts once headers and whole documents are accounted for
+        long remaining = (long) properties.getTokenBudget() * CHARS_PER_TOKEN;
+        Map<Long, List<ScoredPassage>> selected = new LinkedHashMap<>();
+        int whole = 0;
+        int unindexed = 0;
+        for (ScoredDocument doc : documents) {
+            String content = doc.document().getContent();
+            int length = content == null ? 0 : content.length();
+            remaining -= CONTEXT_HEADER_CHARS;
+            List<ScoredPassage> candidates = byDocument.get(doc.document().getId());
+            if (length < properties.getMinDocumentChars()) {
+                remaining -= length;
+                whole++;
+            } else if (candidates == null || candidates.isEmpty()) {
+                remaining -= length;
+                unindexed++;
+            } else {
+                candidates.sort(Comparator.comparingDouble(ScoredPassage::score).reversed());
+                selected.put(doc.document().getId(), new ArrayList<>());
+            }
+        }
+
+        // Best passage of every compressible document first, even over budget
+        List<ScoredPassage> rest = new ArrayList<>();
+        for (Map.Entry<Long, List<ScoredPassage>> entry : selected.entrySet()) {
+            List<ScoredPassage> candidates = byDocument.get(entry.getKey());
+            entry.getValue().add(candidates.get(0));
+            remaining -= candidates.get(0).content().length();
+            rest.addAll(candidates.subList(1, candidates.size()));
+        }
+        rest.sort(Comparator.comparingDouble(ScoredPassage::score).reversed());
+        int maxPerDocument = Math.max(1, properties.getMaxPassagesPerDocument());
+        for (ScoredPassage passage : rest) {
+            List<ScoredPassage> kept = selected.get(passage.documentId());
+            int cost = passage.content().length() + GAP.length();
+            if (kept.size() < maxPerDocument && cost <= remaining) {
+                kept.add(passage);
+                remaining -= cost;
+            }
+        }
+
+        Map<Long, String> excerpts = new HashMap<>();
+        long savedChars = 0;
+        for (ScoredDocument doc : documents) {
+            List<ScoredPassage> kept = selected.get(doc.document().getId());
+            if (kept == null) {
+                continue;
+            }
+            String excerpt = excerpt(kept);
+            int length = doc.document().getContent().length();
+            if (excerpt.length() < length) {
+                excerpts.put(doc.document().getId(), excerpt);
+                savedChars += length - excerpt.length();
+            } else {
+                whole++;
+            }
+        }
+
+        count("compressed", excerpts.size());
+        count("whole", whole);
+        count("unindexed", unindexed);
+        return new Result(excerpts, (int) (savedChars / CHARS_PER_TOKEN));
+    }
+
+    /**
+     * Passages in document order; adjacent ones are joined with a space, gaps with " … ".
+     */
+    static String excerpt(List<ScoredPassage> passages) {
+        List<ScoredPassage> ordered = new ArrayList<>(passages);
+        ordered.sort(Comparator.comparingInt(ScoredPassage::ordinal));
+        StringBuilder sb = new StringBuilder();
+        int previous = -1;
+        for (ScoredPassage passage : ordered) {
+            if (sb.length() > 0) {
+                sb.append(passage.ordinal() == previous + 1 ? " " : GAP);
+            } else if (passage.ordinal() > 0) {
+                sb.append(GAP.stripLeading());
+            }
+            sb.append(passage.content());
+            previous = passage.ordinal();
+        }
+        return sb.toString();
+    }
+
+    private void count(String outcome, int documents) {
+        if (documents > 0) {
+            meterRegistry.counter("mrpot.rag.compression.documents", "outcome", outcome).increment(documents);
+        }
+    }
+}
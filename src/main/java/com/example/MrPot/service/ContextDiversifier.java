@@ -0,0 +1,258 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.DiversityProperties;
+import com.example.MrPot.model.ScoredDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fewer, more diverse documents per prompt (mrpot.retrieval.diversity.*), applied after score filtering:
+ *
+ *  1. near-duplicate suppression: one-permutation MinHash over normalized character shingles; a document
+ *     whose estimated Jaccard similarity to a better-scored kept one reaches duplicate-threshold is dropped
+ *  2. MMR (optional): greedy selection by lambda * score - (1 - lambda) * max cosine to the selected
+ *     documents, using the candidates' stored embeddings; candidates above mmr-redundancy-threshold are
+ *     never selected, so the result can be shorter than topK
+ *
+ * Dropped documents are counted in mrpot.rag.diversity.dropped{reason=duplicate|redundant}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContextDiversifier {
+
+    private final DiversityProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Kept documents (score order unless MMR reordered them) and how many were dropped per reason.
+     */
+    public record Result(List<ScoredDocument> documents, int duplicates, int redundant) {
+    }
+
+    public boolean isEnabled() {
+        return properties.isDedupEnabled() || properties.isMmrEnabled();
+    }
+
+    public boolean needsEmbeddings() {
+        return properties.isMmrEnabled();
+    }
+
+    /**
+     * How many candidates to fetch for a final topK.
+     */
+    public int candidateCount(int topK) {
+        return properties.isMmrEnabled() ? topK * Math.max(1, properties.getMmrCandidateFactor()) : topK;
+    }
+
+    /**
+     * @param ranked candidates in descending score order
+     */
+    public Result diversify(List<ScoredDocument> ranked, int topK) {
+        List<ScoredDocument> documents = ranked;
+        int duplicates = 0;
+        if (properties.isDedupEnabled() && documents.size() > 1) {
+            documents = dropDuplicates(documents);
+            duplicates = ranked.size() - documents.size();
+        }
+
+        int redundant = 0;
+        if (properties.isMmrEnabled() && documents.size() > 1) {
+            int before = Math.min(topK, documents.size());
+            documents = mmr(documents, topK);
+            redundant = Math.max(0, before - documents.size());
+        } else if (documents.size() > topK) {
+            documents = documents.subList(0, topK);
+        }
+
+        if (duplicates > 0) {
+            meterRegistry.counter("mrpot.rag.diversity.dropped", "reason", "duplicate").increment(duplicates);
+        }
+        if (redundant > 0) {
+            meterRegistry.counter("mrpot.rag.diversity.dropped", "reason", "redundant").increment(redundant);
+        }
+        return new Result(List.copyOf(documents), duplicates, redundant);
+    }
+
+    private List<ScoredDocument> dropDuplicates(List<ScoredDocument> ranked) {
+        List<ScoredDocument> kept = new ArrayList<>(ranked.size());
+        List<long[]> keptSignatures = new ArrayList<>(ranked.size());
+        for (ScoredDocument candidate : ranked) {
+            long[] signature = signature(candidate.document().getContent(),
+                    properties.getShingleSize(), properties.getMinhashBins());
+            boolean duplicate = false;
+            for (long[] other : keptSignatures) {
+                if (similarity(signature, other) >= properties.getDuplicateThreshold()) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                kept.add(candidate);
+                keptSignatures.add(signature);
+            }
+        }
+        return kept;
+    }
+
+    private List<ScoredDocument> mmr(List<ScoredDocument> candidates, int topK) {
+        int n = candidates.size();
+        float[][] vectors = new float[n][];
+        for (int i = 0; i < n; i++) {
+            vectors[i] = parseVector(candidates.get(i).document().getEmbedding());
+            if (vectors[i] == null) {
+                // Embeddings were not fetched (or are unreadable): keep plain score order
+                return candidates.size() > topK ? candidates.subList(0, topK) : candidates;
+            }
+        }
+
+        double lambda = properties.getMmrLambda();
+        double[] maxSimilarity = new double[n];
+        boolean[] used = new boolean[n];
+        List<ScoredDocument> selected = new ArrayList<>(topK);
+        while (selected.size() < topK) {
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                if (used[i] || maxSimilarity[i] >= properties.getMmrRedundancyThreshold()) {
+                    continue;
+                }
+                double value = lambda * candidates.get(i).score() - (1 - lambda) * maxSimilarity[i];
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            used[best] = true;
+            selected.add(candidates.get(best));
+            for (int i = 0; i < n; i++) {
+                if (!used[i]) {
+                    maxSimilarity[i] = Math.max(maxSimilarity[i], cosine(vectors[i], vectors[best]));
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * One-permutation MinHash of the lower-cased, whitespace-collapsed text: every shingle is hashed once,
+     * the hash picks a bin and each bin keeps its minimum. Package-private for the JMH benchmarks.
+     */
+    static long[] signature(String text, int shingleSize, int bins) {
+        long[] signature = new long[Math.max(1, bins)];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        if (text == null || text.isEmpty()) {
+            return signature;
+        }
+
+        char[] normalized = new char[text.length()];
+        int length = 0;
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!space) {
+                    normalized[length++] = ' ';
+                    space = true;
+                }
+            } else {
+                normalized[length++] = Character.toLowerCase(c);
+                space = false;
+            }
+        }
+
+        int k = Math.max(1, Math.min(shingleSize, length));
+        for (int start = 0; start + k <= length; start++) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = start; i < start + k; i++) {
+                hash = (hash ^ normalized[i]) * 0x100000001b3L;
+            }
+            hash = mix(hash);
+            int bin = (int) Long.remainderUnsigned(hash, signature.length);
+            long value = mix(hash ^ 0x9e3779b97f4a7c15L) >>> 1;
+            if (value < signature[bin]) {
+                signature[bin] = value;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity: matching minima over the bins filled in either signature.
+     */
+    static double similarity(long[] a, long[] b) {
+        int filled = 0;
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            boolean emptyA = a[i] == Long.MAX_VALUE;
+            boolean emptyB = b[i] == Long.MAX_VALUE;
+            if (emptyA && emptyB) {
+                continue;
+            }
+            filled++;
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return filled == 0 ? 1.0 : (double) equal / filled;
+    }
+
+    /**
+     * pgvector text format "[0.1,0.2,...]" (KbDocument.embedding); null when missing or malformed.
+     */
+    static float[] parseVector(String text) {
+        if (text == null || text.length() < 2 || text.charAt(0) != '[') {
+            return null;
+        }
+        int dimensions = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ',') {
+                dimensions++;
+            }
+        }
+        float[] vector = new float[dimensions];
+        int start = 1;
+        try {
+            for (int d = 0; d < dimensions; d++) {
+                int end = text.indexOf(d == dimensions - 1 ? ']' : ',', start);
+                vector[d] = Float.parseFloat(text.substring(start, end));
+                start = end + 1;
+            }
+        } catch (RuntimeException ex) {
+            return null;
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    /**
+     * MurmurHash3 fmix64.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.MrPot.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Optional;
+
+/**
+ * Hashed bag-of-words linear classifier (one weight vector per intent + bias, softmax on top).
+ *
+ * Scoring hashes tokens in place while scanning the question, so it does not allocate
+ * substrings or token lists. CJK ideographs are treated as one-character tokens.
+ *
+ * Weights file: one "INTENT&lt;TAB&gt;feature&lt;TAB&gt;weight" per line,
+ * feature "__bias__" is the intercept, lines starting with '#' are comments.
+ */
+public class HashedLinearIntentModel implements IntentModel {
+
+    private static final int BUCKETS = 1 << 16;
+    private static final int MASK = BUCKETS - 1;
+    private static final String BIAS = "__bias__";
+
+    private static final int FNV_OFFSET = 0x811C9DC5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private static final QueryIntent[] INTENTS = QueryIntent.values();
+
+    private final float[][] weights = new float[INTENTS.length][BUCKETS];
+    private final float[] bias = new float[INTENTS.length];
+    private final double threshold;
+
+    private HashedLinearIntentModel(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public static HashedLinearIntentModel load(Reader source, double threshold) throws IOException {
+        HashedLinearIntentModel model = new HashedLinearIntentModel(threshold);
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\t");
+                if (parts.length != 3) {
+                    throw new IOException("Malformed intent model line: " + line);
+                }
+                int intent = QueryIntent.valueOf(parts[0].trim()).ordinal();
+                float weight = Float.parseFloat(parts[2].trim());
+                String feature = parts[1].trim();
+                if (BIAS.equals(feature)) {
+                    model.bias[intent] = weight;
+                } else {
+                    model.weights[intent][hash(feature) & MASK] += weight;
+                }
+            }
+        }
+        return model;
+    }
+
+    @Override
+    public Optional<Prediction> predict(CharSequence question) {
+        double[] scores = new double[INTENTS.length];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = bias[i];
+        }
+
+        int h = FNV_OFFSET;
+        boolean inToken = false;
+        for (int i = 0, n = question.length(); i < n; i++) {
+            char c = question.charAt(i);
+            if (Character.isIdeographic(c)) {
+                if (inToken) {
+                    accumulate(scores, h);
+                    inToken = false;
+                }
+                accumulate(scores, (FNV_OFFSET ^ c) * FNV_PRIME);
+            } else if (Character.isLetterOrDigit(c)) {
+                if (!inToken) {
+                    h = FNV_OFFSET;
+                    inToken = true;
+                }
+                h = (h ^ Character.toLowerCase(c)) * FNV_PRIME;
+            } else if (inToken) {
+                accumulate(scores, h);
+                inToken = false;
+            }
+        }
+        if (inToken) {
+            accumulate(scores, h);
+        }
+
+        // Softmax over intents
+        int best = 0;
+        double max = scores[0];
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > max) {
+                max = scores[i];
+                best = i;
+            }
+        }
+        double sum = 0.0;
+        for (double score : scores) {
+            sum += Math.exp(score - max);
+        }
+        double probability = 1.0 / sum;
+
+        return probability >= threshold
+                ? Optional.of(new Prediction(INTENTS[best], probability))
+                : Optional.empty();
+    }
+
+    private void accumulate(double[] scores, int featureHash) {
+        int bucket = featureHash & MASK;
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] += weights[i][bucket];
+        }
+    }
+
+    /**
+     * Same hashing as the in-place scan in {@link #predict(CharSequence)}.
+     */
+    private static int hash(String feature) {
+        int h = FNV_OFFSET;
+        for (int i = 0; i < feature.length(); i++) {
+            h = (h ^ Character.toLowerCase(feature.charAt(i))) * FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.IntentProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Cheap local intent classifier that runs before retrieval.
+ *
+ * 1. Keyword/regex rules (precompiled, case-insensitive, no lower-casing copies), matched against the
+ *    whole message so a question that merely contains a phrase still gets retrieval
+ * 2. Optional tiny on-device model when no rule matched
+ * 3. Otherwise KNOWLEDGE, i.e. the normal RAG path
+ */
+@Component
+public class IntentClassifier {
+
+    /** The whole message is a greeting / thanks / goodbye, nothing else. */
+    private static final Pattern GREETING = Pattern.compile(
+            "^\\s*(hi|hello|hey|hiya|yo|howdy|good\\s+(morning|afternoon|evening)"
+                    + "|thanks|thank\\s+you|thx|bye|goodbye|see\\s+you"
+                    + "|你好|您好|嗨|哈喽|早上好|下午好|晚上好|谢谢|再见)"
+                    + "(\\s+(mr\\.?\\s*pot|there|all|everyone))?[\\s!.,?~。！？，]*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    /** "this site", "the website", "your app", ... */
+    private static final String SITE = "(this|the|your)\\s+(site|website|web\\s*site|web\\s*page|page|app)";
+
+    /**
+     * The whole message asks how to use the website itself and names it explicitly. Anything else
+     * ("How do I use Spring AI tool calling?", "Where can I find Yuqi's resume?", "Redis 怎么用")
+     * is left to retrieval.
+     */
+    private static final Pattern SITE_GUIDE = Pattern.compile(
+            "^\\s*(please\\s+|请问\\s*)?("
+                    + "how\\s+(do|can|should)\\s+i\\s+(use|navigate|browse|get\\s+around(\\s+on)?|get\\s+started\\s+(on|with))\\s+" + SITE
+                    + "|how\\s+to\\s+(use|navigate|browse)\\s+" + SITE
+                    + "|(can\\s+you\\s+)?(give\\s+me\\s+|show\\s+me\\s+)?(a\\s+)?(tour|guide)\\s+(of|to)\\s+" + SITE
+                    + "|(a\\s+)?(site|website)\\s+(guide|tour|help|navigation)"
+                    + "|getting\\s+started"
+                    + "|(这个|本)?(网站|站点|网页|页面)(要|该)?(怎么用|怎么使用|如何使用|怎么操作|怎么导航|指南|导航|使用说明)"
+                    + "|(如何|怎么|怎样)(使用|用|浏览)(这个|本)(网站|站点|网页|页面)"
+                    + "|使用说明"
+                    + ")[\\s!.,?~。！？，吗呢]*$",
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+
+    private final IntentProperties properties;
+    private final ObjectProvider<IntentModel> intentModel;
+    private final MeterRegistry meterRegistry;
+
+    public IntentClassifier(IntentProperties properties,
+                            ObjectProvider<IntentModel> intentModel,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.intentModel = intentModel;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record Classification(QueryIntent intent, String source) { }
+
+    public Classification classify(String question) {
+        Classification result = doClassify(question);
+        meterRegistry.counter("mrpot.intent.classified",
+                "intent", result.intent().name(), "source", result.source()).increment();
+        return result;
+    }
+
+    private Classification doClassify(String question) {
+        if (!properties.isEnabled() || question == null || question.isBlank()) {
+            return new Classification(QueryIntent.KNOWLEDGE, "default");
+        }
+
+        if (question.length() <= properties.getMaxGreetingLength() && GREETING.matcher(question).matches()) {
+            return new Classification(QueryIntent.GREETING, "rule");
+        }
+        if (SITE_GUIDE.matcher(question).matches()) {
+            return new Classification(QueryIntent.SITE_GUIDE, "rule");
+        }
+
+        IntentModel model = intentModel.getIfAvailable();
+        if (model != null) {
+            var prediction = model.predict(question);
+            if (prediction.isPresent()) {
+                return new Classification(prediction.get().intent(), "model");
+            }
+        }
+        return new Classification(QueryIntent.KNOWLEDGE, "default");
+    }
+}
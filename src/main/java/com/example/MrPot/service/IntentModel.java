@@ -0,0 +1,16 @@
+package com.example.MrPot.service;
+
+import java.util.Optional;
+
+/**
+ * Optional tiny on-device intent model, consulted when no keyword rule matched.
+ */
+public interface IntentModel {
+
+    /**
+     * @return the predicted intent with its probability, or empty when unsure
+     */
+    Optional<Prediction> predict(CharSequence question);
+
+    record Prediction(QueryIntent intent, double probability) { }
+}
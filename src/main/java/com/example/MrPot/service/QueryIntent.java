@@ -0,0 +1,35 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.tools.ToolProfile;
+
+/**
+ * Coarse intent of a user question, decided before any retrieval happens.
+ */
+public enum QueryIntent {
+
+    /** "hi", "thanks", "bye" ... nothing to look up. */
+    GREETING(ToolProfile.BASIC_CHAT, false),
+
+    /** "how do I use this site" ... answered by the web guide tool. */
+    SITE_GUIDE(ToolProfile.BASIC_CHAT, false),
+
+    /** Everything else goes through the full RAG pipeline. */
+    KNOWLEDGE(ToolProfile.BASIC_CHAT, true);
+
+    private final ToolProfile toolProfile;
+    private final boolean needsRetrieval;
+
+    QueryIntent(ToolProfile toolProfile, boolean needsRetrieval) {
+        this.toolProfile = toolProfile;
+        this.needsRetrieval = needsRetrieval;
+    }
+
+    /** Tool profile that can serve this intent (used unless the request asks for another one). */
+    public ToolProfile toolProfile() {
+        return toolProfile;
+    }
+
+    public boolean needsRetrieval() {
+        return needsRetrieval;
+    }
+}
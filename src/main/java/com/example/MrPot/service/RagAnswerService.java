@@ -1,23 +1,51 @@
 package com.example.MrPot.service;
 
+import com.example.MrPot.config.AiConfig;
+import com.example.MrPot.config.RagPipelineProperties;
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.metrics.PipelineObservations;
+import com.example.MrPot.metrics.RagPipelineMetrics;
 import com.example.MrPot.model.RagAnswer;
 import com.example.MrPot.model.RagAnswerRequest;
 import com.example.MrPot.model.RagQueryRequest;
 import com.example.MrPot.model.RagRetrievalResult;
 import com.example.MrPot.model.ThinkingEvent;
+import com.example.MrPot.repository.VectorSearchProfile;
+import com.example.MrPot.resilience.AdaptiveConcurrencyLimiter;
+import com.example.MrPot.resilience.AdmissionLimiters;
+import com.example.MrPot.resilience.Bulkheads;
+import com.example.MrPot.resilience.LatencyBudget;
+import com.example.MrPot.routing.ChatClientRouter;
+import com.example.MrPot.routing.ModelCascade;
+import com.example.MrPot.tools.ToolCallbackCatalog;
 import com.example.MrPot.tools.ToolProfile;
-import com.example.MrPot.tools.ToolRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.SignalType;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -25,12 +53,28 @@ public class RagAnswerService {
 
     private final RagRetrievalService ragRetrievalService;
     private final RedisChatMemoryService chatMemoryService;
-    private final Map<String, ChatClient> chatClients;
-    private final ToolRegistry toolRegistry;
+    private final ChatClientRouter chatClientRouter;
+    private final ModelCascade modelCascade;
+    private final AdmissionLimiters admissionLimiters;
+    private final Bulkheads bulkheads;
+    private final IntentClassifier intentClassifier;
+    private final ToolCallbackCatalog toolCallbackCatalog;
+    private final RagPipelineMetrics pipelineMetrics;
+    private final PipelineObservations observations;
+    private final RagPipelineProperties pipelineProperties;
+    private final VectorSearchProperties vectorProperties;
+    private final MeterRegistry meterRegistry;
+
+    private static final Logger log = LoggerFactory.getLogger(RagAnswerService.class);
 
     private static final int DEFAULT_TOP_K = 3;
     private static final double DEFAULT_MIN_SCORE = 0.60;
 
+    // Stage names used for deadlines / degradation metrics
+    private static final String STAGE_HISTORY = "history";
+    private static final String STAGE_EMBEDDING = "embedding";
+    private static final String STAGE_VECTOR_SEARCH = "vector_search";
+
     /**
      * Non-streaming RAG answer:
      * - Retrieve related documents
@@ -39,24 +83,42 @@ public class RagAnswerService {
      * - Persist turn into Redis chat memory
      */
     public RagAnswer answer(RagAnswerRequest request) {
-        RagRetrievalResult retrieval = ragRetrievalService.retrieve(toQuery(request));
-        ChatClient chatClient = resolveClient(request.resolveModel());
-
-        RagAnswerRequest.ResolvedSession session = request.resolveSession();
-        var history = chatMemoryService.loadHistory(session.id());
-        String prompt = buildPrompt(request.question(), retrieval, chatMemoryService.renderHistory(history));
-
-        ToolProfile profile = request.resolveToolProfile(ToolProfile.BASIC_CHAT);
-        List<String> toolBeanNames = toolRegistry.getFunctionBeanNamesForProfile(profile);
-
-        var response = chatClient.prompt()
-                .system("You are Mr Pot, a helpful assistant. Use the provided context and chat history to answer succinctly.")
-                .user(prompt)
-                .call();
-
-        String answer = response.content();
-        chatMemoryService.appendTurn(session.id(), request.question(), answer, session.temporary());
-        return new RagAnswer(answer, retrieval.documents());
+        // Unknown collection -> 404 before anything else
+        ragRetrievalService.requireCollection(request.collection());
+
+        // Admission first: reject with 429 before paying for embedding / retrieval
+        ChatClientRouter.Route route = chatClientRouter.route(request.resolveModel());
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit = admissionLimiters.acquire(route.primary());
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            // Greetings / site-guide questions skip embedding + vector search entirely
+            QueryIntent intent = intentClassifier.classify(request.question()).intent();
+            ToolProfile profile = request.resolveToolProfile(intent.toolProfile());
+            Tags tags = pipelineMetrics.tags(route.primary(), profile);
+            RagRetrievalResult retrieval = intent.needsRetrieval()
+                    ? retrieveTimed(toQuery(request, null), tags, null)
+                    : skipRetrieval(request, intent);
+
+            RagAnswerRequest.ResolvedSession session = request.resolveSession();
+            var history = loadHistory(session.id(), tags, null);
+            String prompt = buildPromptTimed(request.question(), intent, retrieval, history, tags);
+
+            // Precomputed, guarded tool callbacks for this profile (timeouts, memoization, metrics)
+            List<ToolCallback> tools = toolCallbackCatalog.callbacksFor(profile);
+
+            String answer = modelCascade.isEnabled()
+                    ? callCascade(route, profile, intent, retrieval, prompt, tools, tags, permit)
+                    : callModel(route, tags, prompt, tools, null);
+            pipelineMetrics.time(RagPipelineMetrics.STAGE_HISTORY_APPEND, tags,
+                    () -> chatMemoryService.appendTurn(session.id(), request.question(), answer, session.temporary()));
+            success = true;
+            return new RagAnswer(answer, retrieval.documents());
+        } finally {
+            long elapsed = System.nanoTime() - startNanos;
+            boolean ok = success;
+            permit.ifPresent(p -> p.completeBlocking(elapsed, ok));
+        }
     }
 
     /**
@@ -64,28 +126,127 @@ public class RagAnswerService {
      * - This is your original stream method, kept as-is for backward compatibility.
      */
     public Flux<String> streamAnswer(RagAnswerRequest request) {
-        RagRetrievalResult retrieval = ragRetrievalService.retrieve(toQuery(request));
-        ChatClient chatClient = resolveClient(request.resolveModel());
+        ragRetrievalService.requireCollection(request.collection());
+        ChatClientRouter.Route route = chatClientRouter.route(request.resolveModel());
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit = admissionLimiters.acquire(route.primary());
+        long startNanos = System.nanoTime();
+        AtomicLong firstTokenNanos = new AtomicLong();
 
         RagAnswerRequest.ResolvedSession session = request.resolveSession();
-        var history = chatMemoryService.loadHistory(session.id());
-        String prompt = buildPrompt(request.question(), retrieval, chatMemoryService.renderHistory(history));
+        String prompt;
+        List<ToolCallback> tools;
+        Tags tags;
+        ModelCascade.Decision decision;
+        Tags fastTags;
+        Optional<AdaptiveConcurrencyLimiter.Permit> fastPermit;
+        try {
+            QueryIntent intent = intentClassifier.classify(request.question()).intent();
+            ToolProfile profile = request.resolveToolProfile(intent.toolProfile());
+            tags = pipelineMetrics.tags(route.primary(), profile);
+            tools = toolCallbackCatalog.callbacksFor(profile);
+            RagRetrievalResult retrieval = intent.needsRetrieval()
+                    ? retrieveTimed(toQuery(request, vectorProperties.getStreamProfile()), tags, null)
+                    : skipRetrieval(request, intent);
+            var history = loadHistory(session.id(), tags, null);
+            prompt = buildPromptTimed(request.question(), intent, retrieval, history, tags);
+            // Plain text cannot be taken back, so only the confidence decision applies here (no self-check)
+            FastAdmission admission = modelCascade.isEnabled()
+                    ? admitFast(modelCascade.decide(intent.needsRetrieval(), retrieval, false))
+                    : null;
+            decision = admission == null ? null : admission.decision();
+            fastPermit = admission == null ? Optional.empty() : admission.permit();
+            fastTags = decision != null && decision.fast() ? pipelineMetrics.tags(decision.route().primary(), profile) : null;
+        } catch (RuntimeException ex) {
+            // Nothing was generated yet: give the slot back without touching the limit
+            permit.ifPresent(AdaptiveConcurrencyLimiter.Permit::cancel);
+            throw ex;
+        }
 
         AtomicReference<StringBuilder> aggregate = new AtomicReference<>(new StringBuilder());
 
-        return chatClient.prompt()
-                .system("You are Mr Pot. Answer succinctly in the user's language using the given context and history.")
-                .user(prompt)
-                .stream()
-                .content()
-                // Collect all deltas so we can persist the full answer at the end
-                .doOnNext(delta -> aggregate.get().append(delta))
-                .doFinally(signalType -> chatMemoryService.appendTurn(
-                        session.id(),
-                        request.question(),
-                        aggregate.get().toString(),
-                        session.temporary()
-                ));
+        boolean fast = decision != null && decision.fast();
+
+        return Flux.defer(() -> {
+            ModelCascade.Tracker cascade = decision == null ? null : modelCascade.start(decision);
+            Flux<String> deltas = fast
+                    ? fastTextDeltas(decision, route, fastTags, tags, prompt, tools, permit, fastPermit, cascade, aggregate)
+                    : textDeltas(route, tags, prompt, tools, null, firstTokenNanos, aggregate);
+            return deltas
+                    .doFinally(signalType -> {
+                        if (cascade != null) {
+                            cascade.finish();
+                        }
+                        if (fast) {
+                            // Sampled by the escalated stream or already given back; this only covers early exits
+                            permit.ifPresent(AdaptiveConcurrencyLimiter.Permit::cancel);
+                        } else {
+                            releasePermit(permit, signalType, startNanos, firstTokenNanos);
+                        }
+                        pipelineMetrics.time(RagPipelineMetrics.STAGE_HISTORY_APPEND, tags,
+                                () -> chatMemoryService.appendTurn(
+                                        session.id(),
+                                        request.question(),
+                                        aggregate.get().toString(),
+                                        session.temporary()
+                                ));
+                    });
+        });
+    }
+
+    /**
+     * Plain-text deltas of one generation; usage-only chunks carry no text. All deltas are collected
+     * so the full answer can be persisted at the end.
+     */
+    private Flux<String> textDeltas(ChatClientRouter.Route route,
+                                    Tags tags,
+                                    String prompt,
+                                    List<ToolCallback> tools,
+                                    ChatOptions options,
+                                    AtomicLong firstTokenNanos,
+                                    AtomicReference<StringBuilder> aggregate) {
+        return Flux.defer(() -> {
+            RagPipelineMetrics.GenerationTracker generation = pipelineMetrics.startGeneration(tags);
+            return chatClientRouter.stream(route, chatClient ->
+                            spec(chatClient, prompt, tools, options).stream().chatResponse())
+                    .map(generation::onChunk)
+                    .filter(delta -> !delta.isEmpty())
+                    .doOnNext(delta -> {
+                        firstTokenNanos.compareAndSet(0L, System.nanoTime());
+                        aggregate.get().append(delta);
+                    })
+                    .doFinally(generation::finish);
+        });
+    }
+
+    /**
+     * Plain-text fast path. Text cannot be taken back, so there is no self-check, but the fast route has
+     * no failover of its own: a fast call that fails before its first delta escalates to the strong route
+     * (with its failover and hedging) under the request's permit. That permit is held in reserve until
+     * the fast stream emits its first delta.
+     */
+    private Flux<String> fastTextDeltas(ModelCascade.Decision decision,
+                                        ChatClientRouter.Route route,
+                                        Tags fastTags,
+                                        Tags tags,
+                                        String prompt,
+                                        List<ToolCallback> tools,
+                                        Optional<AdaptiveConcurrencyLimiter.Permit> permit,
+                                        Optional<AdaptiveConcurrencyLimiter.Permit> fastPermit,
+                                        ModelCascade.Tracker cascade,
+                                        AtomicReference<StringBuilder> aggregate) {
+        return releasing(fastPermit, firstToken ->
+                        textDeltas(decision.route(), fastTags, prompt, tools, modelCascade.fastOptions(), firstToken, aggregate))
+                // Release is idempotent, so only the first delta actually gives the strong slot back
+                .doOnNext(delta -> permit.ifPresent(AdaptiveConcurrencyLimiter.Permit::cancel))
+                .onErrorResume(ex -> {
+                    if (aggregate.get().length() > 0) {
+                        return Flux.error(ex);
+                    }
+                    log.warn("Cascade: fast model '{}' failed ({}), escalating", decision.route().primary(), ex.toString());
+                    cascade.escalate("fast_error");
+                    return releasing(permit, firstToken ->
+                            textDeltas(route, tags, prompt, tools, null, firstToken, aggregate));
+                });
     }
 
     /**
@@ -93,32 +254,103 @@ public class RagAnswerService {
      *
      * Stages:
      *  - "start": request accepted, pipeline initialized
-     *  - "redis": loaded previous conversation from Redis
-     *  - "rag": searched knowledge base for related documents
+     *  - "redis": loaded previous conversation from Redis (or skipped after its deadline)
+     *  - "rag": searched knowledge base for related documents (or skipped after its deadline)
      *  - "answer_delta": LLM token stream
      *  - "answer_final": final aggregated answer
      */
     public Flux<ThinkingEvent> streamAnswerWithLogic(RagAnswerRequest request) {
-        // --- Resolve session and client up front (cheap operations) ---
+        // --- Unknown collection -> 404 before the SSE stream is opened ---
+        ragRetrievalService.requireCollection(request.collection());
+
+        // --- Resolve session and provider route up front (cheap operations) ---
         RagAnswerRequest.ResolvedSession session = request.resolveSession();
-        ChatClient chatClient = resolveClient(request.resolveModel());
+        ChatClientRouter.Route route = chatClientRouter.route(request.resolveModel());
+
+        // --- Tracing: root span for the whole stream, stage spans hang off it explicitly ---
+        Observation root = observations.startRoot(route.primary());
+        Observation startSpan = observations.start(PipelineObservations.START, root);
+
+        // --- Admission control: throws (-> HTTP 429) before the SSE stream is opened ---
+        Optional<AdaptiveConcurrencyLimiter.Permit> permit;
+        try {
+            permit = admissionLimiters.acquire(route.primary());
+        } catch (RuntimeException ex) {
+            observations.fail(ex, startSpan, root);
+            throw ex;
+        }
+        long startNanos = System.nanoTime();
+        AtomicLong firstTokenNanos = new AtomicLong();
 
         // Per-subscription buffer for the aggregated answer text
         AtomicReference<StringBuilder> aggregate =
                 new AtomicReference<>(new StringBuilder());
 
+        // --- Latency budget: every pre-LLM stage gets a deadline capped by what is left ---
+        LatencyBudget budget = LatencyBudget.start(pipelineProperties.getLatencyBudget());
+        RagQueryRequest query;
+        IntentClassifier.Classification classification;
+        QueryIntent intent;
+        ToolProfile profile;
+        Tags tags;
+        List<ToolCallback> tools;
+        RagRetrievalResult noContext;
+        try {
+            query = toQuery(request, vectorProperties.getStreamProfile());
+
+            // --- Intent fast-path: greetings / site-guide questions never touch embedding or pgvector ---
+            classification = intentClassifier.classify(request.question());
+            intent = classification.intent();
+            profile = request.resolveToolProfile(intent.toolProfile());
+            tags = pipelineMetrics.tags(route.primary(), profile);
+            tools = toolCallbackCatalog.callbacksFor(profile);
+            noContext = ragRetrievalService.emptyResult(request.question());
+        } catch (RuntimeException ex) {
+            // Nothing was generated yet: give the slot back without touching the limit
+            permit.ifPresent(AdaptiveConcurrencyLimiter.Permit::cancel);
+            observations.fail(ex, startSpan, root);
+            throw ex;
+        }
+        startSpan.highCardinalityKeyValue("intent", intent.name());
+        startSpan.stop();
+
         // --- Async Redis history load ---
-        // Run on boundedElastic to avoid blocking main threads
-        Mono<List<RedisChatMemoryService.StoredMessage>> historyMono =
-                Mono.fromCallable(() -> chatMemoryService.loadHistory(session.id()))
-                        .subscribeOn(Schedulers.boundedElastic())
+        // Run on the chat-memory bulkhead so a slow pgvector cannot starve it (and vice versa).
+        // On timeout/error/rejection continue without history instead of stalling the answer.
+        Mono<StageOutcome<List<RedisChatMemoryService.StoredMessage>>> historyMono =
+                Mono.defer(() -> withDeadline(
+                                STAGE_HISTORY,
+                                Mono.fromCallable(() -> loadHistory(session.id(), tags, root))
+                                        .subscribeOn(bulkheads.chatMemory().scheduler()),
+                                budget.deadlineFor(pipelineProperties.getHistoryTimeout()),
+                                List.<RedisChatMemoryService.StoredMessage>of()
+                        ))
                         .cache(); // Ensure only one actual Redis call per subscription
 
-        // --- Async RAG retrieval ---
-        // Also run on boundedElastic since embedding + DB are blocking IO
-        Mono<RagRetrievalResult> retrievalMono =
-                Mono.fromCallable(() -> ragRetrievalService.retrieve(toQuery(request)))
-                        .subscribeOn(Schedulers.boundedElastic())
+        // --- Async RAG retrieval: embedding, then vector search ---
+        // Each blocking step runs on its own bulkhead (embedding HTTP / JDBC); with mrpot.r2dbc enabled
+        // the vector search is non-blocking and needs no bulkhead thread.
+        // On timeout/error/rejection continue without context.
+        Mono<StageOutcome<RagRetrievalResult>> retrievalMono = !intent.needsRetrieval()
+                ? Mono.fromSupplier(() -> StageOutcome.ok(skipRetrieval(request, intent)))
+                : Mono.defer(() -> withDeadline(
+                                STAGE_EMBEDDING,
+                                Mono.fromCallable(() -> embed(query, tags, root))
+                                        .subscribeOn(bulkheads.embedding().scheduler()),
+                                budget.deadlineFor(pipelineProperties.getEmbeddingTimeout()),
+                                null
+                        ))
+                        .flatMap(embedding -> embedding.degraded()
+                                ? Mono.just(StageOutcome.degraded(noContext, embedding.degradedStage(), embedding.reason()))
+                                : withDeadline(
+                                        STAGE_VECTOR_SEARCH,
+                                        ragRetrievalService.supportsReactive(query)
+                                                ? searchReactive(query, embedding.value(), tags, root)
+                                                : Mono.fromCallable(() -> searchTimed(query, embedding.value(), tags, root))
+                                                        .subscribeOn(bulkheads.vectorSearch().scheduler()),
+                                        budget.deadlineFor(pipelineProperties.getVectorSearchTimeout()),
+                                        noContext
+                                ))
                         .cache(); // Ensure only one actual retrieval per subscription
 
         // --- Stage 0: "start" -> fire immediately for ultra-low first-byte latency ---
@@ -126,7 +358,7 @@ public class RagAnswerService {
                 new ThinkingEvent(
                         "start",
                         "Request received. Initializing thinking pipeline.",
-                        Map.of("ts", System.currentTimeMillis())
+                        Map.of("ts", System.currentTimeMillis(), "provider", route.primary())
                 )
         );
 
@@ -135,8 +367,10 @@ public class RagAnswerService {
                 Flux.just(
                         new ThinkingEvent(
                                 "redis",
-                                "Combined with previous conversation; some context from Redis chat history.",
-                                summarizeHistory(history)
+                                history.degraded()
+                                        ? "Chat history unavailable in time; continuing without it."
+                                        : "Combined with previous conversation; some context from Redis chat history.",
+                                stagePayload("messages", summarizeHistory(history.value()), history)
                         )
                 )
         );
@@ -146,8 +380,12 @@ public class RagAnswerService {
                 Flux.just(
                         new ThinkingEvent(
                                 "rag",
-                                "Searching knowledge base for related content.",
-                                summarizeRetrieval(retrieval)
+                                !intent.needsRetrieval()
+                                        ? "No knowledge base search needed for this message."
+                                        : retrieval.degraded()
+                                        ? "Knowledge base unavailable in time; answering without retrieved context."
+                                        : "Searching knowledge base for related content.",
+                                ragPayload(retrieval, classification)
                         )
                 )
         );
@@ -156,41 +394,29 @@ public class RagAnswerService {
         Flux<ThinkingEvent> answerDeltaStep =
                 Mono.zip(historyMono, retrievalMono)
                         .flatMapMany(tuple -> {
-                            var history = tuple.getT1();
-                            var retrieval = tuple.getT2();
+                            var history = tuple.getT1().value();
+                            var retrieval = tuple.getT2().value();
 
-                            String historyText = chatMemoryService.renderHistory(history);
-                            String prompt = buildPrompt(
+                            String prompt = buildPromptTimed(
                                     request.question(),
+                                    intent,
                                     retrieval,
-                                    historyText
+                                    history,
+                                    tags
                             );
 
-                            return chatClient.prompt()
-                                    .system("You are Mr Pot, a helpful assistant. " +
-                                            "Answer succinctly in the user's language, " +
-                                            "using only the provided context and chat history.")
-                                    .user(prompt)
-                                    .stream()
-                                    .content()
-                                    .map(delta -> {
-                                        // Aggregate all deltas into a single final answer
-                                        aggregate.get().append(delta);
-                                        return new ThinkingEvent(
-                                                "answer_delta",
-                                                "Generating answer.",
-                                                delta
-                                        );
-                                    });
+                            if (!modelCascade.isEnabled()) {
+                                return streamDeltas(route, tags, prompt, tools, null, root, firstTokenNanos, aggregate);
+                            }
+                            ModelCascade.Decision decision =
+                                    modelCascade.decide(intent.needsRetrieval(), retrieval, tuple.getT2().degraded());
+                            return streamCascade(decision, route, profile, intent, retrieval, prompt, tools, tags,
+                                    root, permit, firstTokenNanos, aggregate);
                         })
                         .doFinally(signalType -> {
-                            // Persist the full answer in Redis chat memory once streaming finishes
-                            chatMemoryService.appendTurn(
-                                    session.id(),
-                                    request.question(),
-                                    aggregate.get().toString(),
-                                    session.temporary()
-                            );
+                            // Persist the full answer in Redis chat memory once streaming finishes,
+                            // off the LLM stream thread
+                            persistTurnAsync(session, request.question(), aggregate.get().toString(), tags, root);
                         });
 
         // --- Stage 4: "answer_final" -> emit the complete answer at the end ---
@@ -205,65 +431,462 @@ public class RagAnswerService {
         );
 
         // Final order:
-        //  start → redis → rag → answer_delta* → answer_final
-        return Flux.concat(startStep, redisStep, ragStep, answerDeltaStep, finalStep);
+        //  start → redis → rag → [cascade] → answer_delta* → [cascade → answer_delta*] → answer_final
+        // contextCapture() carries the caller's observation into the Reactor context so operators
+        // running on bulkhead / Netty threads still see it
+        return Flux.concat(startStep, redisStep, ragStep, answerDeltaStep, finalStep)
+                .doOnError(root::error)
+                .doFinally(signalType -> {
+                    // No-op when the cascade already released or sampled the permit (release is first-wins)
+                    releasePermit(permit, signalType, startNanos, firstTokenNanos);
+                    root.stop();
+                })
+                .contextCapture();
+    }
+
+    /**
+     * Shared prompt spec for every answer path: canonical system prompt, the profile's tools (sorted by
+     * name in the catalog), then the user message from buildPrompt. Options (the cascade's fast model)
+     * override the client's defaults for this call.
+     */
+    private static ChatClient.ChatClientRequestSpec spec(ChatClient chatClient,
+                                                         String prompt,
+                                                         List<ToolCallback> tools,
+                                                         ChatOptions options) {
+        ChatClient.ChatClientRequestSpec spec = chatClient.prompt()
+                .system(AiConfig.SYSTEM_PROMPT)
+                .user(prompt)
+                .toolCallbacks(tools);
+        return options == null ? spec : spec.options(options);
+    }
+
+    /**
+     * One blocking generation on a route (failover to its alternate, if any).
+     */
+    private String callModel(ChatClientRouter.Route route,
+                             Tags tags,
+                             String prompt,
+                             List<ToolCallback> tools,
+                             ChatOptions options) {
+        RagPipelineMetrics.GenerationTracker generation = pipelineMetrics.startGeneration(tags);
+        try {
+            String answer = generation.onResponse(chatClientRouter.call(route, chatClient ->
+                    spec(chatClient, prompt, tools, options).call().chatResponse()));
+            generation.finish("success");
+            return answer;
+        } catch (RuntimeException ex) {
+            generation.finish("error");
+            throw ex;
+        }
+    }
+
+    /**
+     * Fast-path decision after admission on the fast provider: its own permit, or the strong model
+     * when the fast provider has no free slot.
+     */
+    private record FastAdmission(ModelCascade.Decision decision, Optional<AdaptiveConcurrencyLimiter.Permit> permit) { }
+
+    private FastAdmission admitFast(ModelCascade.Decision decision) {
+        if (!decision.fast()) {
+            return new FastAdmission(decision, Optional.empty());
+        }
+        Optional<AdaptiveConcurrencyLimiter.Permit> fastPermit = admissionLimiters.tryAcquire(decision.route().primary());
+        if (admissionLimiters.isEnabled() && fastPermit.isEmpty()) {
+            return new FastAdmission(decision.shed(), Optional.empty());
+        }
+        return new FastAdmission(decision, fastPermit);
+    }
+
+    /**
+     * Blocking cascade: fast model when retrieval is confident, strong model (the request's route) when
+     * it is not, when the fast answer fails its self-check or when the fast call fails.
+     *
+     * The request's permit (strong provider) is held in reserve while the fast model runs under its own
+     * permit. A fast answer that is kept gives the strong slot back unsampled; an escalation samples the
+     * strong call alone, so neither limiter sees the other model's latency.
+     */
+    private String callCascade(ChatClientRouter.Route route,
+                               ToolProfile profile,
+                               QueryIntent intent,
+                               RagRetrievalResult retrieval,
+                               String prompt,
+                               List<ToolCallback> tools,
+                               Tags tags,
+                               Optional<AdaptiveConcurrencyLimiter.Permit> permit) {
+        FastAdmission admission = admitFast(modelCascade.decide(intent.needsRetrieval(), retrieval, false));
+        ModelCascade.Decision decision = admission.decision();
+        ModelCascade.Tracker cascade = modelCascade.start(decision);
+        try {
+            if (!decision.fast()) {
+                return callModel(route, tags, prompt, tools, null);
+            }
+            long fastStart = System.nanoTime();
+            boolean fastOk = false;
+            try {
+                String answer = callModel(decision.route(), pipelineMetrics.tags(decision.route().primary(), profile),
+                        prompt, tools, modelCascade.fastOptions());
+                fastOk = true;
+                ModelCascade.Check check = modelCascade.check(answer, retrieval, intent.needsRetrieval());
+                if (check.passed()) {
+                    permit.ifPresent(AdaptiveConcurrencyLimiter.Permit::cancel);
+                    return answer;
+                }
+                cascade.escalate(check.reason());
+            } catch (RuntimeException ex) {
+                log.warn("Cascade: fast model '{}' failed ({}), escalating", decision.route().primary(), ex.toString());
+                cascade.escalate("fast_error");
+            } finally {
+                long elapsed = System.nanoTime() - fastStart;
+                boolean ok = fastOk;
+                admission.permit().ifPresent(p -> p.completeBlocking(elapsed, ok));
+            }
+
+            long strongStart = System.nanoTime();
+            boolean strongOk = false;
+            try {
+                String answer = callModel(route, tags, prompt, tools, null);
+                strongOk = true;
+                return answer;
+            } finally {
+                long elapsed = System.nanoTime() - strongStart;
+                boolean ok = strongOk;
+                permit.ifPresent(p -> p.completeBlocking(elapsed, ok));
+            }
+        } finally {
+            cascade.finish();
+        }
+    }
+
+    /**
+     * Generation on a route as "answer_delta" events. Routed (and optionally hedged) across providers;
+     * only the winner's deltas arrive here.
+     */
+    private Flux<ThinkingEvent> streamDeltas(ChatClientRouter.Route route,
+                                             Tags tags,
+                                             String prompt,
+                                             List<ToolCallback> tools,
+                                             ChatOptions options,
+                                             Observation root,
+                                             AtomicLong firstTokenNanos,
+                                             AtomicReference<StringBuilder> aggregate) {
+        return Flux.defer(() -> {
+            RagPipelineMetrics.GenerationTracker generation = pipelineMetrics.startGeneration(tags);
+            Flux<ChatResponse> responses = chatClientRouter.stream(route, chatClient ->
+                    spec(chatClient, prompt, tools, options).stream().chatResponse());
+            return observations.observeLlm(root, generation, responses)
+                    .map(generation::onChunk)
+                    .filter(delta -> !delta.isEmpty())
+                    .doFinally(generation::finish)
+                    .map(delta -> {
+                        firstTokenNanos.compareAndSet(0L, System.nanoTime());
+                        // Aggregate all deltas into a single final answer
+                        aggregate.get().append(delta);
+                        return new ThinkingEvent(
+                                "answer_delta",
+                                "Generating answer.",
+                                delta
+                        );
+                    });
+        });
+    }
+
+    /**
+     * Streaming cascade. A "cascade" event announces the chosen path before the first delta. The fast
+     * answer streams as usual; if it then fails its self-check (or the fast call fails), a second "cascade"
+     * event with discardPrevious=true tells the client to drop the deltas so far, and the strong model's
+     * answer follows (and is what answer_final and chat memory get).
+     *
+     * Permits as in callCascade: the fast stream runs under its own permit, the request's (strong) permit
+     * is given back unsampled when the fast answer is kept and sampled by the escalated stream alone.
+     */
+    private Flux<ThinkingEvent> streamCascade(ModelCascade.Decision proposed,
+                                              ChatClientRouter.Route route,
+                                              ToolProfile profile,
+                                              QueryIntent intent,
+                                              RagRetrievalResult retrieval,
+                                              String prompt,
+                                              List<ToolCallback> tools,
+                                              Tags tags,
+                                              Observation root,
+                                              Optional<AdaptiveConcurrencyLimiter.Permit> permit,
+                                              AtomicLong firstTokenNanos,
+                                              AtomicReference<StringBuilder> aggregate) {
+        FastAdmission admission = admitFast(proposed);
+        ModelCascade.Decision decision = admission.decision();
+        ModelCascade.Tracker cascade = modelCascade.start(decision);
+        ThinkingEvent chosen = new ThinkingEvent(
+                "cascade",
+                decision.fast() ? "Answering with the fast model." : "Answering with the strong model.",
+                decision.payload());
+        if (!decision.fast()) {
+            return Flux.concat(Flux.just(chosen),
+                            streamDeltas(route, tags, prompt, tools, null, root, firstTokenNanos, aggregate))
+                    .doFinally(signalType -> cascade.finish());
+        }
+
+        AtomicBoolean fastFailed = new AtomicBoolean();
+        Flux<ThinkingEvent> fast = releasing(admission.permit(), firstToken ->
+                streamDeltas(decision.route(), pipelineMetrics.tags(decision.route().primary(), profile),
+                        prompt, tools, modelCascade.fastOptions(), root, firstToken, aggregate))
+                .onErrorResume(ex -> {
+                    log.warn("Cascade: fast model '{}' failed ({}), escalating", decision.route().primary(), ex.toString());
+                    fastFailed.set(true);
+                    return Flux.empty();
+                });
+        Flux<ThinkingEvent> escalation = Flux.defer(() -> {
+            ModelCascade.Check check = fastFailed.get()
+                    ? new ModelCascade.Check(false, "fast_error", 0.0)
+                    : modelCascade.check(aggregate.get().toString(), retrieval, intent.needsRetrieval());
+            if (check.passed()) {
+                permit.ifPresent(AdaptiveConcurrencyLimiter.Permit::cancel);
+                return Flux.<ThinkingEvent>empty();
+            }
+            cascade.escalate(check.reason());
+            aggregate.set(new StringBuilder());
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("path", "escalated");
+            payload.put("reason", check.reason());
+            payload.put("grounding", check.grounding());
+            payload.put("provider", route.primary());
+            payload.put("discardPrevious", true);
+            return Flux.concat(
+                    Flux.just(new ThinkingEvent("cascade",
+                            "Fast answer did not pass the self-check; answering with the strong model.", payload)),
+                    releasing(permit, firstToken ->
+                            streamDeltas(route, tags, prompt, tools, null, root, firstToken, aggregate)));
+        });
+        return Flux.concat(Flux.just(chosen), fast, escalation)
+                .doFinally(signalType -> cascade.finish());
     }
 
     /**
      * Convert a high-level RAG answer request into a retrieval-only query.
+     * A null fallback profile leaves the choice to the repository default.
      */
-    private RagQueryRequest toQuery(RagAnswerRequest request) {
+    private RagQueryRequest toQuery(RagAnswerRequest request, VectorSearchProfile fallbackProfile) {
+        VectorSearchProfile profile = request.resolveSearchProfile(fallbackProfile);
         return new RagQueryRequest(
                 request.question(),
                 request.resolveTopK(DEFAULT_TOP_K),
-                request.resolveMinScore(DEFAULT_MIN_SCORE)
+                request.resolveMinScore(DEFAULT_MIN_SCORE),
+                profile == null ? null : profile.name(),
+                null,
+                request.collection()
         );
     }
 
     /**
-     * Resolve ChatClient bean based on requested model identifier.
-     * Supported lookup keys:
-     *  - "<model>ChatClient"
-     *  - "<model>"
-     * Fallback:
-     *  - default model "ChatClient"
-     *  - any available ChatClient if nothing matches
+     * Retrieval skipped by the intent fast-path; counted so we can see how much it saves.
      */
-    private ChatClient resolveClient(String model) {
-        String key = Optional.ofNullable(model)
-                .map(String::toLowerCase)
-                .orElse(RagAnswerRequest.DEFAULT_MODEL);
-        if (!chatClients.isEmpty()) {
-            if (chatClients.containsKey(key + "ChatClient")) {
-                return chatClients.get(key + "ChatClient");
-            }
-            if (chatClients.containsKey(key)) {
-                return chatClients.get(key);
-            }
-        }
-        ChatClient fallback = chatClients.get(RagAnswerRequest.DEFAULT_MODEL + "ChatClient");
-        if (fallback != null) {
-            return fallback;
-        }
-        return chatClients.values().stream().findFirst()
-                .orElseThrow(() -> new IllegalStateException("No ChatClient beans are available"));
+    private RagRetrievalResult skipRetrieval(RagAnswerRequest request, QueryIntent intent) {
+        meterRegistry.counter("mrpot.intent.retrieval.skipped", "intent", intent.name()).increment();
+        return ragRetrievalService.emptyResult(request.question());
     }
 
     /**
-     * Build the combined prompt:
-     *  - textual conversation history
-     *  - retrieved KB context
-     *  - user question
+     * Embedding + vector search with a timer and a span around each stage (blocking paths).
+     * A null parent span attaches the stage spans to the observation current on this thread.
      */
-    private String buildPrompt(String question, RagRetrievalResult retrieval, String historyText) {
+    private RagRetrievalResult retrieveTimed(RagQueryRequest query, Tags tags, Observation parent) {
+        return searchTimed(query, embed(query, tags, parent), tags, parent);
+    }
+
+    private float[] embed(RagQueryRequest query, Tags tags, Observation parent) {
+        return observations.observe(PipelineObservations.EMBED, parent,
+                () -> pipelineMetrics.time(RagPipelineMetrics.STAGE_EMBEDDING, tags,
+                        () -> ragRetrievalService.embed(query.question())));
+    }
+
+    private RagRetrievalResult searchTimed(RagQueryRequest query, float[] embedding, Tags tags, Observation parent) {
+        RagRetrievalResult retrieval = observations.observe(PipelineObservations.VECTOR, parent,
+                () -> pipelineMetrics.time(RagPipelineMetrics.STAGE_VECTOR_SEARCH, tags,
+                        () -> ragRetrievalService.retrieve(query, embedding)));
+        pipelineMetrics.recordRetrieval(retrieval, tags);
+        return retrieval;
+    }
+
+    /**
+     * Same stage as {@link #searchTimed} on the R2DBC repository. The span is put into the Reactor
+     * context so retrieval annotations land on it whichever thread the rows arrive on.
+     */
+    private Mono<RagRetrievalResult> searchReactive(RagQueryRequest query, float[] embedding, Tags tags, Observation parent) {
+        return Mono.defer(() -> {
+            Observation span = observations.start(PipelineObservations.VECTOR, parent);
+            long startNanos = System.nanoTime();
+            return ragRetrievalService.retrieveReactive(query, embedding)
+                    .doOnNext(retrieval -> {
+                        pipelineMetrics.record(RagPipelineMetrics.STAGE_VECTOR_SEARCH, tags, System.nanoTime() - startNanos);
+                        pipelineMetrics.recordRetrieval(retrieval, tags);
+                    })
+                    .doOnError(span::error)
+                    .doFinally(signalType -> {
+                        span.highCardinalityKeyValue("outcome", signalType.name());
+                        span.stop();
+                    })
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, span));
+        });
+    }
+
+    private List<RedisChatMemoryService.StoredMessage> loadHistory(String sessionId, Tags tags, Observation parent) {
+        return observations.observe(PipelineObservations.REDIS, parent, () -> {
+            var history = pipelineMetrics.time(RagPipelineMetrics.STAGE_HISTORY_LOAD, tags,
+                    () -> chatMemoryService.loadHistory(sessionId));
+            observations.annotate("messages", history.size());
+            return history;
+        });
+    }
+
+    private String buildPromptTimed(String question,
+                                    QueryIntent intent,
+                                    RagRetrievalResult retrieval,
+                                    List<RedisChatMemoryService.StoredMessage> history,
+                                    Tags tags) {
+        String prompt = pipelineMetrics.time(RagPipelineMetrics.STAGE_PROMPT_BUILD, tags,
+                () -> buildPrompt(question, intent, retrieval, chatMemoryService.renderHistory(history)));
+        pipelineMetrics.recordPrompt(prompt, tags);
+        return prompt;
+    }
+
+    /**
+     * Build the user message, most stable part first so consecutive turns of a session share a prefix
+     * that providers can serve from their prompt cache:
+     *  - textual conversation history (only grows within a session)
+     *  - retrieved KB context (full RAG path only)
+     *  - user question, then the intent-specific instruction (fast-path only)
+     * General answering instructions live in AiConfig.SYSTEM_PROMPT, ahead of everything here.
+     *
+     * Package-private and static for the JMH benchmarks in src/jmh.
+     */
+    static String buildPrompt(String question, QueryIntent intent, RagRetrievalResult retrieval, String historyText) {
         StringBuilder sb = new StringBuilder();
         sb.append("Conversation History:\n").append(historyText).append("\n\n");
+        if (!intent.needsRetrieval()) {
+            // Minimal prompt for the fast-path: no context section at all
+            sb.append("User Message: ").append(question).append("\n");
+            sb.append(intent == QueryIntent.SITE_GUIDE
+                    ? "The user wants help using this website. Use the web guide tool to walk them through it."
+                    : "Reply briefly and warmly, and offer help.");
+            return sb.toString();
+        }
         sb.append("Retrieved Context:\n").append(retrieval.context()).append("\n\n");
-        sb.append("User Question: ").append(question).append("\n");
-        sb.append("Answer with clear and concise. You can infer based on info.");
+        sb.append("User Question: ").append(question);
         return sb.toString();
     }
 
+    /**
+     * Append the finished turn on the chat-memory bulkhead. If the bulkhead is saturated
+     * the write happens inline rather than losing the turn.
+     */
+    private void persistTurnAsync(RagAnswerRequest.ResolvedSession session,
+                                  String question,
+                                  String answer,
+                                  Tags tags,
+                                  Observation parent) {
+        Runnable write = () -> observations.observe(PipelineObservations.PERSIST, parent,
+                () -> pipelineMetrics.time(RagPipelineMetrics.STAGE_HISTORY_APPEND, tags,
+                        () -> chatMemoryService.appendTurn(session.id(), question, answer, session.temporary())));
+        try {
+            bulkheads.chatMemory().executor().execute(() -> {
+                try {
+                    write.run();
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to persist chat turn for session '{}': {}", session.id(), ex.toString());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            write.run();
+        }
+    }
+
+    /**
+     * Run one generation under its own permit, sampled from subscription to its first token.
+     * Terminal signals release before they travel downstream (doFinally would run after the caller's
+     * own fallback release, which then wins), cancellation gives the slot back unsampled.
+     */
+    private <T> Flux<T> releasing(Optional<AdaptiveConcurrencyLimiter.Permit> permit,
+                                  Function<AtomicLong, Flux<T>> generation) {
+        return Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicLong firstTokenNanos = new AtomicLong();
+            return generation.apply(firstTokenNanos)
+                    .doOnComplete(() -> releasePermit(permit, SignalType.ON_COMPLETE, startNanos, firstTokenNanos))
+                    .doOnError(ex -> releasePermit(permit, SignalType.ON_ERROR, startNanos, firstTokenNanos))
+                    .doOnCancel(() -> releasePermit(permit, SignalType.CANCEL, startNanos, firstTokenNanos));
+        });
+    }
+
+    /**
+     * Give the admission slot back. The latency sample fed into the adaptive limit is the
+     * time to first token when one arrived, otherwise the total time.
+     */
+    private void releasePermit(Optional<AdaptiveConcurrencyLimiter.Permit> permit,
+                               SignalType signalType,
+                               long startNanos,
+                               AtomicLong firstTokenNanos) {
+        permit.ifPresent(p -> {
+            if (signalType == SignalType.CANCEL) {
+                p.cancel();
+                return;
+            }
+            long end = firstTokenNanos.get() != 0L ? firstTokenNanos.get() : System.nanoTime();
+            p.complete(end - startNanos, signalType == SignalType.ON_COMPLETE);
+        });
+    }
+
+    /**
+     * Apply a stage deadline; on timeout or failure emit the fallback instead of an error
+     * and count the degradation.
+     */
+    private <T> Mono<StageOutcome<T>> withDeadline(String stage, Mono<T> source, Duration deadline, T fallback) {
+        return source
+                .timeout(deadline)
+                .map(StageOutcome::ok)
+                .onErrorResume(ex -> {
+                    String reason = ex instanceof TimeoutException ? "timeout"
+                            : ex instanceof RejectedExecutionException ? "rejected"
+                            : "error";
+                    log.warn("RAG pipeline stage '{}' degraded ({}, deadline={}ms): {}",
+                            stage, reason, deadline.toMillis(), ex.toString());
+                    meterRegistry.counter("mrpot.pipeline.degraded", "stage", stage, "reason", reason)
+                            .increment();
+                    return Mono.just(StageOutcome.degraded(fallback, stage, reason));
+                });
+    }
+
+    /**
+     * Wrap a stage summary together with its degradation flag for the ThinkingEvent payload.
+     */
+    private Map<String, Object> stagePayload(String itemsKey, Object items, StageOutcome<?> outcome) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put(itemsKey, items);
+        payload.put("degraded", outcome.degraded());
+        if (outcome.degraded()) {
+            payload.put("degradedStage", outcome.degradedStage());
+            payload.put("reason", outcome.reason());
+        }
+        return payload;
+    }
+
+    /**
+     * "rag" payload: retrieval summary + degradation flag, and the intent when retrieval was skipped.
+     */
+    private Map<String, Object> ragPayload(StageOutcome<RagRetrievalResult> retrieval,
+                                           IntentClassifier.Classification classification) {
+        Map<String, Object> payload = stagePayload("documents", summarizeRetrieval(retrieval.value()), retrieval);
+        if (retrieval.value() != null && retrieval.value().efSearch() != null) {
+            payload.put("efSearch", retrieval.value().efSearch());
+        }
+        if (retrieval.value() != null && retrieval.value().tokensSaved() != null) {
+            payload.put("tokensSaved", retrieval.value().tokensSaved());
+        }
+        if (!classification.intent().needsRetrieval()) {
+            payload.put("skipped", true);
+            payload.put("intent", classification.intent().name());
+            payload.put("intentSource", classification.source());
+        }
+        return payload;
+    }
+
     /**
      * Summarize chat history for UI / debug payload.
      * Only keeps the last N messages to avoid huge payloads.
@@ -288,7 +911,7 @@ public class RagAnswerService {
      * Summarize retrieval result for UI / debug payload.
      * Sends basic metadata and a short preview of each matched document.
      */
-    private List<Map<String, Object>> summarizeRetrieval(RagRetrievalResult retrieval) {
+    static List<Map<String, Object>> summarizeRetrieval(RagRetrievalResult retrieval) {
         if (retrieval == null || retrieval.documents() == null || retrieval.documents().isEmpty()) {
             return List.of();
         }
@@ -1,17 +1,26 @@
 package com.example.MrPot.service;
 
+import com.example.MrPot.metrics.PipelineObservations;
+import com.example.MrPot.model.DocumentFilter;
 import com.example.MrPot.model.RagQueryRequest;
 import com.example.MrPot.model.RagRetrievalResult;
 import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import com.example.MrPot.repository.KbCollections;
 import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.repository.ReactiveKbDocumentVectorRepository;
+import com.example.MrPot.repository.VectorSearchProfile;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -54,8 +63,20 @@ public class RagRetrievalService {
      */
     private static final double ABSOLUTE_FLOOR_SCORE = 0.25;
 
+    /** Approximate length of one 【docId=..., type=..., score=...】 header plus separators. */
+    private static final int CONTEXT_HEADER_CHARS = 48;
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    /** Context placeholder used when nothing was retrieved (or retrieval was skipped). */
+    public static final String NO_RESULTS = "(no results)";
+
     private final EmbeddingModel embeddingModel;
-    private final KbDocumentVectorRepository kbRepository;
+    private final KbCollections kbCollections;
+    private final PipelineObservations observations;
+    private final ObjectProvider<ReactiveKbDocumentVectorRepository> reactiveRepository;
+    private final ContextDiversifier contextDiversifier;
+    private final ContextCompressor contextCompressor;
 
     /**
      * Core retrieval method:
@@ -64,7 +85,7 @@ public class RagRetrievalService {
      * 3. Query vector store
      * 4. Compute dynamic min score
      * 5. Filter by dynamic min score
-     * 6. Build LLM context
+     * 6. Build LLM context (long documents reduced to their passages closest to the question)
      *
      * @param request RAG query request from client
      * @return retrieval result including:
@@ -73,22 +94,117 @@ public class RagRetrievalService {
      *         - formatted context string for LLM
      */
     public RagRetrievalResult retrieve(RagQueryRequest request) {
-        // 1. Get user question
-        String question = request.question();
+        // 1-2. Get user question and generate query embedding
+        float[] queryEmbedding = embed(request.question());
 
-        // 2. Generate query embedding from the question
-        float[] queryEmbedding = embeddingModel.embed(question);
+        return retrieve(request, queryEmbedding);
+    }
+
+    /**
+     * Embedding stage only, so callers can put their own deadline around it.
+     */
+    public float[] embed(String question) {
+        return embeddingModel.embed(question);
+    }
 
+    /**
+     * Vector search + filtering stage for an already computed query embedding.
+     */
+    public RagRetrievalResult retrieve(RagQueryRequest request, float[] queryEmbedding) {
         // 3. Resolve retrieval parameters
         int topK = request.resolveTopK(DEFAULT_TOP_K);
-        double requestedMinScore = request.resolveMinScore(DEFAULT_MIN_SCORE);
 
-        // 4. Query vector store for topK nearest documents
-        List<ScoredDocument> retrieved = kbRepository.findNearest(queryEmbedding, topK);
+        // Null profile -> repository default (mrpot.vector.default-profile)
+        // Route to the request's collection (own table, possibly its own database); unknown -> 404
+        KbDocumentVectorRepository kbRepository = kbCollections.repository(request.collection());
+
+        VectorSearchProfile profile = request.resolveSearchProfile(null);
+        DocumentFilter filter = request.resolveFilter();
+        // MMR picks topK out of a larger candidate set
+        int candidates = contextDiversifier.candidateCount(topK);
+        int efSearch = kbRepository.efSearch(profile, candidates);
+
+        // 4. Query vector store for the nearest candidates (filters are pushed into the query)
+        List<ScoredDocument> retrieved = kbRepository.findNearest(queryEmbedding, candidates, profile, filter,
+                contextDiversifier.needsEmbeddings());
+
+        RagRetrievalResult result = filterRetrieved(request, retrieved, efSearch);
+
+        // 10. Compression: stored passages of the long documents, scored against the same query embedding
+        List<Long> targets = contextCompressor.targets(result.documents());
+        if (targets.isEmpty()) {
+            return result;
+        }
+        try {
+            return compress(result, kbRepository.findPassages(queryEmbedding, targets));
+        } catch (RuntimeException ex) {
+            log.warn("Context compression skipped: {}", ex.toString());
+            return result;
+        }
+    }
+
+    /**
+     * True when the R2DBC repository is configured (mrpot.r2dbc.enabled) and the request targets
+     * the default collection, the only one it serves.
+     */
+    public boolean supportsReactive(RagQueryRequest request) {
+        return reactiveRepository.getIfAvailable() != null
+                && KbCollections.DEFAULT.equals(kbCollections.resolve(request.collection()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #retrieve(RagQueryRequest, float[])}: same query and filtering,
+     * but no thread is parked on a JDBC connection while Postgres works. Check {@link #supportsReactive} first.
+     */
+    public Mono<RagRetrievalResult> retrieveReactive(RagQueryRequest request, float[] queryEmbedding) {
+        ReactiveKbDocumentVectorRepository repository = reactiveRepository.getIfAvailable();
+        if (repository == null) {
+            return Mono.error(new IllegalStateException("Reactive vector search is not enabled (mrpot.r2dbc.enabled)"));
+        }
+        int topK = request.resolveTopK(DEFAULT_TOP_K);
+        VectorSearchProfile profile = request.resolveSearchProfile(null);
+        DocumentFilter filter = request.resolveFilter();
+        int candidates = contextDiversifier.candidateCount(topK);
+        int efSearch = repository.efSearch(profile, candidates);
+
+        return repository.findNearest(queryEmbedding, candidates, profile, filter, contextDiversifier.needsEmbeddings())
+                .collectList()
+                .map(retrieved -> filterRetrieved(request, retrieved, efSearch))
+                .flatMap(result -> {
+                    List<Long> targets = contextCompressor.targets(result.documents());
+                    if (targets.isEmpty()) {
+                        return Mono.just(result);
+                    }
+                    return repository.findPassages(queryEmbedding, targets)
+                            .collectList()
+                            .map(passages -> compress(result, passages))
+                            .onErrorResume(ex -> {
+                                log.warn("Context compression skipped: {}", ex.toString());
+                                return Mono.just(result);
+                            });
+                });
+    }
+
+    /**
+     * Steps 5-8, shared by the blocking and reactive paths.
+     */
+    private RagRetrievalResult filterRetrieved(RagQueryRequest request, List<ScoredDocument> retrieved, int efSearch) {
+        String question = request.question();
+        int topK = request.resolveTopK(DEFAULT_TOP_K);
+        double requestedMinScore = request.resolveMinScore(DEFAULT_MIN_SCORE);
+        DocumentFilter filter = request.resolveFilter();
 
+        observations.annotate("collection", kbCollections.resolve(request.collection()));
+        observations.annotate("topK", topK);
+        observations.annotate("efSearch", efSearch);
+        if (!filter.isEmpty()) {
+            observations.annotate("filter.docTypes", filter.docTypes());
+            observations.annotate("filter.metadataKeys", filter.metadata().keySet());
+        }
         if (retrieved == null || retrieved.isEmpty()) {
             log.debug("RAG retrieval: no documents found for question='{}'", question);
-            return new RagRetrievalResult(question, List.of(), "(no results)");
+            observations.annotate("docs", 0);
+            return new RagRetrievalResult(question, List.of(), NO_RESULTS, efSearch);
         }
 
         // Ensure we know the top score (assumes descending order; otherwise compute max)
@@ -116,16 +232,73 @@ public class RagRetrievalService {
             filtered = List.of(retrieved.get(0));
         }
 
-        // 8. Build textual context for LLM consumption
+        // 8. Near-duplicate suppression / MMR. Baseline for the savings estimate is what plain
+        //    score order would have put into the prompt.
+        List<ScoredDocument> baseline = filtered.size() > topK ? filtered.subList(0, topK) : filtered;
+        Integer tokensSaved = null;
+        if (contextDiversifier.isEnabled()) {
+            ContextDiversifier.Result diversified = contextDiversifier.diversify(filtered, topK);
+            tokensSaved = Math.max(0, estimateTokens(baseline) - estimateTokens(diversified.documents()));
+            filtered = diversified.documents();
+            observations.annotate("docs.duplicates", diversified.duplicates());
+            observations.annotate("docs.redundant", diversified.redundant());
+            observations.annotate("tokensSaved", tokensSaved);
+        } else {
+            filtered = baseline;
+        }
+        // Embeddings were only fetched for MMR; do not carry ~1536 floats per document further
+        filtered.forEach(doc -> doc.document().setEmbedding(null));
+
+        observations.annotate("minScore.effective", effectiveMinScore);
+        observations.annotate("docs", filtered.size());
+
+        // 9. Build textual context for LLM consumption
         String context = buildContext(filtered);
 
         return new RagRetrievalResult(
                 question,
                 filtered,
-                context
+                context,
+                efSearch,
+                tokensSaved
         );
     }
 
+    /**
+     * Step 10, shared by the blocking and reactive paths: rebuilds the context with excerpts of the long
+     * documents. The documents themselves (and API responses listing them) keep their full content.
+     */
+    private RagRetrievalResult compress(RagRetrievalResult result, List<ScoredPassage> passages) {
+        ContextCompressor.Result compressed = contextCompressor.compress(result.documents(), passages);
+        observations.annotate("docs.compressed", compressed.excerpts().size());
+        if (compressed.excerpts().isEmpty()) {
+            return result;
+        }
+        int tokensSaved = (result.tokensSaved() == null ? 0 : result.tokensSaved()) + compressed.tokensSaved();
+        observations.annotate("tokensSaved", tokensSaved);
+        return new RagRetrievalResult(
+                result.question(),
+                result.documents(),
+                buildContext(result.documents(), compressed.excerpts()),
+                result.efSearch(),
+                tokensSaved
+        );
+    }
+
+    /**
+     * Fail fast for a collection this deployment does not host (null/blank is the default collection).
+     */
+    public void requireCollection(String collection) {
+        kbCollections.repository(collection);
+    }
+
+    /**
+     * Result used when there is nothing to put into the prompt.
+     */
+    public RagRetrievalResult emptyResult(String question) {
+        return new RagRetrievalResult(question, List.of(), NO_RESULTS);
+    }
+
     /**
      * Compute a dynamic minimum score based on:
      *  - user/default requestedMinScore
@@ -138,8 +311,10 @@ public class RagRetrievalService {
      *  - If topScore < requestedMinScore (all scores "low", e.g. around 0.4):
      *      relax the threshold but still keep a floor, based on:
      *         max(ABSOLUTE_FLOOR_SCORE, topScore - margin)
+     *
+     * Package-private for the JMH benchmarks in src/jmh.
      */
-    private double computeDynamicMinScore(double requestedMinScore, double topScore) {
+    static double computeDynamicMinScore(double requestedMinScore, double topScore) {
         double dynamicMinScore;
 
         if (topScore >= requestedMinScore) {
@@ -164,6 +339,19 @@ public class RagRetrievalService {
         return dynamicMinScore;
     }
 
+    /**
+     * Rough prompt-token estimate of the context {@link #buildContext} builds for these documents
+     * (header + content, about four characters per token).
+     */
+    static int estimateTokens(List<ScoredDocument> docs) {
+        long chars = 0;
+        for (ScoredDocument doc : docs) {
+            String content = doc.document().getContent();
+            chars += CONTEXT_HEADER_CHARS + (content == null ? 0 : content.length());
+        }
+        return (int) (chars / CHARS_PER_TOKEN);
+    }
+
     /**
      * Convert a list of scored documents into a single context string
      * that can be injected into an LLM system prompt.
@@ -179,8 +367,15 @@ public class RagRetrievalService {
      * @return concatenated context string
      */
     public String buildContext(List<ScoredDocument> docs) {
+        return buildContext(docs, Map.of());
+    }
+
+    /**
+     * Same, with the content of the documents in excerpts (by id) replaced by their excerpt.
+     */
+    public String buildContext(List<ScoredDocument> docs, Map<Long, String> excerpts) {
         if (docs == null || docs.isEmpty()) {
-            return "(no results)";
+            return NO_RESULTS;
         }
 
         return docs.stream()
@@ -190,7 +385,7 @@ public class RagRetrievalService {
                             + ", type=" + doc.getDocType()
                             + ", score=" + String.format(Locale.US, "%.3f", d.score())
                             + "】\n"
-                            + doc.getContent();
+                            + (doc.getId() == null ? doc.getContent() : excerpts.getOrDefault(doc.getId(), doc.getContent()));
                 })
                 .collect(Collectors.joining("\n\n"));
     }
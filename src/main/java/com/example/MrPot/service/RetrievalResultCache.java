@@ -0,0 +1,162 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.RetrievalCacheProperties;
+import com.example.MrPot.model.RagQueryRequest;
+import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.repository.KbCollections;
+import com.example.MrPot.repository.KbVersionTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bounded LRU of retrieval results for GET /api/rag/retrieve (mrpot.retrieval.cache.*).
+ *
+ * Keys combine the collection, the normalized question (NFKC, lower case, collapsed whitespace, no trailing
+ * ?!.。 punctuation), topK, minScore and the collection table's current KB version. A KB change bumps the
+ * version (KbVersionTracker), so older entries and ETags simply stop matching and age out. The ETag is
+ * derived from the key and the response shape, which lets a revalidation be answered with 304 before any
+ * embedding or vector query. Nothing is cached while the version is unknown or the collection lives on
+ * its own database.
+ *
+ * Outcomes are counted in mrpot.retrieval.cache{result=hit|miss|not_modified|bypass}.
+ */
+@Component
+public class RetrievalResultCache {
+
+    private record Entry(RagRetrievalResult result, long expiresAtNanos) { }
+
+    /**
+     * @param key  cache key (includes the KB version)
+     * @param etag weak ETag of the response for this key, view and context flag
+     */
+    public record Key(String key, String etag) { }
+
+    private final RetrievalCacheProperties properties;
+    private final KbVersionTracker versionTracker;
+    private final KbCollections kbCollections;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Entry> entries;
+
+    public RetrievalResultCache(RetrievalCacheProperties properties,
+                                KbVersionTracker versionTracker,
+                                KbCollections kbCollections,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.versionTracker = versionTracker;
+        this.kbCollections = kbCollections;
+        this.meterRegistry = meterRegistry;
+        int maxEntries = Math.max(1, properties.getMaxEntries());
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Key for a request, or null when it must not be cached (cache off, version unknown, sharded collection).
+     */
+    public Key key(RagQueryRequest request, String view, boolean includeContext) {
+        if (!properties.isEnabled() || !kbCollections.isOnPrimary(request.collection())) {
+            count("bypass");
+            return null;
+        }
+        String collection = kbCollections.resolve(request.collection());
+        Long version = versionTracker.version(kbCollections.repository(collection).getTable());
+        if (version == null) {
+            count("bypass");
+            return null;
+        }
+        String key = collection + '\u0000' + normalize(request.question()) + '\u0000' + request.topK()
+                + '\u0000' + request.minScore() + '\u0000' + version;
+        String etag = "W/\"" + version + '-' + sha256(key + '\u0000' + view + '\u0000' + includeContext)
+                .substring(0, 24) + '"';
+        return new Key(key, etag);
+    }
+
+    public synchronized RagRetrievalResult get(Key key) {
+        Entry entry = entries.get(key.key());
+        if (entry == null || System.nanoTime() - entry.expiresAtNanos() > 0) {
+            if (entry != null) {
+                entries.remove(key.key());
+            }
+            count("miss");
+            return null;
+        }
+        count("hit");
+        return entry.result();
+    }
+
+    public synchronized void put(Key key, RagRetrievalResult result) {
+        entries.put(key.key(), new Entry(result, System.nanoTime() + properties.getTtl().toNanos()));
+    }
+
+    /**
+     * True when If-None-Match lists the key's ETag (weak comparison) or is "*".
+     */
+    public boolean notModified(Key key, String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaque(key.etag());
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaque)) {
+                count("not_modified");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * "no-cache, public": shared caches may store the response but must revalidate every use, so a KB change
+     * is never hidden behind a freshness window. Revalidation is cheap (304 before any embedding or query).
+     */
+    public CacheControl cacheControl() {
+        return CacheControl.noCache().cachePublic();
+    }
+
+    static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(question, Normalizer.Form.NFKC)
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .strip();
+        int end = normalized.length();
+        while (end > 0 && "?!.。".indexOf(normalized.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return normalized.substring(0, end).strip();
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("mrpot.retrieval.cache", "result", result).increment();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.MrPot.service;
+
+/**
+ * Result of one pipeline stage that may have been skipped.
+ *
+ * @param value          stage output, or the fallback value when degraded
+ * @param degradedStage  name of the stage that missed its deadline / failed, null when healthy
+ * @param reason         "timeout", "rejected" or "error" when degraded, null otherwise
+ */
+record StageOutcome<T>(T value, String degradedStage, String reason) {
+
+    static <T> StageOutcome<T> ok(T value) {
+        return new StageOutcome<>(value, null, null);
+    }
+
+    static <T> StageOutcome<T> degraded(T fallback, String stage, String reason) {
+        return new StageOutcome<>(fallback, stage, reason);
+    }
+
+    boolean degraded() {
+        return degradedStage != null;
+    }
+}
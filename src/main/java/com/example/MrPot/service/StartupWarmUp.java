@@ -0,0 +1,232 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.VectorSearchProperties;
+import com.example.MrPot.config.WarmUpProperties;
+import com.example.MrPot.model.RagQueryRequest;
+import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.routing.ChatClientRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm-up before the node takes traffic (mrpot.warmup.*).
+ *
+ * Application runners finish before Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so
+ * /actuator/health/readiness stays down while this runs and the load balancer keeps cold nodes out:
+ *  1. pools:   fill the primary Hikari pool, the R2DBC pool (when enabled) and touch Redis
+ *  2. prewarm: pg_prewarm on the configured relations (optional, needs the extension)
+ *  3. search:  a few real embeddings, then synthetic retrievals through the normal service path
+ *  4. prompt:  intent classification, prompt building and the default provider's ChatClient
+ * Steps fail independently and never fail startup; the whole run is capped by mrpot.warmup.timeout.
+ */
+@Component
+@ConditionalOnProperty(prefix = "mrpot.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmUp implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    private final WarmUpProperties properties;
+    private final VectorSearchProperties vectorProperties;
+    private final ObjectProvider<DataSource> dataSource;
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final ObjectProvider<ConnectionPool> r2dbcPool;
+    private final RagRetrievalService ragRetrievalService;
+    private final RedisChatMemoryService chatMemoryService;
+    private final IntentClassifier intentClassifier;
+    private final ChatClientRouter chatClientRouter;
+    private final MeterRegistry meterRegistry;
+
+    public StartupWarmUp(WarmUpProperties properties,
+                         VectorSearchProperties vectorProperties,
+                         ObjectProvider<DataSource> dataSource,
+                         ObjectProvider<JdbcTemplate> jdbcTemplate,
+                         ObjectProvider<ConnectionPool> r2dbcPool,
+                         RagRetrievalService ragRetrievalService,
+                         RedisChatMemoryService chatMemoryService,
+                         IntentClassifier intentClassifier,
+                         ChatClientRouter chatClientRouter,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.vectorProperties = vectorProperties;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.r2dbcPool = r2dbcPool;
+        this.ragRetrievalService = ragRetrievalService;
+        this.chatMemoryService = chatMemoryService;
+        this.intentClassifier = intentClassifier;
+        this.chatClientRouter = chatClientRouter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        Map<String, Object> steps = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        Thread worker = Thread.ofVirtual().name("warm-up").start(() -> runSteps(steps));
+        String outcome = "complete";
+        if (!worker.join(properties.getTimeout())) {
+            outcome = "timeout";
+            worker.interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("mrpot.warmup.duration")
+                .description("Startup warm-up time before the node reports ready")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        synchronized (steps) {
+            log.info("Warm-up {} in {} ms: {}", outcome, TimeUnit.NANOSECONDS.toMillis(elapsed), steps);
+        }
+    }
+
+    private void runSteps(Map<String, Object> steps) {
+        step(steps, "jdbcPool", this::fillJdbcPool);
+        step(steps, "r2dbcPool", this::fillR2dbcPool);
+        step(steps, "redis", () -> {
+            chatMemoryService.loadHistory("warmup");
+            return null;
+        });
+        step(steps, "prewarm", this::prewarm);
+        List<RagRetrievalResult> retrievals = new ArrayList<>();
+        step(steps, "search", () -> search(retrievals));
+        step(steps, "prompt", () -> prompts(retrievals));
+    }
+
+    private int fillJdbcPool() throws Exception {
+        DataSource source = dataSource.getIfAvailable();
+        if (source == null) {
+            return 0;
+        }
+        int max = source instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 1;
+        int count = properties.getConnections() <= 0 ? max : Math.min(properties.getConnections(), max);
+        // Hold them all at once so the pool really opens count physical connections
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = source.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+        return count;
+    }
+
+    private Integer fillR2dbcPool() {
+        ConnectionPool pool = r2dbcPool.getIfAvailable();
+        return pool == null ? 0 : pool.warmup().block(properties.getTimeout());
+    }
+
+    private int prewarm() {
+        JdbcTemplate jdbc = jdbcTemplate.getIfAvailable();
+        if (jdbc == null || properties.getPrewarmRelations().isEmpty()) {
+            return 0;
+        }
+        int blocks = 0;
+        for (String relation : properties.getPrewarmRelations()) {
+            Integer loaded = jdbc.queryForObject("SELECT pg_prewarm(?::regclass)", Integer.class, relation);
+            blocks += loaded == null ? 0 : loaded;
+        }
+        return blocks;
+    }
+
+    private int search(List<RagRetrievalResult> retrievals) {
+        List<String> questions = properties.getQuestions().isEmpty()
+                ? List.of("warm-up")
+                : properties.getQuestions();
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < properties.getEmbeddingCalls(); i++) {
+            vectors.add(ragRetrievalService.embed(questions.get(i % questions.size())));
+        }
+        if (vectors.isEmpty()) {
+            vectors.add(syntheticVector(vectorProperties.getDimensions()));
+        }
+        for (int i = 0; i < properties.getIterations(); i++) {
+            RagQueryRequest query = new RagQueryRequest(questions.get(i % questions.size()), null, null);
+            float[] vector = vectors.get(i % vectors.size());
+            retrievals.add(ragRetrievalService.retrieve(query, vector));
+            if (ragRetrievalService.supportsReactive(query)) {
+                ragRetrievalService.retrieveReactive(query, vector).block(properties.getTimeout());
+            }
+        }
+        return properties.getIterations();
+    }
+
+    private int prompts(List<RagRetrievalResult> retrievals) {
+        String history = chatMemoryService.renderHistory(List.of(
+                new RedisChatMemoryService.StoredMessage("user", "Hi", 0L),
+                new RedisChatMemoryService.StoredMessage("assistant", "Hello! How can I help?", 0L)));
+        int built = 0;
+        for (RagRetrievalResult retrieval : retrievals) {
+            QueryIntent intent = intentClassifier.classify(retrieval.question()).intent();
+            RagAnswerService.buildPrompt(retrieval.question(), intent, retrieval, history);
+            RagAnswerService.summarizeRetrieval(retrieval);
+            built++;
+        }
+        // Builds the (lazy) ChatClient of the default provider; no request is sent
+        chatClientRouter.client(chatClientRouter.route(null).primary());
+        return built;
+    }
+
+    private void step(Map<String, Object> steps, String name, WarmUpStep step) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            Object value = step.run();
+            result = Map.of("ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    "result", value == null ? "ok" : value);
+        } catch (Exception ex) {
+            log.debug("Warm-up step '{}' failed", name, ex);
+            result = Map.of("ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    "error", ex.toString());
+        }
+        synchronized (steps) {
+            steps.put(name, result);
+        }
+    }
+
+    private static float[] syntheticVector(int dimensions) {
+        Random random = new Random(42);
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+            norm += vector[i] * vector[i];
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    @FunctionalInterface
+    private interface WarmUpStep {
+        Object run() throws Exception;
+    }
+}
@@ -31,4 +31,12 @@ public interface AiToolDefinition {
         // In most cases we keep tool name == function bean name
         return name();
     }
+
+    /**
+     * Pure tools return the same result for the same arguments and have no side effects,
+     * so their results may be memoized by argument hash.
+     */
+    default boolean pure() {
+        return false;
+    }
 }
@@ -0,0 +1,165 @@
+package com.example.MrPot.tools;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Wraps a tool callback with:
+ *  - a hard timeout (the call runs on a virtual thread and is interrupted when late)
+ *  - memoization of results for pure tools
+ *  - per-tool latency timer and error counter (mrpot.tool.latency / mrpot.tool.errors)
+ *
+ * {@link #start} and {@link Pending#await} split a call so ParallelToolCallingManager can start every call
+ * of a response at once: the call itself is the only hop onto the tool executor, and the timeout runs
+ * from start, not from when the result is collected.
+ */
+class GuardedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final boolean pure;
+    private final Duration timeout;
+    private final ExecutorService executor;
+    private final ToolResultMemo memo;
+    private final MeterRegistry meterRegistry;
+    private final String toolName;
+
+    GuardedToolCallback(ToolCallback delegate,
+                        boolean pure,
+                        Duration timeout,
+                        ExecutorService executor,
+                        ToolResultMemo memo,
+                        MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.pure = pure;
+        this.timeout = timeout;
+        this.executor = executor;
+        this.memo = memo;
+        this.meterRegistry = meterRegistry;
+        this.toolName = delegate.getToolDefinition().name();
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return start(toolInput, toolContext).await();
+    }
+
+    /**
+     * Answers from the memo or submits the call to the tool executor, without waiting for it.
+     */
+    Pending start(String toolInput, ToolContext toolContext) {
+        String memoKey = pure ? memo.key(toolName, toolInput) : null;
+        if (memoKey != null) {
+            String cached = memo.get(memoKey);
+            if (cached != null) {
+                meterRegistry.counter("mrpot.tool.memo.hits", "tool", toolName).increment();
+                return new Pending(null, 0L, null, cached);
+            }
+        }
+        long start = System.nanoTime();
+        Future<String> future = executor.submit(() -> delegate.call(toolInput, toolContext));
+        return new Pending(future, start, memoKey, null);
+    }
+
+    /**
+     * A started call. await() waits for at most what is left of the timeout; it is idempotent, so
+     * identical calls sharing one Pending execute, memoize and record metrics once.
+     */
+    final class Pending {
+
+        private final Future<String> future;
+        private final long startNanos;
+        private final String memoKey;
+        private String result;
+        private RuntimeException failure;
+        private boolean done;
+
+        private Pending(Future<String> future, long startNanos, String memoKey, String cached) {
+            this.future = future;
+            this.startNanos = startNanos;
+            this.memoKey = memoKey;
+            this.result = cached;
+            this.done = future == null;
+        }
+
+        synchronized String await() {
+            if (!done) {
+                try {
+                    result = GuardedToolCallback.this.await(this);
+                } catch (RuntimeException ex) {
+                    failure = ex;
+                }
+                done = true;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+
+    private String await(Pending pending) {
+        Future<String> future = pending.future;
+        String outcome = "success";
+        try {
+            long remaining = pending.startNanos + timeout.toNanos() - System.nanoTime();
+            String result = future.get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+            if (pending.memoKey != null && result != null) {
+                memo.put(pending.memoKey, result);
+            }
+            return result;
+        } catch (TimeoutException ex) {
+            outcome = "timeout";
+            future.cancel(true);
+            throw new ToolExecutionException(getToolDefinition(), new ToolTimeoutException(toolName, timeout.toMillis()));
+        } catch (InterruptedException ex) {
+            outcome = "interrupted";
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ToolExecutionException(getToolDefinition(), ex);
+        } catch (ExecutionException ex) {
+            outcome = "error";
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ToolExecutionException(getToolDefinition(), cause);
+        } finally {
+            Timer.builder("mrpot.tool.latency")
+                    .description("Tool execution latency")
+                    .tag("tool", toolName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - pending.startNanos, TimeUnit.NANOSECONDS);
+            if (!"success".equals(outcome)) {
+                meterRegistry.counter("mrpot.tool.errors", "tool", toolName, "reason", outcome).increment();
+            }
+        }
+    }
+}
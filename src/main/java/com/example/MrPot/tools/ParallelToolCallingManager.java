@@ -0,0 +1,147 @@
+package com.example.MrPot.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * ToolCallingManager that runs all tool calls of one model response in parallel.
+ *
+ * Spring AI's default manager executes tool calls one after another. This decorator
+ * starts every call up front on the tool executor (virtual threads), then hands the
+ * response to the default manager with callbacks that just return the prefetched results,
+ * so conversation-history building and returnDirect handling stay Spring AI's.
+ * Timeouts and memoization come from the {@link GuardedToolCallback}s themselves; they are
+ * started directly ({@link GuardedToolCallback#start}), so each call takes a single virtual thread.
+ * Other callbacks are called on the executor.
+ */
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelToolCallingManager.class);
+
+    private final ToolCallingManager delegate;
+    private final ExecutorService executor;
+
+    public ParallelToolCallingManager(ToolCallingManager delegate, ExecutorService executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        List<AssistantMessage.ToolCall> toolCalls = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(message -> message != null && message.hasToolCalls())
+                .findFirst()
+                .map(AssistantMessage::getToolCalls)
+                .orElse(List.of());
+
+        if (toolCalls.size() < 2 || !(prompt.getOptions() instanceof ToolCallingChatOptions options)
+                || options.getToolCallbacks() == null || options.getToolCallbacks().isEmpty()) {
+            // Nothing to parallelize
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+
+        Map<String, ToolCallback> callbacksByName = new HashMap<>();
+        for (ToolCallback callback : options.getToolCallbacks()) {
+            callbacksByName.put(callback.getToolDefinition().name(), callback);
+        }
+        ToolContext toolContext = options.getToolContext() == null || options.getToolContext().isEmpty()
+                ? null
+                : new ToolContext(options.getToolContext());
+
+        // Fan out: identical (tool, arguments) pairs are executed once
+        Map<String, Supplier<String>> prefetched = new HashMap<>();
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            ToolCallback callback = callbacksByName.get(toolCall.name());
+            if (callback == null) {
+                continue; // the delegate reports unknown tools
+            }
+            prefetched.computeIfAbsent(prefetchKey(toolCall.name(), toolCall.arguments()),
+                    key -> prefetch(callback, toolCall.arguments(), toolContext));
+        }
+        log.debug("Executing {} tool calls in parallel", prefetched.size());
+
+        List<ToolCallback> prefetchedCallbacks = options.getToolCallbacks().stream()
+                .<ToolCallback>map(callback -> new PrefetchedToolCallback(callback, prefetched))
+                .toList();
+        ToolCallingChatOptions prefetchedOptions = options.copy();
+        prefetchedOptions.setToolCallbacks(prefetchedCallbacks);
+
+        return delegate.executeToolCalls(new Prompt(prompt.getInstructions(), prefetchedOptions), chatResponse);
+    }
+
+    private Supplier<String> prefetch(ToolCallback callback, String arguments, ToolContext toolContext) {
+        if (callback instanceof GuardedToolCallback guarded) {
+            return guarded.start(arguments, toolContext)::await;
+        }
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(
+                () -> callback.call(arguments, toolContext), executor);
+        return () -> {
+            try {
+                return future.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw ex;
+            }
+        };
+    }
+
+    private static String prefetchKey(String toolName, String arguments) {
+        return toolName + '\u0000' + arguments;
+    }
+
+    /**
+     * Returns the already running/finished result for (tool, arguments),
+     * or calls the real tool when the call was not prefetched.
+     */
+    private record PrefetchedToolCallback(ToolCallback delegate,
+                                          Map<String, Supplier<String>> prefetched) implements ToolCallback {
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            Supplier<String> result = prefetched.get(prefetchKey(getToolDefinition().name(), toolInput));
+            return result == null ? delegate.call(toolInput, toolContext) : result.get();
+        }
+    }
+}
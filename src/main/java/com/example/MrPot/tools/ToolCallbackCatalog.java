@@ -0,0 +1,106 @@
+package com.example.MrPot.tools;
+
+import com.example.MrPot.config.ToolExecutionProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Immutable tool-callback sets per {@link ToolProfile}, built once at startup
+ * from the {@link ToolRegistry} definitions and their Function beans.
+ *
+ * Every callback is wrapped in a {@link GuardedToolCallback} (timeout, memoization, metrics).
+ * Callbacks are ordered by tool name so the tool list sent to the model is stable.
+ */
+@Component
+public class ToolCallbackCatalog implements DisposableBean {
+
+    private final Map<ToolProfile, List<ToolCallback>> callbacksByProfile;
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    // Virtual thread per call; the caller's tracing context is propagated onto it
+    private final ExecutorService toolExecutor = ContextExecutorService.wrap(
+            Executors.newVirtualThreadPerTaskExecutor(), SNAPSHOTS::captureAll);
+
+    public ToolCallbackCatalog(ToolRegistry toolRegistry,
+                               BeanFactory beanFactory,
+                               ToolExecutionProperties properties,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        ToolResultMemo memo = new ToolResultMemo(objectMapper, properties.getMemoMaxEntries(), properties.getMemoTtl());
+
+        Map<String, ToolCallback> callbacksByName = new HashMap<>();
+        for (AiToolDefinition definition : toolRegistry.allTools()) {
+            Function<?, ?> function = beanFactory.getBean(definition.functionBeanName(), Function.class);
+            ToolCallback callback = buildCallback(definition, function);
+            callbacksByName.put(definition.name(), new GuardedToolCallback(
+                    callback,
+                    definition.pure(),
+                    properties.timeoutFor(definition.name()),
+                    toolExecutor,
+                    memo,
+                    meterRegistry
+            ));
+        }
+
+        Map<ToolProfile, List<ToolCallback>> byProfile = new EnumMap<>(ToolProfile.class);
+        for (ToolProfile profile : ToolProfile.values()) {
+            List<ToolCallback> callbacks = new ArrayList<>();
+            for (AiToolDefinition definition : toolRegistry.getToolsForProfile(profile)) {
+                callbacks.add(callbacksByName.get(definition.name()));
+            }
+            callbacks.sort(Comparator.comparing(cb -> cb.getToolDefinition().name()));
+            byProfile.put(profile, List.copyOf(callbacks));
+        }
+        this.callbacksByProfile = Collections.unmodifiableMap(byProfile);
+    }
+
+    /**
+     * Precomputed callbacks for a profile (never null, possibly empty).
+     */
+    public List<ToolCallback> callbacksFor(ToolProfile profile) {
+        return callbacksByProfile.getOrDefault(profile, List.of());
+    }
+
+    /**
+     * Executor used for tool calls (one virtual thread per call).
+     */
+    public ExecutorService toolExecutor() {
+        return toolExecutor;
+    }
+
+    @Override
+    public void destroy() {
+        toolExecutor.shutdownNow();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ToolCallback buildCallback(AiToolDefinition definition, Function<?, ?> function) {
+        Class<?> inputType = ResolvableType.forClass(function.getClass())
+                .as(Function.class)
+                .getGeneric(0)
+                .resolve(Object.class);
+        return FunctionToolCallback.builder(definition.name(), (Function) function)
+                .description(definition.description())
+                .inputType(inputType)
+                .build();
+    }
+}
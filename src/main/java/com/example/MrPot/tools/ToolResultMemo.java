@@ -0,0 +1,70 @@
+package com.example.MrPot.tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU memo for results of pure tools, keyed by tool name + SHA-256 of the
+ * canonicalized JSON arguments (so key order / whitespace differences still hit).
+ */
+class ToolResultMemo {
+
+    private record Entry(String value, long expiresAtNanos) { }
+
+    private final ObjectMapper canonicalMapper;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    ToolResultMemo(ObjectMapper objectMapper, int maxEntries, Duration ttl) {
+        this.canonicalMapper = objectMapper.copy()
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    String key(String toolName, String arguments) {
+        String canonical;
+        try {
+            canonical = canonicalMapper.writeValueAsString(canonicalMapper.readValue(arguments, Object.class));
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            // Not JSON: fall back to the raw text
+            canonical = arguments == null ? "" : arguments;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return toolName + ':' + HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    synchronized void put(String key, String value) {
+        entries.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+    }
+}
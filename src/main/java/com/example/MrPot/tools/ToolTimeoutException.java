@@ -0,0 +1,13 @@
+package com.example.MrPot.tools;
+
+/**
+ * Cause of the ToolExecutionException for a tool that missed its timeout. Unchecked on purpose:
+ * Spring AI's default exception processor rethrows checked causes (failing the whole chat call)
+ * but reports runtime ones to the model as the tool result.
+ */
+public class ToolTimeoutException extends RuntimeException {
+
+    public ToolTimeoutException(String toolName, long timeoutMillis) {
+        super("Tool '" + toolName + "' timed out after " + timeoutMillis + "ms");
+    }
+}
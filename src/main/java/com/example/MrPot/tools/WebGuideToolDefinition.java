@@ -31,4 +31,10 @@ public class WebGuideToolDefinition implements AiToolDefinition {
         // Enabled in basic chat and full mode
         return Set.of(ToolProfile.BASIC_CHAT, ToolProfile.FULL);
     }
+
+    @Override
+    public boolean pure() {
+        // Deterministic for a given question, no side effects
+        return true;
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.MrPot.tracing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/spans?traceId=... : recently finished spans captured by {@link RecentSpansHandler}.
+ */
+@Endpoint(id = "spans")
+public class RecentSpansEndpoint {
+
+    private final RecentSpansHandler handler;
+
+    public RecentSpansEndpoint(RecentSpansHandler handler) {
+        this.handler = handler;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> spans(@Nullable String traceId) {
+        return handler.recent(traceId);
+    }
+}
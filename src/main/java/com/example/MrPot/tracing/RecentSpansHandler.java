@@ -0,0 +1,113 @@
+package com.example.MrPot.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory span exporter: keeps the last N finished spans, optionally appending each one
+ * as a JSON line to a file for offline analysis (jq, DuckDB, ...).
+ */
+public class RecentSpansHandler extends SpanHandler implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentSpansHandler.class);
+
+    private final int maxSpans;
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    // Guarded by "this"
+    private final ArrayDeque<Map<String, Object>> spans = new ArrayDeque<>();
+
+    public RecentSpansHandler(int maxSpans, String file, ObjectMapper objectMapper) throws IOException {
+        this.maxSpans = Math.max(1, maxSpans);
+        this.objectMapper = objectMapper;
+        this.writer = file == null || file.isBlank()
+                ? null
+                : Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return true;
+        }
+        Map<String, Object> view = toMap(span);
+        synchronized (this) {
+            if (spans.size() == maxSpans) {
+                spans.removeFirst();
+            }
+            spans.addLast(view);
+            if (writer != null) {
+                write(view);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Most recent spans, newest last; optionally only those of one trace.
+     */
+    public synchronized List<Map<String, Object>> recent(String traceId) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> span : spans) {
+            if (traceId == null || traceId.equals(span.get("traceId"))) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void write(Map<String, Object> view) {
+        try {
+            writer.write(objectMapper.writeValueAsString(view));
+            writer.newLine();
+            writer.flush();
+        } catch (JsonProcessingException ex) {
+            log.debug("Failed to serialize span {}: {}", view.get("spanId"), ex.toString());
+        } catch (IOException ex) {
+            log.warn("Failed to append span to file: {}", ex.toString());
+        }
+    }
+
+    private static Map<String, Object> toMap(MutableSpan span) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("traceId", span.traceId());
+        view.put("spanId", span.id());
+        view.put("parentId", span.parentId());
+        view.put("name", span.name());
+        view.put("startMicros", span.startTimestamp());
+        view.put("durationMicros", span.finishTimestamp() - span.startTimestamp());
+        Map<String, String> tags = new LinkedHashMap<>();
+        span.forEachTag((target, key, value) -> target.put(key, value), tags);
+        view.put("tags", tags);
+        if (span.error() != null) {
+            view.put("error", span.error().toString());
+        }
+        return view;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.MrPot.tracing;
+
+import com.example.MrPot.config.SlowQueryProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffer of slow vector searches (mrpot.vector.slow-query.*), served at /actuator/slowqueries.
+ *
+ * Every findNearest call above threshold is recorded with its parameters (never the query vector) and
+ * timing. A sampled few, at most one per min-interval and one at a time, are re-run on a background
+ * thread under EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) with the same hnsw settings; the entry then also
+ * carries the plan and a summary: planning / execution time, whether a Seq Scan ran, which indexes were
+ * used and the shared buffers hit vs. read. The re-run finds the buffers the slow call just loaded, so a
+ * high read count there means the working set does not stay in shared_buffers.
+ *
+ * Metrics: mrpot.vector.slow{table, explained=true|false}.
+ */
+public class SlowQueryLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    /**
+     * Runs the EXPLAIN for one recorded call and returns the JSON plan.
+     */
+    @FunctionalInterface
+    public interface Explainer {
+        String explain() throws Exception;
+    }
+
+    private final SlowQueryProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService explainer;
+    private final AtomicBoolean explaining = new AtomicBoolean();
+    private final AtomicLong lastExplainNanos = new AtomicLong(System.nanoTime() - TimeUnit.DAYS.toNanos(1));
+
+    // Guarded by "this"
+    private final ArrayDeque<Map<String, Object>> entries = new ArrayDeque<>();
+
+    public SlowQueryLog(SlowQueryProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.explainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos > properties.getThreshold().toNanos();
+    }
+
+    public long explainTimeoutMillis() {
+        return properties.getExplainTimeout().toMillis();
+    }
+
+    /**
+     * @param table   collection table the query ran on
+     * @param query   query parameters (mode, profile, efSearch, limit, filter, SQL text, ...), no vector
+     * @param explain re-runs the same statement under EXPLAIN; only called when this call is sampled
+     */
+    public void record(String table, Map<String, Object> query, long elapsedNanos, Explainer explain) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("timestamp", Instant.now().toString());
+        entry.put("table", table);
+        entry.put("elapsedMs", TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / 1000.0);
+        entry.put("thresholdMs", properties.getThreshold().toMillis());
+        entry.put("query", query);
+
+        if (!sampled() || !explaining.compareAndSet(false, true)) {
+            entry.put("explain", "not-sampled");
+            add(table, entry, false);
+            return;
+        }
+        lastExplainNanos.set(System.nanoTime());
+        try {
+            explainer.execute(() -> {
+                try {
+                    JsonNode plan = objectMapper.readTree(explain.explain());
+                    entry.put("explain", "captured");
+                    entry.put("summary", summarize(plan));
+                    entry.put("plan", plan);
+                } catch (Exception ex) {
+                    log.debug("EXPLAIN of slow vector search failed", ex);
+                    entry.put("explain", "failed: " + ex);
+                } finally {
+                    explaining.set(false);
+                    add(table, entry, entry.containsKey("plan"));
+                }
+            });
+        } catch (RuntimeException ex) {
+            // Executor shut down
+            explaining.set(false);
+            entry.put("explain", "not-sampled");
+            add(table, entry, false);
+        }
+    }
+
+    /**
+     * Recorded slow calls, newest last; optionally only those on one table.
+     */
+    public synchronized List<Map<String, Object>> recent(String table) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> entry : entries) {
+            if (table == null || table.equals(entry.get("table"))) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+
+    private boolean sampled() {
+        return properties.getSampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()
+                && System.nanoTime() - lastExplainNanos.get() >= properties.getMinInterval().toNanos();
+    }
+
+    private synchronized void add(String table, Map<String, Object> entry, boolean explained) {
+        if (entries.size() >= Math.max(1, properties.getMaxEntries())) {
+            entries.removeFirst();
+        }
+        entries.addLast(entry);
+        meterRegistry.counter("mrpot.vector.slow", "table", table, "explained", String.valueOf(explained)).increment();
+    }
+
+    /**
+     * Key figures of an EXPLAIN (FORMAT JSON) result: [{"Plan": {...}, "Planning Time": .., "Execution Time": ..}].
+     */
+    static Map<String, Object> summarize(JsonNode explain) {
+        JsonNode root = explain.isArray() ? explain.path(0) : explain;
+        JsonNode plan = root.path("Plan");
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("planningMs", root.path("Planning Time").asDouble());
+        summary.put("executionMs", root.path("Execution Time").asDouble());
+
+        Set<String> seqScans = new LinkedHashSet<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        collect(plan, seqScans, indexes);
+        summary.put("seqScan", !seqScans.isEmpty());
+        summary.put("seqScanRelations", seqScans);
+        summary.put("indexes", indexes);
+        // The top node's buffer counts include all children
+        summary.put("sharedHitBlocks", plan.path("Shared Hit Blocks").asLong());
+        summary.put("sharedReadBlocks", plan.path("Shared Read Blocks").asLong());
+        return summary;
+    }
+
+    private static void collect(JsonNode node, Set<String> seqScans, Set<String> indexes) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            seqScans.add(node.path("Relation Name").asText());
+        }
+        if (node.hasNonNull("Index Name")) {
+            indexes.add(node.path("Index Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, seqScans, indexes);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- Per-doc_type partial HNSW indexes for kb_documents.
+-- A query filtered to one doc_type then walks a graph holding only that type, instead of the global
+-- graph followed by discarding other types. KbDocumentVectorRepository.searchSql writes each doc_type
+-- as a literal (doc_type = 'blog') so the planner can match these predicates.
+-- Add one index per doc_type you filter on; keep the global index for unfiltered queries. These indexes
+-- only serve EXACT mode (see db/vector/quantized-indexes.sql for HALFVEC/BINARY deployments).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_embedding_blog_idx
+    ON kb_documents USING hnsw (embedding vector_cosine_ops) WHERE doc_type = 'blog';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_embedding_project_idx
+    ON kb_documents USING hnsw (embedding vector_cosine_ops) WHERE doc_type = 'project';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_embedding_resume_idx
+    ON kb_documents USING hnsw (embedding vector_cosine_ops) WHERE doc_type = 'resume';
+
+-- The btree keeps brute-force fallbacks on small types cheap when no partial index exists yet
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_doc_type_idx ON kb_documents (doc_type);
@@ -0,0 +1,29 @@
+-- KB version counter for the retrieval cache (mrpot.retrieval.cache).
+-- Every statement that changes a collection's documents or passages bumps its version; KbVersionTracker
+-- polls this table and cached results / ETags of older versions are no longer served.
+-- Collections in another table need the same two triggers, with that table name as the argument.
+
+CREATE TABLE IF NOT EXISTS kb_versions (
+    table_name TEXT        PRIMARY KEY,
+    version    BIGINT      NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE OR REPLACE FUNCTION kb_bump_version() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO kb_versions (table_name, version) VALUES (TG_ARGV[0], 1)
+    ON CONFLICT (table_name) DO UPDATE SET version = kb_versions.version + 1, updated_at = now();
+    RETURN NULL;
+END
+$$;
+
+-- Statement-level: a bulk load bumps the version once, not once per row
+CREATE OR REPLACE TRIGGER kb_documents_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON kb_documents
+    FOR EACH STATEMENT EXECUTE FUNCTION kb_bump_version('kb_documents');
+
+-- Re-indexed passages change compressed contexts (db/vector/passages.sql)
+CREATE OR REPLACE TRIGGER kb_documents_passages_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON kb_documents_passages
+    FOR EACH STATEMENT EXECUTE FUNCTION kb_bump_version('kb_documents');
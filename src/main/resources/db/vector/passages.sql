@@ -0,0 +1,13 @@
+-- Passage table for query-focused context compression (mrpot.retrieval.compression).
+-- Each kb_documents row is split into sentence-aligned passages, each embedded once at ingestion time
+-- (PassageIndexer, /actuator/passages). At query time the passages of the retrieved documents are scored
+-- against the query vector that was already computed for the search, so compression costs one indexed
+-- lookup and no extra embedding call. Collections in another table use <table>_passages.
+
+CREATE TABLE IF NOT EXISTS kb_documents_passages (
+    document_id BIGINT  NOT NULL REFERENCES kb_documents (id) ON DELETE CASCADE,
+    ordinal     INT     NOT NULL,
+    content     TEXT    NOT NULL,
+    embedding   vector(1536) NOT NULL,
+    PRIMARY KEY (document_id, ordinal)
+);
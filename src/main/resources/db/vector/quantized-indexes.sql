@@ -0,0 +1,34 @@
+-- Compact candidate indexes for kb_documents (pgvector >= 0.7).
+-- Apply the ones matching mrpot.vector.mode / candidate-dimensions; each is an expression index,
+-- so the table keeps its full-precision column for the exact re-rank.
+-- Expressions must stay identical to KbDocumentVectorRepository.searchSql.
+
+-- HALFVEC, all 1536 dimensions (half the index size of the vector index)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_embedding_halfvec_idx
+    ON kb_documents USING hnsw ((embedding::halfvec(1536)) halfvec_cosine_ops);
+
+-- HALFVEC, truncated to the leading 512 dimensions (mrpot.vector.candidate-dimensions=512)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_embedding_halfvec512_idx
+    ON kb_documents USING hnsw ((subvector(embedding, 1, 512)::halfvec(512)) halfvec_cosine_ops);
+
+-- BINARY, one bit per dimension (1/32 of the vector index), Hamming distance
+CREATE INDEX CONCURRENTLY IF NOT EXISTS kb_documents_embedding_binary_idx
+    ON kb_documents USING hnsw ((binary_quantize(embedding)::bit(1536)) bit_hamming_ops);
+
+-- Confirm the planner uses the expression index before relying on it (look for an "Index Scan using
+-- kb_documents_embedding_halfvec_idx", not a Seq Scan + Sort), e.g. for HALFVEC:
+--   EXPLAIN SELECT id FROM kb_documents
+--     ORDER BY embedding::halfvec(1536) <=> (SELECT embedding FROM kb_documents LIMIT 1)::halfvec(1536)
+--     LIMIT 40;
+-- The expression and typmod must match exactly, otherwise the scan falls back to the full table.
+
+-- Dropping the full-precision index: index memory only shrinks once the HNSW index on the plain
+-- embedding column is gone; the exact re-rank reads the column, not that index. Only do this when
+-- every instance runs HALFVEC or BINARY: EXACT mode orders by embedding <=> q directly and degrades to
+-- a sequential scan without it. The partial indexes of db/vector/doc-type-indexes.sql are full precision
+-- as well and only serve EXACT mode; drop them under the same condition.
+-- Look the index name up first, it depends on how the table was created:
+--   SELECT indexname FROM pg_indexes
+--     WHERE tablename = 'kb_documents' AND indexdef LIKE '%hnsw (embedding vector_cosine_ops)%'
+--       AND indexdef NOT LIKE '%WHERE%';
+-- DROP INDEX CONCURRENTLY IF EXISTS kb_documents_embedding_idx;
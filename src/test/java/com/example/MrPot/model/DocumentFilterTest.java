@@ -0,0 +1,66 @@
+package com.example.MrPot.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentFilterTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "blog'",
+            "blog' OR '1'='1",
+            "bl\"og",
+            "blog post",
+            "blog\tpost",
+            "blog;drop",
+            "blog\\",
+            "博客",
+    })
+    void rejectsDocTypesThatAreNotPlainIdentifiers(String docType) {
+        assertThatThrownBy(() -> DocumentFilter.docType(docType))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid docType");
+    }
+
+    @Test
+    void rejectsOverlongDocTypes() {
+        assertThat(DocumentFilter.docType("a".repeat(64)).docTypes()).hasSize(1);
+        assertThatThrownBy(() -> DocumentFilter.docType("a".repeat(65)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMoreThanSixteenDocTypes() {
+        List<String> sixteen = IntStream.range(0, 16).mapToObj(i -> "type" + i).toList();
+        List<String> seventeen = IntStream.range(0, 17).mapToObj(i -> "type" + i).toList();
+
+        assertThat(new DocumentFilter(sixteen, null).docTypes()).hasSize(16);
+        assertThatThrownBy(() -> new DocumentFilter(seventeen, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("16");
+    }
+
+    @Test
+    void normalizesDocTypesBeforeValidating() {
+        DocumentFilter filter = new DocumentFilter(Arrays.asList(" project ", null, "", "blog", "project", "kb.v2-x_y"), null);
+
+        assertThat(filter.docTypes()).containsExactly("blog", "kb.v2-x_y", "project");
+    }
+
+    @Test
+    void emptyWithoutDocTypesOrMetadata() {
+        assertThat(DocumentFilter.NONE.isEmpty()).isTrue();
+        assertThat(DocumentFilter.NONE.docTypes()).isEmpty();
+        assertThat(DocumentFilter.NONE.metadata()).isEmpty();
+        assertThat(new DocumentFilter(null, Map.of("lang", "en")).isEmpty()).isFalse();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.MrPot.repository;
+
+import com.example.MrPot.model.DocumentFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KbDocumentVectorRepositoryTest {
+
+    private static final Pattern BRANCH_LIMIT = Pattern.compile("LIMIT \\?\\)");
+
+    @Test
+    void unfilteredSearchHasOneBranch() {
+        String sql = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.EXACT, 1536, 1536,
+                DocumentFilter.NONE);
+
+        assertThat(sql).doesNotContain("UNION ALL").doesNotContain("WHERE");
+        assertThat(count(BRANCH_LIMIT, sql)).isEqualTo(1);
+        assertThat(sql).contains("ORDER BY embedding <=> (SELECT v FROM q)");
+        assertThat(placeholders(sql)).isEqualTo(3);
+    }
+
+    @Test
+    void oneBranchPerDocTypeWithItsOwnCandidateLimit() {
+        DocumentFilter filter = new DocumentFilter(List.of("project", "blog", "note"), null);
+
+        String sql = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.EXACT, 1536, 1536, filter);
+
+        assertThat(count(Pattern.compile("UNION ALL"), sql)).isEqualTo(2);
+        assertThat(count(BRANCH_LIMIT, sql)).isEqualTo(3);
+        // Sorted by DocumentFilter, one literal predicate per branch
+        assertThat(sql.indexOf("doc_type = 'blog'"))
+                .isLessThan(sql.indexOf("doc_type = 'note'"))
+                .isLessThan(sql.indexOf("doc_type = 'project'"));
+        assertThat(count(Pattern.compile("doc_type = '"), sql)).isEqualTo(3);
+    }
+
+    @Test
+    void metadataPredicateIsRepeatedInEveryBranch() {
+        DocumentFilter filter = new DocumentFilter(List.of("blog", "project"), Map.of("lang", "en"));
+
+        String sql = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.EXACT, 1536, 1536, filter);
+
+        assertThat(count(Pattern.compile("doc_type = '[a-z]+' AND metadata @> \\?::jsonb"), sql)).isEqualTo(2);
+    }
+
+    @Test
+    void parametersFollowStatementOrder() {
+        DocumentFilter filter = new DocumentFilter(List.of("blog", "project"), Map.of("lang", "en"));
+        String sql = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.HALFVEC, 1536, 512, filter);
+
+        List<Object> params = KbDocumentVectorRepository.searchParams("[1,2]", "{\"lang\":\"en\"}", filter, 40, 5);
+
+        assertThat(params).containsExactly("[1,2]", "{\"lang\":\"en\"}", 40, "{\"lang\":\"en\"}", 40, 5);
+        assertThat(placeholders(sql)).isEqualTo(params.size());
+        // Placeholder kinds line up: the vector cast first, jsonb casts where the metadata strings go
+        List<String> casts = placeholderSuffixes(sql);
+        assertThat(casts).containsExactly("::vector", "::jsonb", ")", "::jsonb", ")", "\n");
+    }
+
+    @Test
+    void parametersWithoutFilterAreVectorCandidatesAndLimit() {
+        String sql = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.BINARY, 1536, 1536,
+                DocumentFilter.NONE);
+
+        List<Object> params = KbDocumentVectorRepository.searchParams("[1,2]", null, DocumentFilter.NONE, 40, 5);
+
+        assertThat(params).containsExactly("[1,2]", 40, 5);
+        assertThat(placeholders(sql)).isEqualTo(params.size());
+    }
+
+    @Test
+    void reactivePlaceholdersAreNumberedInTheSameOrder() {
+        DocumentFilter filter = new DocumentFilter(List.of("blog", "project"), Map.of("lang", "en"));
+        String sql = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.EXACT, 1536, 1536, filter);
+
+        String positional = ReactiveKbDocumentVectorRepository.positional(sql);
+
+        assertThat(positional).doesNotContain("?");
+        assertThat(positional).contains("SELECT $1::vector AS v");
+        assertThat(positional.indexOf("$2::jsonb")).isLessThan(positional.indexOf("LIMIT $3)"));
+        assertThat(positional.indexOf("$4::jsonb")).isLessThan(positional.indexOf("LIMIT $5)"));
+        assertThat(positional).contains("LIMIT $6\n");
+    }
+
+    @Test
+    void compactModesOrderOnTheIndexedExpressions() {
+        String halfvec = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.HALFVEC, 1536, 512,
+                DocumentFilter.NONE);
+        String binary = KbDocumentVectorRepository.searchSql("kb_documents", VectorSearchMode.BINARY, 1536, 1536,
+                DocumentFilter.NONE);
+
+        assertThat(halfvec).contains("ORDER BY subvector(embedding, 1, 512)::halfvec(512) <=> "
+                + "subvector((SELECT v FROM q), 1, 512)::halfvec(512)");
+        assertThat(binary).contains("ORDER BY binary_quantize(embedding)::bit(1536) <~> "
+                + "binary_quantize((SELECT v FROM q))::bit(1536)");
+    }
+
+    private static int placeholders(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    /**
+     * What follows each placeholder, up to the first of "::type", ")" or a line break.
+     */
+    private static List<String> placeholderSuffixes(String sql) {
+        Matcher matcher = Pattern.compile("\\?(::[a-z]+|\\)|\n)").matcher(sql);
+        return matcher.results().map(result -> result.group(1)).toList();
+    }
+
+    private static int count(Pattern pattern, String sql) {
+        return (int) pattern.matcher(sql).results().count();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.MrPot.resilience;
+
+import com.example.MrPot.config.AdmissionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long SLOW_STREAM = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void admitsUpToTheLimitThenRejectsWhenTheQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", settings(2, 0));
+        limiter.acquire();
+        limiter.acquire();
+
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isEmpty();
+        assertThatThrownBy(limiter::acquire)
+                .isInstanceOf(AdmissionRejectedException.class)
+                .extracting(ex -> ((AdmissionRejectedException) ex).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void queuedCallerTimesOutAfterMaxQueueWait() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", settings(2, 1));
+        limiter.acquire();
+        limiter.acquire();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(limiter::acquire).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void slowOrFailedCallsShrinkTheLimitMultiplicatively() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", settings(10, 0));
+
+        limiter.acquire().complete(SLOW_STREAM, true);
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        limiter.acquire().complete(FAST, false);
+        assertThat(limiter.limit()).isEqualTo(2);
+
+        limiter.acquire().complete(SLOW_STREAM, true);
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void fastCallsGrowTheLimitOnlyWhileItIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", settings(4, 0));
+
+        // One call in flight out of four: the limit is not being used, so it stays
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().complete(FAST, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        // Saturated: four releases at 1/limit each add one slot
+        for (int round = 0; round < 2; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.limit(); i++) {
+                permits.add(limiter.acquire());
+            }
+            permits.forEach(p -> p.complete(FAST, true));
+        }
+        assertThat(limiter.limit()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    void blockingCallsAreJudgedAgainstTheirOwnThreshold() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", settings(10, 0));
+
+        // 5s is slow for a first token but normal for a whole blocking answer
+        limiter.acquire().completeBlocking(SLOW_STREAM, true);
+        assertThat(limiter.limit()).isEqualTo(10);
+
+        limiter.acquire().completeBlocking(TimeUnit.SECONDS.toNanos(31), true);
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void cancelReleasesTheSlotWithoutTouchingTheLimitAndOnlyOnce() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", settings(3, 0));
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+
+        permit.cancel();
+        permit.complete(SLOW_STREAM, false);
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    private static AdmissionProperties.LimitSettings settings(int initialLimit, int queueSize) {
+        AdmissionProperties.LimitSettings settings = new AdmissionProperties.LimitSettings();
+        settings.setInitialLimit(initialLimit);
+        settings.setMinLimit(2);
+        settings.setMaxLimit(100);
+        settings.setBackoffRatio(0.5);
+        settings.setLatencyThreshold(Duration.ofSeconds(4));
+        settings.setBlockingLatencyThreshold(Duration.ofSeconds(30));
+        settings.setQueueSize(queueSize);
+        settings.setMaxQueueWait(Duration.ofMillis(20));
+        settings.setRetryAfter(Duration.ofSeconds(1));
+        return settings;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.MrPot.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 3, 0.5, Duration.ofHours(1));
+        breaker.onError();
+        breaker.onError();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void opensAtFailureRateThresholdAndRefusesCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofHours(1));
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onError();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.onError();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.75, Duration.ofHours(1));
+        breaker.onError();
+        breaker.onError();
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess();
+        }
+
+        assertThat(breaker.failureRate()).isZero();
+        breaker.onError();
+        breaker.onError();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenAdmitsExactlyOneTrialCall() {
+        CircuitBreaker breaker = openBreaker();
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.isCallPermitted()).isFalse();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void successfulTrialClosesTheBreaker() {
+        CircuitBreaker breaker = openBreaker();
+        breaker.tryAcquirePermission();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isZero();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void failedTrialReopensTheBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ofMillis(50));
+        breaker.onError();
+        breaker.onError();
+        awaitOpenPeriod();
+        breaker.tryAcquirePermission();
+
+        breaker.onError();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void releasedTrialLetsTheNextCallIn() {
+        CircuitBreaker breaker = openBreaker();
+        breaker.tryAcquirePermission();
+
+        breaker.releasePermission();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ZERO);
+        breaker.onError();
+        breaker.onError();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void awaitOpenPeriod() {
+        try {
+            Thread.sleep(80);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.MrPot.routing;
+
+import com.example.MrPot.config.AdmissionProperties;
+import com.example.MrPot.config.LlmRoutingProperties;
+import com.example.MrPot.resilience.AdmissionLimiters;
+import com.example.MrPot.resilience.CallNotPermittedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ChatClientRouterTest {
+
+    private final ChatClient deepseek = mock(ChatClient.class);
+    private final ChatClient openai = mock(ChatClient.class);
+    private final List<ChatClient> invoked = new ArrayList<>();
+    private ChatClientRouter router;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("deepseekChatClient", deepseek);
+        beanFactory.addBean("openaiChatClient", openai);
+
+        LlmRoutingProperties properties = new LlmRoutingProperties();
+        properties.getCircuitBreaker().setWindowSize(2);
+        properties.getCircuitBreaker().setMinimumCalls(2);
+        properties.getCircuitBreaker().setFailureRateThreshold(0.5);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofHours(1));
+        AdmissionProperties admission = new AdmissionProperties();
+        admission.setEnabled(false);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        router = new ChatClientRouter(beanFactory, properties, new AdmissionLimiters(admission, registry), registry);
+    }
+
+    @Test
+    void openCircuitNeverCallsTheProvider() {
+        openDeepseekCircuit();
+        invoked.clear();
+
+        assertThatThrownBy(() -> router.call(new ChatClientRouter.Route("deepseek", null), this::answer))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(invoked).isEmpty();
+    }
+
+    @Test
+    void openCircuitFailsOverToTheAlternate() {
+        openDeepseekCircuit();
+        invoked.clear();
+
+        String answer = router.call(new ChatClientRouter.Route("deepseek", "openai"), this::answer);
+
+        assertThat(answer).isEqualTo("openai");
+        assertThat(invoked).containsExactly(openai);
+    }
+
+    @Test
+    void openCircuitStreamFailsOverToTheAlternate() {
+        openDeepseekCircuit();
+        invoked.clear();
+
+        StepVerifier.create(router.stream(new ChatClientRouter.Route("deepseek", "openai"),
+                        client -> Flux.defer(() -> Flux.just(answer(client)))))
+                .expectNext("openai")
+                .verifyComplete();
+        assertThat(invoked).containsExactly(openai);
+    }
+
+    @Test
+    void openCircuitStreamWithoutAlternateErrors() {
+        openDeepseekCircuit();
+        invoked.clear();
+
+        StepVerifier.create(router.stream(new ChatClientRouter.Route("deepseek", null),
+                        client -> Flux.defer(() -> Flux.just(answer(client)))))
+                .expectError(CallNotPermittedException.class)
+                .verify();
+        assertThat(invoked).isEmpty();
+    }
+
+    private void openDeepseekCircuit() {
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> router.call(new ChatClientRouter.Route("deepseek", null), client -> {
+                invoked.add(client);
+                throw new IllegalStateException("provider down");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+        assertThat(router.isAvailable("deepseek")).isFalse();
+    }
+
+    private String answer(ChatClient client) {
+        invoked.add(client);
+        return client == deepseek ? "deepseek" : "openai";
+    }
+}
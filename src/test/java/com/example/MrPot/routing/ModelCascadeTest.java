@@ -0,0 +1,185 @@
+package com.example.MrPot.routing;
+
+import com.example.MrPot.config.CascadeProperties;
+import com.example.MrPot.model.KbDocument;
+import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.model.ScoredDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ModelCascadeTest {
+
+    private static final String CONTEXT = "MrPot is deployed on Fly.io and stores chat history in Redis.";
+
+    private final ChatClientRouter router = mock(ChatClientRouter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CascadeProperties properties = new CascadeProperties();
+    private ModelCascade cascade;
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setFastProvider("DeepSeek");
+        properties.setMinTopScore(0.78);
+        properties.setMinScoreGap(0.03);
+        when(router.isAvailable("DeepSeek")).thenReturn(true);
+        cascade = new ModelCascade(properties, router, meterRegistry);
+    }
+
+    @Test
+    void retrievalFreeRequestsGoToTheFastModel() {
+        ModelCascade.Decision decision = cascade.decide(false, null, false);
+
+        assertThat(decision.fast()).isTrue();
+        assertThat(decision.reason()).isEqualTo("no_retrieval");
+        assertThat(decision.route()).isEqualTo(new ChatClientRouter.Route("deepseek", null));
+    }
+
+    @Test
+    void degradedRetrievalGoesToTheStrongModel() {
+        ModelCascade.Decision decision = cascade.decide(true, retrieval(0.95, 0.5), true);
+
+        assertThat(decision.fast()).isFalse();
+        assertThat(decision.reason()).isEqualTo("degraded");
+        assertThat(decision.route()).isNull();
+    }
+
+    @Test
+    void lowTopScoreGoesToTheStrongModel() {
+        ModelCascade.Decision decision = cascade.decide(true, retrieval(0.77, 0.2), false);
+
+        assertThat(decision.fast()).isFalse();
+        assertThat(decision.reason()).isEqualTo("low_top_score");
+    }
+
+    @Test
+    void smallGapGoesToTheStrongModel() {
+        ModelCascade.Decision decision = cascade.decide(true, retrieval(0.90, 0.88), false);
+
+        assertThat(decision.fast()).isFalse();
+        assertThat(decision.reason()).isEqualTo("small_gap");
+        assertThat(decision.scoreGap()).isCloseTo(0.02, within(1e-9));
+    }
+
+    @Test
+    void confidentRetrievalGoesToTheFastModel() {
+        ModelCascade.Decision decision = cascade.decide(true, retrieval(0.90, 0.80), false);
+
+        assertThat(decision.fast()).isTrue();
+        assertThat(decision.reason()).isEqualTo("confident");
+        assertThat(decision.topScore()).isEqualTo(0.90);
+    }
+
+    @Test
+    void unavailableFastProviderGoesToTheStrongModel() {
+        when(router.isAvailable("DeepSeek")).thenReturn(false);
+
+        ModelCascade.Decision decision = cascade.decide(true, retrieval(0.90, 0.80), false);
+
+        assertThat(decision.fast()).isFalse();
+        assertThat(decision.reason()).isEqualTo("fast_unavailable");
+        assertThat(decision.route()).isNull();
+    }
+
+    @Test
+    void shedKeepsTheScoresAndDropsTheFastRoute() {
+        ModelCascade.Decision shed = cascade.decide(true, retrieval(0.90, 0.80), false).shed();
+
+        assertThat(shed.fast()).isFalse();
+        assertThat(shed.reason()).isEqualTo("fast_shed");
+        assertThat(shed.route()).isNull();
+        assertThat(shed.topScore()).isEqualTo(0.90);
+    }
+
+    @Test
+    void shortAnswersFail() {
+        ModelCascade.Check check = cascade.check("  Fly.io.  ", retrieval(0.9, 0.8), true);
+
+        assertThat(check.passed()).isFalse();
+        assertThat(check.reason()).isEqualTo("short_answer");
+    }
+
+    @Test
+    void refusalsFailCaseInsensitively() {
+        ModelCascade.Check english = cascade.check("Sorry, I Don't Know where MrPot is deployed.", retrieval(0.9, 0.8), true);
+        ModelCascade.Check chinese = cascade.check("抱歉，知识库里没有相关信息，无法确定部署位置。", retrieval(0.9, 0.8), true);
+
+        assertThat(english.reason()).isEqualTo("refusal");
+        assertThat(chinese.reason()).isEqualTo("refusal");
+        assertThat(english.passed()).isFalse();
+    }
+
+    @Test
+    void groundedAnswersPassAndUngroundedOnesFail() {
+        ModelCascade.Check grounded = cascade.check("MrPot is deployed on Fly.io with Redis chat history.", retrieval(0.9, 0.8), true);
+        ModelCascade.Check ungrounded = cascade.check("It runs on Kubernetes behind nginx with Memcached sessions.", retrieval(0.9, 0.8), true);
+
+        assertThat(grounded.passed()).isTrue();
+        assertThat(grounded.grounding()).isGreaterThanOrEqualTo(0.5);
+        assertThat(ungrounded.passed()).isFalse();
+        assertThat(ungrounded.reason()).isEqualTo("ungrounded");
+    }
+
+    @Test
+    void retrievalFreeAnswersSkipTheGroundingCheck() {
+        ModelCascade.Check check = cascade.check("Hello! Ask me anything about this blog.", null, false);
+
+        assertThat(check.passed()).isTrue();
+        assertThat(check.grounding()).isEqualTo(1.0);
+    }
+
+    @Test
+    void disabledSelfCheckPassesEverything() {
+        properties.getSelfCheck().setEnabled(false);
+
+        assertThat(cascade.check("", retrieval(0.9, 0.8), true).reason()).isEqualTo("unchecked");
+    }
+
+    @Test
+    void groundingCountsLatinWordsOfFourOrMoreCharacters() {
+        // Terms are "runs", "with" and "redis"; "it", "on", "fly" and "io" are too short
+        assertThat(ModelCascade.grounding("it runs on fly.io with redis", "Redis")).isEqualTo(1.0 / 3);
+        assertThat(ModelCascade.grounding("a b c", "anything")).isEqualTo(1.0);
+    }
+
+    @Test
+    void groundingUsesCjkBigrams() {
+        // Bigrams 部署, 署在, 在上, 上海: the context contains 部署 and 上海
+        assertThat(ModelCascade.grounding("部署在上海", "服务部署于上海机房")).isEqualTo(0.5);
+        assertThat(ModelCascade.grounding("部署在上海", "部署在上海")).isEqualTo(1.0);
+        assertThat(ModelCascade.grounding("部署", "部 署")).isEqualTo(0.0);
+    }
+
+    @Test
+    void trackerRecordsTheFinalPathOnce() {
+        ModelCascade.Tracker tracker = cascade.start(cascade.decide(true, retrieval(0.90, 0.80), false));
+        tracker.escalate("ungrounded");
+        tracker.finish();
+        tracker.finish();
+
+        assertThat(tracker.path()).isEqualTo("escalated");
+        assertThat(meterRegistry.counter("mrpot.llm.cascade", "path", "escalated", "reason", "ungrounded").count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.timer("mrpot.llm.cascade.latency", "path", "escalated").count()).isEqualTo(1);
+    }
+
+    private static RagRetrievalResult retrieval(double... scores) {
+        List<ScoredDocument> documents = Arrays.stream(scores)
+                .mapToObj(score -> {
+                    KbDocument document = new KbDocument();
+                    document.setContent(CONTEXT);
+                    return new ScoredDocument(document, score);
+                })
+                .toList();
+        return new RagRetrievalResult("where is MrPot deployed?", documents, CONTEXT);
+    }
+}
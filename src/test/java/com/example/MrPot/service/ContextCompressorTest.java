@@ -0,0 +1,142 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.CompressionProperties;
+import com.example.MrPot.model.KbDocument;
+import com.example.MrPot.model.ScoredDocument;
+import com.example.MrPot.model.ScoredPassage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextCompressorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void targetsOnlyLongDocumentsWhenEnabled() {
+        ScoredDocument longDoc = document(1L, "x".repeat(100));
+        ScoredDocument shortDoc = document(2L, "x".repeat(99));
+        ScoredDocument noId = document(null, "x".repeat(100));
+        List<ScoredDocument> documents = List.of(longDoc, shortDoc, noId);
+
+        assertThat(new ContextCompressor(new CompressionProperties(), meterRegistry).targets(documents)).isEmpty();
+        assertThat(compressor(1000, 4).targets(documents)).containsExactly(1L);
+    }
+
+    @Test
+    void excerptJoinsAdjacentPassagesAndMarksGaps() {
+        List<ScoredPassage> passages = List.of(
+                passage(1L, 4, "e", 0.9),
+                passage(1L, 1, "b", 0.8),
+                passage(1L, 2, "c", 0.7));
+
+        assertThat(ContextCompressor.excerpt(passages)).isEqualTo("… b c … e");
+        assertThat(ContextCompressor.excerpt(List.of(passage(1L, 0, "a", 0.5), passage(1L, 1, "b", 0.5))))
+                .isEqualTo("a b");
+    }
+
+    @Test
+    void addsPassagesBestScoreFirstWhileTheBudgetLasts() {
+        // 99 tokens = 396 chars: two headers (96), the short document (50) and the best passage (100)
+        // leave 150, enough for one more passage plus its gap marker
+        ContextCompressor compressor = compressor(99, 4);
+        ScoredDocument longDoc = document(1L, "x".repeat(400));
+        ScoredDocument shortDoc = document(2L, "y".repeat(50));
+        List<ScoredPassage> passages = List.of(
+                passage(1L, 0, "a".repeat(100), 0.9),
+                passage(1L, 1, "b".repeat(100), 0.5),
+                passage(1L, 2, "c".repeat(100), 0.8),
+                passage(1L, 3, "d".repeat(100), 0.1));
+
+        ContextCompressor.Result result = compressor.compress(List.of(longDoc, shortDoc), passages);
+
+        assertThat(result.excerpts()).containsOnlyKeys(1L);
+        assertThat(result.excerpts().get(1L)).isEqualTo("a".repeat(100) + " … " + "c".repeat(100));
+        assertThat(result.tokensSaved()).isEqualTo((400 - 203) / 4);
+        assertThat(count("compressed")).isEqualTo(1.0);
+        assertThat(count("whole")).isEqualTo(1.0);
+    }
+
+    @Test
+    void keepsTheBestPassageEvenOverBudget() {
+        ContextCompressor compressor = compressor(1, 4);
+        ScoredDocument longDoc = document(1L, "x".repeat(400));
+        List<ScoredPassage> passages = List.of(
+                passage(1L, 0, "a".repeat(100), 0.2),
+                passage(1L, 1, "b".repeat(100), 0.9));
+
+        ContextCompressor.Result result = compressor.compress(List.of(longDoc), passages);
+
+        assertThat(result.excerpts().get(1L)).isEqualTo("… " + "b".repeat(100));
+    }
+
+    @Test
+    void capsPassagesPerDocument() {
+        ContextCompressor compressor = compressor(10_000, 2);
+        ScoredDocument longDoc = document(1L, "x".repeat(1000));
+        List<ScoredPassage> passages = List.of(
+                passage(1L, 0, "a".repeat(100), 0.3),
+                passage(1L, 1, "b".repeat(100), 0.9),
+                passage(1L, 2, "c".repeat(100), 0.8));
+
+        ContextCompressor.Result result = compressor.compress(List.of(longDoc), passages);
+
+        assertThat(result.excerpts().get(1L)).isEqualTo("… " + "b".repeat(100) + " " + "c".repeat(100));
+    }
+
+    @Test
+    void documentsWithoutPassagesStayWhole() {
+        ContextCompressor compressor = compressor(1000, 4);
+        ScoredDocument unindexed = document(1L, "x".repeat(400));
+        ScoredDocument indexed = document(2L, "y".repeat(400));
+        List<ScoredPassage> passages = List.of(passage(2L, 0, "y".repeat(100), 0.9));
+
+        ContextCompressor.Result result = compressor.compress(List.of(unindexed, indexed), passages);
+
+        assertThat(result.excerpts()).containsOnlyKeys(2L);
+        assertThat(count("unindexed")).isEqualTo(1.0);
+        assertThat(count("compressed")).isEqualTo(1.0);
+    }
+
+    @Test
+    void excerptsThatSaveNothingAreDropped() {
+        ContextCompressor compressor = compressor(10_000, 4);
+        ScoredDocument longDoc = document(1L, "a".repeat(100) + " " + "b".repeat(100));
+        List<ScoredPassage> passages = List.of(
+                passage(1L, 0, "a".repeat(100), 0.9),
+                passage(1L, 1, "b".repeat(100), 0.8));
+
+        ContextCompressor.Result result = compressor.compress(List.of(longDoc), passages);
+
+        assertThat(result.excerpts()).isEmpty();
+        assertThat(result.tokensSaved()).isZero();
+        assertThat(count("whole")).isEqualTo(1.0);
+    }
+
+    private ContextCompressor compressor(int tokenBudget, int maxPassagesPerDocument) {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setEnabled(true);
+        properties.setTokenBudget(tokenBudget);
+        properties.setMinDocumentChars(100);
+        properties.setMaxPassagesPerDocument(maxPassagesPerDocument);
+        return new ContextCompressor(properties, meterRegistry);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter("mrpot.rag.compression.documents", "outcome", outcome).count();
+    }
+
+    private static ScoredDocument document(Long id, String content) {
+        KbDocument document = new KbDocument();
+        document.setId(id);
+        document.setContent(content);
+        return new ScoredDocument(document, 0.8);
+    }
+
+    private static ScoredPassage passage(long documentId, int ordinal, String content, double score) {
+        return new ScoredPassage(documentId, ordinal, content, score);
+    }
+}
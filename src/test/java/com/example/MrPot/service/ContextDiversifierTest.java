@@ -0,0 +1,135 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.DiversityProperties;
+import com.example.MrPot.model.KbDocument;
+import com.example.MrPot.model.ScoredDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextDiversifierTest {
+
+    private static final String GUIDE = "MrPot answers questions about the blog using retrieved knowledge base passages.";
+    private static final String OTHER = "Deployments run on Fly.io with a managed Postgres and a Redis cache for chat history.";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void signatureIgnoresCaseAndWhitespace() {
+        long[] a = ContextDiversifier.signature(GUIDE, 5, 64);
+        long[] b = ContextDiversifier.signature("  " + GUIDE.toUpperCase().replace(" ", "\n\t "), 5, 64);
+
+        assertThat(ContextDiversifier.similarity(a, b)).isEqualTo(1.0);
+    }
+
+    @Test
+    void unrelatedTextsAreNotSimilar() {
+        long[] a = ContextDiversifier.signature(GUIDE, 5, 64);
+        long[] b = ContextDiversifier.signature(OTHER, 5, 64);
+
+        assertThat(ContextDiversifier.similarity(a, b)).isLessThan(0.3);
+    }
+
+    @Test
+    void parseVectorReadsPgvectorTextAndRejectsMalformedInput() {
+        assertThat(ContextDiversifier.parseVector("[0.5,-1,2.25]")).containsExactly(0.5f, -1f, 2.25f);
+        assertThat(ContextDiversifier.parseVector(null)).isNull();
+        assertThat(ContextDiversifier.parseVector("0.5,1")).isNull();
+        assertThat(ContextDiversifier.parseVector("[0.5,abc]")).isNull();
+        assertThat(ContextDiversifier.parseVector("[0.5,1")).isNull();
+    }
+
+    @Test
+    void dropsNearDuplicatesOfBetterScoredDocuments() {
+        ContextDiversifier diversifier = new ContextDiversifier(new DiversityProperties(), meterRegistry);
+        ScoredDocument best = document(1, GUIDE, 0.9, null);
+        ScoredDocument copy = document(2, GUIDE.toLowerCase() + " ", 0.85, null);
+        ScoredDocument other = document(3, OTHER, 0.7, null);
+
+        ContextDiversifier.Result result = diversifier.diversify(List.of(best, copy, other), 3);
+
+        assertThat(result.documents()).containsExactly(best, other);
+        assertThat(result.duplicates()).isEqualTo(1);
+        assertThat(meterRegistry.counter("mrpot.rag.diversity.dropped", "reason", "duplicate").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void truncatesToTopKWithoutMmr() {
+        DiversityProperties properties = new DiversityProperties();
+        properties.setDedupEnabled(false);
+        ContextDiversifier diversifier = new ContextDiversifier(properties, meterRegistry);
+        ScoredDocument a = document(1, GUIDE, 0.9, null);
+        ScoredDocument b = document(2, GUIDE, 0.8, null);
+        ScoredDocument c = document(3, OTHER, 0.7, null);
+
+        ContextDiversifier.Result result = diversifier.diversify(List.of(a, b, c), 2);
+
+        assertThat(result.documents()).containsExactly(a, b);
+        assertThat(result.duplicates()).isZero();
+        assertThat(result.redundant()).isZero();
+    }
+
+    @Test
+    void mmrPrefersADiverseDocumentOverASimilarHigherScoredOne() {
+        ContextDiversifier diversifier = new ContextDiversifier(mmr(0.5), meterRegistry);
+        ScoredDocument a = document(1, "a", 0.9, "[1,0]");
+        ScoredDocument b = document(2, "b", 0.8, "[0.8,0.6]");
+        ScoredDocument c = document(3, "c", 0.7, "[0,1]");
+
+        ContextDiversifier.Result result = diversifier.diversify(List.of(a, b, c), 2);
+
+        assertThat(result.documents()).containsExactly(a, c);
+        assertThat(result.redundant()).isZero();
+    }
+
+    @Test
+    void mmrNeverSelectsRedundantDocuments() {
+        ContextDiversifier diversifier = new ContextDiversifier(mmr(0.7), meterRegistry);
+        ScoredDocument a = document(1, "a", 0.9, "[1,0]");
+        ScoredDocument nearCopy = document(2, "b", 0.85, "[1,0.01]");
+        ScoredDocument c = document(3, "c", 0.6, "[0,1]");
+
+        ContextDiversifier.Result result = diversifier.diversify(List.of(a, nearCopy, c), 3);
+
+        assertThat(result.documents()).containsExactly(a, c);
+        assertThat(result.redundant()).isEqualTo(1);
+        assertThat(meterRegistry.counter("mrpot.rag.diversity.dropped", "reason", "redundant").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void mmrKeepsScoreOrderWhenEmbeddingsAreMissing() {
+        ContextDiversifier diversifier = new ContextDiversifier(mmr(0.5), meterRegistry);
+        ScoredDocument a = document(1, "a", 0.9, "[1,0]");
+        ScoredDocument b = document(2, "b", 0.8, null);
+        ScoredDocument c = document(3, "c", 0.7, "[0,1]");
+
+        ContextDiversifier.Result result = diversifier.diversify(List.of(a, b, c), 2);
+
+        assertThat(result.documents()).containsExactly(a, b);
+    }
+
+    @Test
+    void candidateCountWidensOnlyForMmr() {
+        assertThat(new ContextDiversifier(new DiversityProperties(), meterRegistry).candidateCount(5)).isEqualTo(5);
+        assertThat(new ContextDiversifier(mmr(0.7), meterRegistry).candidateCount(5)).isEqualTo(15);
+    }
+
+    private static DiversityProperties mmr(double lambda) {
+        DiversityProperties properties = new DiversityProperties();
+        properties.setDedupEnabled(false);
+        properties.setMmrEnabled(true);
+        properties.setMmrLambda(lambda);
+        return properties;
+    }
+
+    private static ScoredDocument document(long id, String content, double score, String embedding) {
+        KbDocument document = new KbDocument();
+        document.setId(id);
+        document.setContent(content);
+        document.setEmbedding(embedding);
+        return new ScoredDocument(document, score);
+    }
+}
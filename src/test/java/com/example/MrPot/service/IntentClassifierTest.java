@@ -0,0 +1,51 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.IntentProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntentClassifierTest {
+
+    private final IntentClassifier classifier = new IntentClassifier(
+            new IntentProperties(),
+            new StaticListableBeanFactory().getBeanProvider(IntentModel.class),
+            new SimpleMeterRegistry());
+
+    @ParameterizedTest
+    @ValueSource(strings = {"hi", "Hello Mr Pot!", "thanks", "谢谢", "good morning"})
+    void greetings(String question) {
+        assertThat(classifier.classify(question).intent()).isEqualTo(QueryIntent.GREETING);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "How do I use this website?",
+            "how can I navigate the site",
+            "Please give me a tour of this site",
+            "website guide",
+            "Getting started?",
+            "这个网站怎么用？",
+            "如何使用这个网站",
+            "网站导航"
+    })
+    void siteNavigation(String question) {
+        assertThat(classifier.classify(question).intent()).isEqualTo(QueryIntent.SITE_GUIDE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "How do I use Spring AI tool calling in MrPot?",
+            "Where can I find Yuqi's resume?",
+            "Redis 怎么用",
+            "How do I use this website to find Yuqi's blog posts about pgvector?",
+            "What is getting started with Kubernetes like?",
+            "hi, what projects has Yuqi built with Spring Boot?"
+    })
+    void knowledgeQuestionsKeepRetrieval(String question) {
+        assertThat(classifier.classify(question).intent()).isEqualTo(QueryIntent.KNOWLEDGE);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.MrPot.service;
+
+import com.example.MrPot.config.RetrievalCacheProperties;
+import com.example.MrPot.model.RagQueryRequest;
+import com.example.MrPot.model.RagRetrievalResult;
+import com.example.MrPot.repository.KbCollections;
+import com.example.MrPot.repository.KbDocumentVectorRepository;
+import com.example.MrPot.repository.KbVersionTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RetrievalResultCacheTest {
+
+    private final KbVersionTracker versionTracker = mock(KbVersionTracker.class);
+    private final KbCollections kbCollections = mock(KbCollections.class);
+    private final KbDocumentVectorRepository repository = mock(KbDocumentVectorRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetrievalCacheProperties properties = new RetrievalCacheProperties();
+    private RetrievalResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(kbCollections.isOnPrimary(any())).thenReturn(true);
+        when(kbCollections.resolve(any())).thenReturn(KbCollections.DEFAULT);
+        when(kbCollections.repository(KbCollections.DEFAULT)).thenReturn(repository);
+        when(repository.getTable()).thenReturn("kb_documents");
+        when(versionTracker.version("kb_documents")).thenReturn(7L);
+        cache = new RetrievalResultCache(properties, versionTracker, kbCollections, meterRegistry);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "What is MrPot?|what is mrpot",
+            "  what   IS\tmrpot ?!  |what is mrpot",
+            "ＭｒＰｏｔ 是什么。|mrpot 是什么",
+            "...|''",
+    })
+    void normalizeFoldsWidthCaseWhitespaceAndTrailingPunctuation(String question, String expected) {
+        assertThat(RetrievalResultCache.normalize(question)).isEqualTo(expected);
+    }
+
+    @Test
+    void equivalentQuestionsShareAKey() {
+        RetrievalResultCache.Key a = cache.key(request("What is MrPot?"), "FULL", false);
+        RetrievalResultCache.Key b = cache.key(request("  what is   mrpot "), "FULL", false);
+
+        assertThat(a).isEqualTo(b);
+        assertThat(a.etag()).startsWith("W/\"7-");
+    }
+
+    @Test
+    void viewAndContextChangeOnlyTheEtag() {
+        RetrievalResultCache.Key full = cache.key(request("What is MrPot?"), "FULL", false);
+        RetrievalResultCache.Key compact = cache.key(request("What is MrPot?"), "COMPACT", false);
+        RetrievalResultCache.Key withContext = cache.key(request("What is MrPot?"), "FULL", true);
+
+        assertThat(compact.key()).isEqualTo(full.key());
+        assertThat(compact.etag()).isNotEqualTo(full.etag());
+        assertThat(withContext.etag()).isNotEqualTo(full.etag());
+    }
+
+    @Test
+    void versionBumpChangesKeyAndEtagAndMissesTheCache() {
+        RetrievalResultCache.Key before = cache.key(request("What is MrPot?"), "FULL", false);
+        cache.put(before, result());
+        when(versionTracker.version("kb_documents")).thenReturn(8L);
+
+        RetrievalResultCache.Key after = cache.key(request("What is MrPot?"), "FULL", false);
+
+        assertThat(after.key()).isNotEqualTo(before.key());
+        assertThat(after.etag()).startsWith("W/\"8-");
+        assertThat(cache.notModified(after, before.etag())).isFalse();
+        assertThat(cache.get(after)).isNull();
+        assertThat(cache.get(before)).isNotNull();
+    }
+
+    @Test
+    void unknownVersionOrShardedCollectionBypassesTheCache() {
+        when(versionTracker.version("kb_documents")).thenReturn(null);
+        assertThat(cache.key(request("What is MrPot?"), "FULL", false)).isNull();
+
+        when(versionTracker.version("kb_documents")).thenReturn(7L);
+        when(kbCollections.isOnPrimary(any())).thenReturn(false);
+        assertThat(cache.key(request("What is MrPot?"), "FULL", false)).isNull();
+
+        assertThat(meterRegistry.counter("mrpot.retrieval.cache", "result", "bypass").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void notModifiedUsesWeakComparison() {
+        RetrievalResultCache.Key key = cache.key(request("What is MrPot?"), "FULL", false);
+        String strong = key.etag().substring(2);
+
+        assertThat(cache.notModified(key, key.etag())).isTrue();
+        assertThat(cache.notModified(key, strong)).isTrue();
+        assertThat(cache.notModified(key, "W/\"7-000000000000000000000000\"")).isFalse();
+    }
+
+    @Test
+    void notModifiedMatchesAnyListedEtagOrStar() {
+        RetrievalResultCache.Key key = cache.key(request("What is MrPot?"), "FULL", false);
+
+        assertThat(cache.notModified(key, "\"other\", " + key.etag() + " ,W/\"third\"")).isTrue();
+        assertThat(cache.notModified(key, "*")).isTrue();
+        assertThat(cache.notModified(key, "\"other\", W/\"third\"")).isFalse();
+        assertThat(cache.notModified(key, null)).isFalse();
+        assertThat(cache.notModified(key, " ")).isFalse();
+        assertThat(meterRegistry.counter("mrpot.retrieval.cache", "result", "not_modified").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(20));
+        RetrievalResultCache.Key key = cache.key(request("What is MrPot?"), "FULL", false);
+        cache.put(key, result());
+        assertThat(cache.get(key)).isNotNull();
+
+        Thread.sleep(40);
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        properties.setMaxEntries(2);
+        cache = new RetrievalResultCache(properties, versionTracker, kbCollections, meterRegistry);
+        RetrievalResultCache.Key a = cache.key(request("a"), "FULL", false);
+        RetrievalResultCache.Key b = cache.key(request("b"), "FULL", false);
+        RetrievalResultCache.Key c = cache.key(request("c"), "FULL", false);
+        cache.put(a, result());
+        cache.put(b, result());
+        cache.get(a);
+        cache.put(c, result());
+
+        assertThat(cache.get(a)).isNotNull();
+        assertThat(cache.get(b)).isNull();
+        assertThat(cache.get(c)).isNotNull();
+    }
+
+    @Test
+    void cacheControlForcesRevalidation() {
+        assertThat(cache.cacheControl().getHeaderValue()).isEqualTo("no-cache, public");
+    }
+
+    private static RagQueryRequest request(String question) {
+        return new RagQueryRequest(question, 5, 0.5);
+    }
+
+    private static RagRetrievalResult result() {
+        return new RagRetrievalResult("What is MrPot?", List.of(), "");
+    }
+}
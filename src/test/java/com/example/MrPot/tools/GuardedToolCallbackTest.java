@@ -0,0 +1,113 @@
+package com.example.MrPot.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GuardedToolCallbackTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ToolResultMemo memo = new ToolResultMemo(new ObjectMapper(), 100, Duration.ofMinutes(1));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void lateToolsAreInterruptedAndReportedAsTimeouts() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        StubToolCallback slow = new StubToolCallback("slow", input -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+            return "late";
+        });
+        GuardedToolCallback guarded = guard(slow, false, Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> guarded.call("{}"))
+                .isInstanceOf(ToolExecutionException.class)
+                .hasCauseInstanceOf(ToolTimeoutException.class)
+                .hasMessage("Tool 'slow' timed out after 50ms");
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.counter("mrpot.tool.errors", "tool", "slow", "reason", "timeout").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.timer("mrpot.tool.latency", "tool", "slow", "outcome", "timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void pureToolsAreMemoizedAcrossArgumentOrder() {
+        StubToolCallback tool = new StubToolCallback("kb_search", input -> "result");
+        GuardedToolCallback guarded = guard(tool, true, Duration.ofSeconds(5));
+
+        assertThat(guarded.call("{\"a\":1,\"b\":2}")).isEqualTo("result");
+        assertThat(guarded.call("{\"b\":2, \"a\":1}")).isEqualTo("result");
+
+        assertThat(tool.inputs).hasSize(1);
+        assertThat(meterRegistry.counter("mrpot.tool.memo.hits", "tool", "kb_search").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void impureToolsRunEveryTime() {
+        StubToolCallback tool = new StubToolCallback("clock", input -> "now");
+        GuardedToolCallback guarded = guard(tool, false, Duration.ofSeconds(5));
+
+        guarded.call("{}");
+        guarded.call("{}");
+
+        assertThat(tool.inputs).hasSize(2);
+    }
+
+    @Test
+    void toolErrorsAreRethrownAndCounted() {
+        StubToolCallback failing = new StubToolCallback("broken", input -> {
+            throw new IllegalStateException("boom");
+        });
+        GuardedToolCallback guarded = guard(failing, true, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> guarded.call("{}")).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThatThrownBy(() -> guarded.call("{}")).isInstanceOf(IllegalStateException.class);
+
+        // Failures are not memoized
+        assertThat(failing.inputs).hasSize(2);
+        assertThat(meterRegistry.counter("mrpot.tool.errors", "tool", "broken", "reason", "error").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void timeoutRunsFromStartNotFromAwait() throws InterruptedException {
+        StubToolCallback slow = new StubToolCallback("slow", input -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+        GuardedToolCallback.Pending pending = guard(slow, false, Duration.ofMillis(50)).start("{}", null);
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(pending::await).isInstanceOf(ToolExecutionException.class);
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private GuardedToolCallback guard(StubToolCallback tool, boolean pure, Duration timeout) {
+        return new GuardedToolCallback(tool, pure, timeout, executor, memo, meterRegistry);
+    }
+}
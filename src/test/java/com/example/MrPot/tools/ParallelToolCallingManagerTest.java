@@ -0,0 +1,132 @@
+package com.example.MrPot.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelToolCallingManagerTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ToolResultMemo memo = new ToolResultMemo(new ObjectMapper(), 100, Duration.ofMinutes(1));
+    private final ParallelToolCallingManager manager =
+            new ParallelToolCallingManager(ToolCallingManager.builder().build(), executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callsOfOneResponseRunConcurrently() {
+        // Each call waits for the other to start: sequential execution would time out
+        CountDownLatch started = new CountDownLatch(2);
+        StubToolCallback tool = new StubToolCallback("lookup", input -> {
+            started.countDown();
+            try {
+                return started.await(2, TimeUnit.SECONDS) ? "ok " + input : "sequential";
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return "interrupted";
+            }
+        });
+
+        ToolExecutionResult result = manager.executeToolCalls(
+                prompt(guard(tool, false)), response(call("1", "lookup", "{\"q\":1}"), call("2", "lookup", "{\"q\":2}")));
+
+        assertThat(responses(result)).containsExactly("ok {\"q\":1}", "ok {\"q\":2}");
+    }
+
+    @Test
+    void identicalCallsInOneTurnExecuteOnce() {
+        StubToolCallback tool = new StubToolCallback("lookup", input -> "result");
+
+        ToolExecutionResult result = manager.executeToolCalls(prompt(guard(tool, false)), response(
+                call("1", "lookup", "{\"q\":1}"),
+                call("2", "lookup", "{\"q\":1}"),
+                call("3", "lookup", "{\"q\":2}")));
+
+        assertThat(responses(result)).containsExactly("result", "result", "result");
+        assertThat(tool.inputs).containsExactlyInAnyOrder("{\"q\":1}", "{\"q\":2}");
+        assertThat(meterRegistry.timer("mrpot.tool.latency", "tool", "lookup", "outcome", "success").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void unguardedCallbacksAreStillPrefetched() {
+        StubToolCallback tool = new StubToolCallback("plain", input -> "plain " + input);
+
+        ToolExecutionResult result = manager.executeToolCalls(prompt(tool),
+                response(call("1", "plain", "a"), call("2", "plain", "a")));
+
+        assertThat(responses(result)).containsExactly("plain a", "plain a");
+        assertThat(tool.inputs).containsExactly("a");
+    }
+
+    @Test
+    void timedOutCallIsReportedToTheModel() {
+        StubToolCallback slow = new StubToolCallback("slow", input -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "late";
+        });
+        StubToolCallback fast = new StubToolCallback("fast", input -> "fast");
+        GuardedToolCallback guardedSlow = new GuardedToolCallback(slow, false, Duration.ofMillis(50), executor, memo,
+                meterRegistry);
+
+        ToolExecutionResult result = manager.executeToolCalls(prompt(guardedSlow, guard(fast, false)),
+                response(call("1", "slow", "{}"), call("2", "fast", "{}")));
+
+        List<String> responses = responses(result);
+        assertThat(responses.get(0)).contains("timed out");
+        assertThat(responses.get(1)).isEqualTo("fast");
+        assertThat(meterRegistry.counter("mrpot.tool.errors", "tool", "slow", "reason", "timeout").count()).isEqualTo(1.0);
+    }
+
+    private GuardedToolCallback guard(StubToolCallback tool, boolean pure) {
+        return new GuardedToolCallback(tool, pure, Duration.ofSeconds(5), executor, memo, meterRegistry);
+    }
+
+    private static Prompt prompt(ToolCallback... callbacks) {
+        ToolCallingChatOptions options = ToolCallingChatOptions.builder().toolCallbacks(List.of(callbacks)).build();
+        return new Prompt(List.of(new UserMessage("question")), options);
+    }
+
+    private static AssistantMessage.ToolCall call(String id, String name, String arguments) {
+        return new AssistantMessage.ToolCall(id, "function", name, arguments);
+    }
+
+    private static ChatResponse response(AssistantMessage.ToolCall... calls) {
+        AssistantMessage message = AssistantMessage.builder().content("").toolCalls(List.of(calls)).build();
+        return new ChatResponse(List.of(new Generation(message)));
+    }
+
+    private static List<String> responses(ToolExecutionResult result) {
+        ToolResponseMessage message = (ToolResponseMessage) result.conversationHistory()
+                .get(result.conversationHistory().size() - 1);
+        return message.getResponses().stream().map(ToolResponseMessage.ToolResponse::responseData).toList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.MrPot.tools;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Tool that records its inputs and answers with a function of them.
+ */
+class StubToolCallback implements ToolCallback {
+
+    final List<String> inputs = new CopyOnWriteArrayList<>();
+    private final ToolDefinition definition;
+    private final Function<String, String> body;
+
+    StubToolCallback(String name, Function<String, String> body) {
+        this.definition = ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        this.body = body;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return definition;
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        inputs.add(toolInput);
+        return body.apply(toolInput);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.MrPot.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolResultMemoTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void keyIgnoresArgumentOrderAndWhitespace() {
+        ToolResultMemo memo = new ToolResultMemo(objectMapper, 10, Duration.ofMinutes(1));
+
+        String a = memo.key("kb_search", "{\"query\":\"mrpot\",\"topK\":5,\"filter\":{\"b\":1,\"a\":2}}");
+        String b = memo.key("kb_search", "{ \"filter\" : {\"a\":2, \"b\":1},\n \"topK\": 5, \"query\": \"mrpot\" }");
+
+        assertThat(a).isEqualTo(b).startsWith("kb_search:");
+    }
+
+    @Test
+    void keyDependsOnToolNameAndValues() {
+        ToolResultMemo memo = new ToolResultMemo(objectMapper, 10, Duration.ofMinutes(1));
+        String args = "{\"query\":\"mrpot\"}";
+
+        assertThat(memo.key("kb_search", args)).isNotEqualTo(memo.key("web_guide", args));
+        assertThat(memo.key("kb_search", args)).isNotEqualTo(memo.key("kb_search", "{\"query\":\"MrPot\"}"));
+    }
+
+    @Test
+    void nonJsonArgumentsFallBackToTheRawText() {
+        ToolResultMemo memo = new ToolResultMemo(objectMapper, 10, Duration.ofMinutes(1));
+
+        assertThat(memo.key("echo", "not json {")).isEqualTo(memo.key("echo", "not json {"));
+        assertThat(memo.key("echo", "not json {")).isNotEqualTo(memo.key("echo", "not json  {"));
+        assertThat(memo.key("echo", null)).isEqualTo(memo.key("echo", ""));
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws InterruptedException {
+        ToolResultMemo memo = new ToolResultMemo(objectMapper, 10, Duration.ofMillis(20));
+        String key = memo.key("kb_search", "{}");
+        memo.put(key, "result");
+        assertThat(memo.get(key)).isEqualTo("result");
+
+        Thread.sleep(40);
+
+        assertThat(memo.get(key)).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        ToolResultMemo memo = new ToolResultMemo(objectMapper, 2, Duration.ofMinutes(1));
+        memo.put("a", "1");
+        memo.put("b", "2");
+        memo.get("a");
+        memo.put("c", "3");
+
+        assertThat(memo.get("a")).isEqualTo("1");
+        assertThat(memo.get("b")).isNull();
+        assertThat(memo.get("c")).isEqualTo("3");
+    }
+}